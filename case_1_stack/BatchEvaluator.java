@@ -0,0 +1,234 @@
+// evaluasi paralel (fork/join) untuk banyak ekspresi atau banyak baris data.
+
+package case_1_stack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public final class BatchEvaluator {
+
+    public static final int DEFAULT_ROW_CHUNK = 8192;
+    public static final int DEFAULT_EXPRESSION_CHUNK = 256;
+
+    private final ForkJoinPool pool;
+    private final int rowChunk;
+    private final int expressionChunk;
+
+    public BatchEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_ROW_CHUNK, DEFAULT_EXPRESSION_CHUNK);
+    }
+
+    public BatchEvaluator(final ForkJoinPool pool, final int rowChunk, final int expressionChunk) {
+        if (rowChunk <= 0 || expressionChunk <= 0) {
+            throw new IllegalArgumentException("Ukuran chunk harus lebih dari 0.");
+        }
+        this.pool = pool;
+        this.rowChunk = rowChunk;
+        this.expressionChunk = expressionChunk;
+    }
+
+    /**
+     * Laporan satu chunk: rentang indeks [from, to), jumlah error, dan indeks error pertama.
+     */
+    public static final class ChunkReport {
+        private final int from;
+        private final int to;
+        private final int errorCount;
+        private final int firstError;
+
+        ChunkReport(final int from, final int to, final int errorCount, final int firstError) {
+            this.from = from;
+            this.to = to;
+            this.errorCount = errorCount;
+            this.firstError = firstError;
+        }
+
+        public int getFrom() {
+            return this.from;
+        }
+
+        public int getTo() {
+            return this.to;
+        }
+
+        public int getErrorCount() {
+            return this.errorCount;
+        }
+
+        // Indeks error pertama dalam chunk, atau -1 jika tidak ada error
+        public int getFirstError() {
+            return this.firstError;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + this.from + ", " + this.to + "): " + this.errorCount + " error"
+                    + (this.firstError >= 0 ? " (pertama di " + this.firstError + ")" : "");
+        }
+    }
+
+    /**
+     * Hasil batch: nilai per elemen (NaN jika gagal), kode error per elemen, dan laporan per chunk.
+     */
+    public static final class BatchResult {
+        private final double[] values;
+        private final ErrorCode[] errors;
+        private final List<ChunkReport> chunks;
+        private final int errorCount;
+
+        BatchResult(final double[] values, final ErrorCode[] errors, final ChunkReport[] chunks) {
+            this.values = values;
+            this.errors = errors;
+            this.chunks = Collections.unmodifiableList(Arrays.asList(chunks));
+            int count = 0;
+            for (final ChunkReport chunk : chunks) {
+                count += chunk.getErrorCount();
+            }
+            this.errorCount = count;
+        }
+
+        public double[] getValues() {
+            return this.values;
+        }
+
+        // Kode error elemen ke-index, atau null jika berhasil (hasil NaN yang sah tetap null)
+        public ErrorCode getError(final int index) {
+            return this.errors[index];
+        }
+
+        public List<ChunkReport> getChunks() {
+            return this.chunks;
+        }
+
+        public int getErrorCount() {
+            return this.errorCount;
+        }
+
+        public boolean hasErrors() {
+            return this.errorCount > 0;
+        }
+    }
+
+    /**
+     * Mengompilasi dan mengevaluasi banyak ekspresi (tanpa variabel) secara paralel.
+     * Ekspresi yang tidak valid atau gagal dievaluasi menghasilkan NaN dan dicatat di chunk-nya.
+     *
+     * @param expressions Daftar ekspresi infix.
+     * @return Hasil batch, satu nilai per ekspresi.
+     */
+    public BatchResult evaluateExpressions(final List<String> expressions) {
+        final String[] sources = expressions.toArray(new String[0]);
+        final double[] values = new double[sources.length];
+        final ErrorCode[] codes = new ErrorCode[sources.length];
+
+        final ChunkReport[] reports = run(sources.length, this.expressionChunk, (from, to) -> {
+            int errors = 0;
+            int firstError = -1;
+            for (int i = from; i < to; i++) {
+                values[i] = Double.NaN;
+                // Ekspresi tidak valid ditolak dengan kode error saja, tanpa exception atau format pesan
+                final Result<CompiledExpression> compiled = CompiledExpression.tryCompile(sources[i]);
+                if (compiled.isOk()) {
+                    // Batch tidak membawa nilai variabel: ekspresi dengan variabel tidak dievaluasi
+                    if (!compiled.getValue().getVariables().isEmpty()) {
+                        codes[i] = ErrorCode.MISSING_VARIABLE;
+                    } else {
+                        try {
+                            values[i] = compiled.getValue().evaluate();
+                        } catch (ArithmeticException e) {
+                            codes[i] = CompiledExpression.errorCode(e);
+                        }
+                    }
+                } else {
+                    codes[i] = compiled.getCode();
+                }
+                if (codes[i] != null) {
+                    errors++;
+                    if (firstError == -1) {
+                        firstError = i;
+                    }
+                }
+            }
+            return new ChunkReport(from, to, errors, firstError);
+        });
+
+        return new BatchResult(values, codes, reports);
+    }
+
+    /**
+     * Mengevaluasi satu ekspresi terkompilasi untuk banyak baris secara paralel.
+     * Baris yang gagal (pembagian dengan nol) diisi NaN dan dicatat di chunk-nya.
+     *
+     * @param expression Ekspresi terkompilasi.
+     * @param columns Kolom nilai, satu per variabel, urut sesuai {@link CompiledExpression#getVariables()}.
+     * @param results Array hasil, panjangnya menentukan jumlah baris.
+     * @return Hasil batch yang membungkus array results.
+     */
+    public BatchResult evaluateColumns(final CompiledExpression expression, final double[][] columns,
+                                       final double[] results) {
+        final ErrorCode[] codes = new ErrorCode[results.length];
+        final ChunkReport[] reports = run(results.length, this.rowChunk, (from, to) -> {
+            final int errors = expression.evaluateColumns(columns, results, from, to, codes);
+            int firstError = -1;
+            for (int r = from; errors > 0 && r < to; r++) {
+                if (codes[r] != null) {
+                    firstError = r;
+                    break;
+                }
+            }
+            return new ChunkReport(from, to, errors, firstError);
+        });
+
+        return new BatchResult(results, codes, reports);
+    }
+
+    // Membagi [0, size) menjadi chunk berukuran tetap dan mengerjakannya di pool
+    private ChunkReport[] run(final int size, final int chunk, final ChunkWorker worker) {
+        final ChunkReport[] reports = new ChunkReport[(size + chunk - 1) / chunk];
+        if (reports.length > 0) {
+            this.pool.invoke(new ChunkTask(worker, reports, size, chunk, 0, reports.length));
+        }
+        return reports;
+    }
+
+    // Pekerjaan untuk satu chunk [from, to)
+    private interface ChunkWorker {
+        ChunkReport compute(int from, int to);
+    }
+
+    // Membagi rentang chunk [lo, hi) secara rekursif; setiap daun mengerjakan satu chunk
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ChunkWorker worker;
+        private final ChunkReport[] reports;
+        private final int size;
+        private final int chunk;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(final ChunkWorker worker, final ChunkReport[] reports, final int size, final int chunk,
+                  final int lo, final int hi) {
+            this.worker = worker;
+            this.reports = reports;
+            this.size = size;
+            this.chunk = chunk;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo == 1) {
+                final int from = this.lo * this.chunk;
+                this.reports[this.lo] = this.worker.compute(from, Math.min(from + this.chunk, this.size));
+                return;
+            }
+            final int mid = (this.lo + this.hi) >>> 1;
+            invokeAll(new ChunkTask(this.worker, this.reports, this.size, this.chunk, this.lo, mid),
+                      new ChunkTask(this.worker, this.reports, this.size, this.chunk, mid, this.hi));
+        }
+    }
+}
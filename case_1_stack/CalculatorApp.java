@@ -2,10 +2,13 @@
 
 package case_1_stack;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.Stack;
 
 public class CalculatorApp {
 
@@ -27,7 +30,39 @@ public class CalculatorApp {
         System.out.println();
     }
 
-    public static void main(String[] args) {
+    // Helper untuk meminta nilai setiap variabel yang muncul di ekspresi
+    private static Map<String, Double> readVariables(final Scanner scanner, final Collection<Token> tokens) {
+        final Map<String, Double> variables = new LinkedHashMap<>();
+        for (final Token token : tokens) {
+            if (token.getType() != TokenType.VARIABLE || variables.containsKey(token.toString())) {
+                continue;
+            }
+            System.out.print("   Nilai " + token + " = ");
+            final String input = scanner.nextLine().trim().replace(',', '.');
+            try {
+                variables.put(token.toString(), Double.parseDouble(input));
+            } catch (NumberFormatException e) {
+                System.err.println("   Nilai variabel tidak valid: '" + input + "'");
+                return null;
+            }
+        }
+        return variables;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Mode file: java case_1_stack.CalculatorApp --file <input> <output>
+        if (args.length >= 3 && args[0].equals("--file")) {
+            System.out.println(StreamingEvaluator.evaluateFile(Paths.get(args[1]), Paths.get(args[2])));
+            return;
+        }
+
+        // Mode server: java case_1_stack.CalculatorApp --server [port]  (atau --stdin)
+        if (args.length >= 1 && (args[0].equals("--server") || args[0].equals("--stdin"))) {
+            CalculatorServer.main(args[0].equals("--stdin") ? new String[] {"--stdin"}
+                    : Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
 
         System.out.println("--- Kalkulator Ekspresi Infix ---");
@@ -36,7 +71,7 @@ public class CalculatorApp {
 
         // 1. Validasi dan Tokenisasi (Tugas 1 via InfixValidator)
         System.out.println("\n1. Memvalidasi dan Tokenisasi...");
-        Stack<Token> infixTokens = InfixValidator.tokenizeAndValidate(infixExpression);
+        TokenStack infixTokens = InfixValidator.tokenizeAndValidate(infixExpression);
 
         if (infixTokens == null) {
             System.err.println("\nEkspresi infix tidak valid. Program berhenti.");
@@ -45,20 +80,36 @@ public class CalculatorApp {
         }
         displayTokens("   Infix Tokens", infixTokens);
 
-        // 2. Konversi (Tugas 2 via InfixConverter)
+        // 2. Konversi (Tugas 2): satu kali parse ke pohon ekspresi, postfix & prefix dibaca dari pohon
         System.out.println("\n2. Mengonversi ke Postfix dan Prefix...");
-        Stack<Token> postfixTokens = InfixConverter.toPostfix(infixTokens);
-        ArrayList<Token> prefixTokens = InfixConverter.toPrefix(infixTokens);
+        final Result<ExpressionTree> tree = ExpressionTree.parse(infixTokens);
+        TokenStack postfixTokens = null;
+        TokenStack prefixTokens = null;
+        if (tree.isOk()) {
+            postfixTokens = tree.getValue().toPostfix();
+            prefixTokens = tree.getValue().toPrefix();
+        } else {
+            // Awalan pesan tetap seperti saat postfix dikonversi lebih dulu: kegagalan pertama ada di postfix
+            System.err.println("Error Konversi Postfix: " + tree.getMessage());
+        }
 
         displayTokens("   Postfix", postfixTokens);
         displayTokens("   Prefix ", prefixTokens); // Perhatikan spasi agar rata
 
-        // 3. Evaluasi (Tugas 3 via PostfixEvaluator)
+        // 3. Evaluasi (Tugas 3): simpul pohon disimpan dalam urutan postfix
         System.out.println("\n3. Mengevaluasi Ekspresi (menggunakan Postfix)...");
         // Pastikan postfix berhasil dibuat sebelum evaluasi
         Double result = null;
-        if (postfixTokens != null) {
-             result = PostfixEvaluator.evaluate(postfixTokens);
+        if (tree.isOk()) {
+             final Map<String, Double> variables = readVariables(scanner, infixTokens);
+             if (variables != null) {
+                 final Result<Double> evaluation = tree.getValue().evaluate(variables);
+                 if (evaluation.isOk()) {
+                     result = evaluation.getValue();
+                 } else {
+                     System.err.println("Error Evaluasi: " + evaluation.getMessage());
+                 }
+             }
         } else {
             System.err.println("   Evaluasi dibatalkan karena konversi Postfix gagal.");
         }
@@ -74,6 +125,11 @@ public class CalculatorApp {
         }
         System.out.println("-------------------");
 
+        // Dengan -Dcase_1_stack.metrics=true: waktu, ukuran, dan kedalaman setiap tahap
+        if (PipelineMetrics.ENABLED) {
+            System.err.println("\n--- Metrik ---\n" + PipelineMetrics.snapshot());
+        }
+
         scanner.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,332 @@
+// mode server: proses JVM tetap hidup (JIT & cache tetap hangat), banyak ekspresi per koneksi.
+// Jalankan: java case_1_stack.CalculatorServer [port]   atau   java case_1_stack.CalculatorServer --stdin
+//
+// Protokol berbasis baris (UTF-8). Setiap baris permintaan:
+//     <ekspresi infix> [| nama=nilai nama=nilai ...]
+// dijawab tepat satu baris, dalam urutan yang sama:
+//     OK <hasil>
+//     ERROR <KODE> <posisi> <pesan>
+// Klien boleh mengirim banyak baris tanpa menunggu jawaban (pipelining); jawaban dikumpulkan
+// dan dikirim sekaligus setiap kali input yang sudah tiba habis diproses.
+// Baris lebih dari MAX_LINE_BYTES byte tidak pernah disimpan utuh: sisanya dibuang sampai '\n'
+// dan dijawab EXPRESSION_TOO_LONG. Koneksi di atas batas langsung dijawab TOO_MANY_CONNECTIONS.
+
+package case_1_stack;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class CalculatorServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 7070;
+    public static final int DEFAULT_MAX_CONNECTIONS = 64;
+
+    // Satu karakter paling banyak 3 byte UTF-8; sisa ruang setelah ekspresi untuk nilai variabel
+    static final int MAX_LINE_BYTES = 3 * Limits.DEFAULT.getMaxLength();
+    private static final Result<Void> LINE_TOO_LONG = Result.error(ErrorCode.EXPRESSION_TOO_LONG,
+            Limits.DEFAULT.getMaxLength(), Limits.DEFAULT.getMaxLength());
+
+    // Pemisah antara ekspresi dan nilai variabel dalam satu baris permintaan
+    private static final char VARIABLE_SEPARATOR = '|';
+
+    private final ServerSocket serverSocket;
+    private final ThreadPoolExecutor workers;
+    private final int maxConnections;
+    private final ExpressionCache cache;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * Membuka server di alamat loopback (hanya bisa diakses dari mesin yang sama).
+     *
+     * @param port Port TCP, atau 0 untuk port bebas.
+     * @param cache Cache ekspresi yang dipakai bersama oleh semua koneksi.
+     */
+    public CalculatorServer(final int port, final ExpressionCache cache) throws IOException {
+        this(port, cache, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * Seperti {@link #CalculatorServer(int, ExpressionCache)}, dengan batas koneksi yang dilayani
+     * bersamaan. Koneksi berikutnya dijawab TOO_MANY_CONNECTIONS lalu ditutup.
+     */
+    public CalculatorServer(final int port, final ExpressionCache cache, final int maxConnections)
+            throws IOException {
+        this(new ServerSocket(port, 50, InetAddress.getLoopbackAddress()), cache, maxConnections);
+    }
+
+    /**
+     * Tanpa socket: hanya untuk {@link #session(InputStream, Writer)} langsung (mode stdin).
+     */
+    public CalculatorServer(final ExpressionCache cache) {
+        this(null, cache, 1);
+    }
+
+    private CalculatorServer(final ServerSocket serverSocket, final ExpressionCache cache, final int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Batas koneksi harus lebih dari 0.");
+        }
+        this.serverSocket = serverSocket;
+        this.cache = cache;
+        this.maxConnections = maxConnections;
+        // Satu thread per koneksi, paling banyak maxConnections; tanpa antrean, jadi koneksi di atas
+        // batas ditolak, bukan ditumpuk. Thread daemon agar JVM bisa berhenti setelah close()
+        final AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(maxConnections, maxConnections, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), task -> {
+                    final Thread thread = new Thread(task, "calculator-connection-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    public int getPort() {
+        return this.serverSocket == null ? -1 : this.serverSocket.getLocalPort();
+    }
+
+    // Jumlah baris permintaan yang sudah dijawab, dari semua koneksi
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    public long getConnections() {
+        return this.connections.sum();
+    }
+
+    /**
+     * Menerima koneksi sampai {@link #close()} dipanggil. Setiap koneksi dilayani di thread-nya
+     * sendiri, jadi klien yang lambat tidak menahan klien lain. Paling banyak maxConnections
+     * koneksi dilayani bersamaan; koneksi lain dijawab TOO_MANY_CONNECTIONS dan ditutup.
+     */
+    public void serve() throws IOException {
+        if (this.serverSocket == null) {
+            throw new IllegalStateException("Server dibuat tanpa socket.");
+        }
+        while (this.running) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (SocketException e) {
+                if (!this.running) {
+                    return; // Ditutup oleh close()
+                }
+                throw e;
+            }
+            this.connections.increment();
+            socket.setTcpNoDelay(true);
+            try {
+                this.workers.execute(() -> {
+                    try (Socket client = socket) {
+                        session(client.getInputStream(), new BufferedWriter(
+                                new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8)));
+                    } catch (IOException e) {
+                        // Koneksi terputus di tengah jalan; klien lain tidak terpengaruh
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                reject(socket);
+            }
+        }
+    }
+
+    // Server penuh: satu baris error lalu koneksi ditutup (tulisan sekecil ini muat di buffer socket)
+    private void reject(final Socket socket) {
+        try (Socket client = socket) {
+            final StringBuilder response = new StringBuilder(64);
+            error(response, ErrorCode.TOO_MANY_CONNECTIONS, Result.NO_POSITION,
+                    ErrorCode.TOO_MANY_CONNECTIONS.format(this.maxConnections));
+            client.getOutputStream().write(response.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Klien sudah pergi
+        }
+    }
+
+    /**
+     * Melayani satu sesi sampai input habis: satu baris jawaban untuk setiap baris permintaan
+     * (UTF-8, diakhiri '\n' atau "\r\n"). Jawaban hanya di-flush ketika tidak ada lagi input yang
+     * menunggu, sehingga satu batch permintaan yang dikirim sekaligus dijawab dengan satu kali tulis.
+     * <p>
+     * Input dibaca per blok ke buffer berukuran tetap: baris lebih dari {@link #MAX_LINE_BYTES} byte
+     * dibuang sampai '\n' berikutnya dan dijawab EXPRESSION_TOO_LONG, jadi memori per koneksi
+     * terbatas berapa pun panjang input.
+     */
+    public void session(final InputStream in, final Writer out) throws IOException {
+        final StringBuilder response = new StringBuilder(64);
+        final byte[] chunk = new byte[8192];
+        // Satu byte lebih untuk '\r' dari "\r\n" pada baris yang panjangnya tepat MAX_LINE_BYTES
+        final byte[] line = new byte[MAX_LINE_BYTES + 1];
+        int length = 0;
+        boolean skipping = false; // baris saat ini sudah melewati batas, isinya dibuang
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                final byte b = chunk[i];
+                if (b != '\n') {
+                    if (length < line.length) {
+                        line[length++] = b;
+                    } else {
+                        skipping = true;
+                    }
+                    continue;
+                }
+                respond(line, length, skipping, response, out);
+                length = 0;
+                skipping = false;
+            }
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+        // Baris terakhir tanpa '\n'
+        if (length > 0 || skipping) {
+            respond(line, length, skipping, response, out);
+        }
+        out.flush();
+    }
+
+    private void respond(final byte[] line, final int length, final boolean skipping,
+                         final StringBuilder response, final Writer out) throws IOException {
+        final int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        response.setLength(0);
+        if (skipping || end > MAX_LINE_BYTES) {
+            error(response, LINE_TOO_LONG.getCode(), LINE_TOO_LONG.getPosition(), LINE_TOO_LONG.getMessage());
+        } else {
+            answer(new String(line, 0, end, StandardCharsets.UTF_8), response);
+        }
+        out.append(response).append('\n');
+        this.requests.increment();
+    }
+
+    // Menulis jawaban untuk satu baris permintaan (tanpa newline)
+    void answer(final String line, final StringBuilder response) {
+        final int separator = line.indexOf(VARIABLE_SEPARATOR);
+        final String expression = separator < 0 ? line : line.substring(0, separator);
+
+        final Result<CompiledExpression> compiled = this.cache.lookup(expression);
+        if (!compiled.isOk()) {
+            error(response, compiled.getCode(), compiled.getPosition(), compiled.getMessage());
+            return;
+        }
+        final CompiledExpression program = compiled.getValue();
+        final List<String> variables = program.getVariables();
+
+        final double[] values;
+        if (variables.isEmpty()) {
+            values = null;
+        } else {
+            final Map<String, String> assignments = separator < 0
+                    ? Map.of() : parseAssignments(line.substring(separator + 1));
+            if (assignments == null) {
+                error(response, ErrorCode.INVALID_OPERAND, Result.NO_POSITION,
+                        "Format nilai variabel tidak valid (gunakan nama=nilai).");
+                return;
+            }
+            values = new double[variables.size()];
+            for (int i = 0; i < values.length; i++) {
+                final String value = assignments.get(variables.get(i));
+                if (value == null) {
+                    error(response, ErrorCode.MISSING_VARIABLE, Result.NO_POSITION,
+                            ErrorCode.MISSING_VARIABLE.format(variables.get(i)));
+                    return;
+                }
+                try {
+                    values[i] = Double.parseDouble(value.replace(',', '.'));
+                } catch (NumberFormatException e) {
+                    error(response, ErrorCode.INVALID_OPERAND, Result.NO_POSITION,
+                            ErrorCode.INVALID_OPERAND.format(value));
+                    return;
+                }
+            }
+        }
+
+        final PipelineMetrics.Probe probe = PipelineMetrics.ENABLED ? PipelineMetrics.start() : null;
+        try {
+            final double result = values == null ? program.evaluate() : program.evaluate(values);
+            response.append("OK ").append(result);
+            if (probe != null) {
+                probe.evaluationDepth(program.getMaxDepth());
+                probe.finish(PipelineMetrics.Stage.EVALUATION, (ErrorCode) null, program.size());
+            }
+        } catch (ArithmeticException e) {
+            final ErrorCode code = CompiledExpression.errorCode(e);
+            error(response, code, Result.NO_POSITION, code.format(e.getMessage()));
+            if (probe != null) {
+                probe.finish(PipelineMetrics.Stage.EVALUATION, code, program.size());
+            }
+        }
+    }
+
+    // "a=1 b=2,5" -> {a=1, b=2,5}; null jika ada bagian tanpa '='
+    private static Map<String, String> parseAssignments(final String text) {
+        final Map<String, String> assignments = new HashMap<>();
+        for (final String part : text.trim().split("\\s+")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            final int equals = part.indexOf('=');
+            if (equals <= 0 || equals == part.length() - 1) {
+                return null;
+            }
+            assignments.put(part.substring(0, equals), part.substring(equals + 1));
+        }
+        return assignments;
+    }
+
+    private static void error(final StringBuilder response, final ErrorCode code, final int position,
+                              final String message) {
+        response.append("ERROR ").append(code).append(' ').append(position).append(' ').append(message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.running = false;
+        if (this.serverSocket != null) {
+            this.serverSocket.close();
+        }
+        this.workers.shutdownNow();
+        try {
+            this.workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        final ExpressionCache cache = new ExpressionCache();
+        if (PipelineMetrics.ENABLED) {
+            PipelineMetrics.registerMBean();
+        }
+        if (args.length > 0 && args[0].equals("--stdin")) {
+            // Mode stdin: satu sesi yang sama, cocok untuk dipakai lewat pipe dari proses lain
+            try (CalculatorServer server = new CalculatorServer(cache)) {
+                server.session(System.in,
+                        new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+            }
+            return;
+        }
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try (CalculatorServer server = new CalculatorServer(port, cache)) {
+            System.err.println("Server kalkulator mendengarkan di 127.0.0.1:" + server.getPort());
+            server.serve();
+        }
+    }
+}
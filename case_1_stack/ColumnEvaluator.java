@@ -0,0 +1,264 @@
+// evaluasi kolom per blok: setiap instruksi program dijalankan atas satu blok baris sekaligus.
+
+package case_1_stack;
+
+import java.util.Arrays;
+
+/**
+ * Interpreter kolom untuk {@link CompiledExpression#evaluateColumns}. Stack evaluasi berisi array
+ * sepanjang blok (bukan satu double), jadi dispatch opcode hanya terjadi sekali per instruksi per
+ * blok, dan setiap operator menjadi satu loop atas array.
+ * <p>
+ * Loop operator dijalankan oleh {@link Lanes}: {@code VectorLanes} (Vector API, sumber di
+ * vector/, dibangun dengan profil Maven {@code vector}) jika class itu ada dan JVM dijalankan dengan
+ * {@code --add-modules jdk.incubator.vector}; selain itu loop skalar di class ini. Property
+ * {@code case_1_stack.columnVector=false} memaksa loop skalar.
+ * <p>
+ * Pembagian dengan nol tetap dideteksi per baris: baris yang gagal ditandai, perhitungan blok
+ * jalan terus, lalu hasil baris itu diganti NaN. Error pertama dalam urutan program yang dicatat,
+ * sama dengan evaluasi per baris.
+ */
+final class ColumnEvaluator {
+
+    // Jumlah baris per blok (0 = evaluasi kolom selalu per baris)
+    static final int BLOCK_SIZE = Integer.getInteger("case_1_stack.columnBlock", 512);
+
+    // Stack blok per thread: STACK[level][baris dalam blok]
+    private static final ThreadLocal<double[][]> STACK = ThreadLocal.withInitial(() -> new double[0][]);
+    private static final ThreadLocal<ErrorCode[]> FAILED = ThreadLocal.withInitial(() -> new ErrorCode[0]);
+
+    /**
+     * Loop operator atas n baris pertama sebuah blok. Hasil harus sama persis (bit demi bit)
+     * dengan loop skalar, karena evaluasi kolom dibandingkan dengan evaluasi per baris.
+     */
+    interface Lanes {
+        // a[r] = a[r] op b[r]
+        void binary(byte opcode, double[] a, double[] b, int n);
+
+        // a[r] = op a[r]
+        void unary(byte opcode, double[] a, int n);
+
+        // Jumlah b[r] == 0 (pembagi nol)
+        int countZeros(double[] b, int n);
+    }
+
+    static final Lanes SCALAR = new Lanes() {
+        @Override
+        public void binary(final byte opcode, final double[] a, final double[] b, final int n) {
+            ColumnEvaluator.binary(opcode, a, b, 0, n);
+        }
+
+        @Override
+        public void unary(final byte opcode, final double[] a, final int n) {
+            ColumnEvaluator.unary(opcode, a, 0, n);
+        }
+
+        @Override
+        public int countZeros(final double[] b, final int n) {
+            return ColumnEvaluator.countZeros(b, 0, n);
+        }
+
+        @Override
+        public String toString() {
+            return "skalar";
+        }
+    };
+
+    static final Lanes LANES = lanes();
+
+    private ColumnEvaluator() {
+    }
+
+    // VectorLanes hanya dipakai jika modul Vector API ikut dimuat; class yang tidak ada atau gagal
+    // di-link (build tanpa profil vector) berarti loop skalar
+    private static Lanes lanes() {
+        if (!Boolean.parseBoolean(System.getProperty("case_1_stack.columnVector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            return (Lanes) Class.forName("case_1_stack.VectorLanes").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    /**
+     * Program dengan lompatan (c ? a : b) tidak bisa dijalankan per blok karena setiap baris bisa
+     * memilih cabang berbeda; pemanggil memakai evaluasi per baris untuk program seperti itu.
+     */
+    static boolean supports(final byte[] code) {
+        if (BLOCK_SIZE <= 0) {
+            return false;
+        }
+        for (final byte opcode : code) {
+            if (opcode == Operator.OP_JUMP_IF_ZERO || opcode == Operator.OP_JUMP) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mengevaluasi baris [from, to). Kolom dan panjangnya sudah diperiksa pemanggil.
+     *
+     * @return Jumlah baris yang gagal.
+     */
+    static int evaluate(final byte[] code, final double[] constants, final int[] slots, final Operator[] functions,
+                        final int maxDepth, final double[][] columns, final double[] results,
+                        final int from, final int to, final ErrorCode[] errors) {
+        final int block = BLOCK_SIZE;
+        final Lanes lanes = LANES;
+        final double[][] stack = scratchStack(maxDepth, block);
+        final ErrorCode[] failed = scratchFailed(block);
+        int errorCount = 0;
+
+        for (int start = from; start < to; start += block) {
+            final int n = Math.min(block, to - start);
+            Arrays.fill(failed, 0, n, null);
+            boolean anyFailed = false;
+            int top = -1;
+
+            for (int i = 0; i < code.length; i++) {
+                final byte opcode = code[i];
+                switch (opcode) {
+                    case Operator.OP_PUSH:
+                        Arrays.fill(stack[++top], 0, n, constants[i]);
+                        break;
+                    case Operator.OP_LOAD:
+                        System.arraycopy(columns[slots[i]], start, stack[++top], 0, n);
+                        break;
+                    case Operator.OP_DIV: {
+                        final double[] b = stack[top--];
+                        if (lanes.countZeros(b, n) > 0) {
+                            markZeros(b, n, failed);
+                            anyFailed = true;
+                        }
+                        lanes.binary(opcode, stack[top], b, n);
+                        break;
+                    }
+                    case Operator.OP_NEG: case Operator.OP_SQRT: case Operator.OP_ABS: case Operator.OP_LOG:
+                        lanes.unary(opcode, stack[top], n);
+                        break;
+                    case Operator.OP_CALL: {
+                        final Operator function = functions[i];
+                        top -= function.arity;
+                        // Hasil ditulis ke level argumen pertama; untuk arity 0 level itu baru dipakai
+                        anyFailed |= call(function, stack, top + 1, n, failed);
+                        top++;
+                        break;
+                    }
+                    default: {
+                        final double[] b = stack[top--];
+                        lanes.binary(opcode, stack[top], b, n);
+                        break;
+                    }
+                }
+            }
+
+            final double[] values = stack[0];
+            for (int r = 0; r < n; r++) {
+                final ErrorCode error = anyFailed ? failed[r] : null;
+                results[start + r] = error == null ? values[r] : Double.NaN;
+                if (errors != null) {
+                    errors[start + r] = error;
+                }
+                if (error != null) {
+                    errorCount++;
+                }
+            }
+        }
+        return errorCount;
+    }
+
+    // Dipisah dari markZeros supaya loop yang hampir selalu tanpa hasil tetap tanpa percabangan.
+    // Loop skalar mulai dari baris from; VectorLanes memakainya untuk sisa di luar kelipatan lebar vektor.
+    static int countZeros(final double[] b, final int from, final int n) {
+        int zeros = 0;
+        for (int r = from; r < n; r++) {
+            zeros += b[r] == 0 ? 1 : 0;
+        }
+        return zeros;
+    }
+
+    private static void markZeros(final double[] b, final int n, final ErrorCode[] failed) {
+        for (int r = 0; r < n; r++) {
+            if (b[r] == 0 && failed[r] == null) {
+                failed[r] = ErrorCode.DIVISION_BY_ZERO;
+            }
+        }
+    }
+
+    // a[r] = a[r] op b[r] untuk r di [from, n); setiap case satu loop
+    static void binary(final byte opcode, final double[] a, final double[] b, final int from, final int n) {
+        switch (opcode) {
+            case Operator.OP_ADD: for (int r = from; r < n; r++) { a[r] += b[r]; } break;
+            case Operator.OP_SUB: for (int r = from; r < n; r++) { a[r] -= b[r]; } break;
+            case Operator.OP_MUL: for (int r = from; r < n; r++) { a[r] *= b[r]; } break;
+            case Operator.OP_DIV: for (int r = from; r < n; r++) { a[r] /= b[r]; } break;
+            case Operator.OP_MIN: for (int r = from; r < n; r++) { a[r] = Math.min(a[r], b[r]); } break;
+            case Operator.OP_MAX: for (int r = from; r < n; r++) { a[r] = Math.max(a[r], b[r]); } break;
+            case Operator.OP_LT: for (int r = from; r < n; r++) { a[r] = a[r] < b[r] ? 1 : 0; } break;
+            case Operator.OP_LE: for (int r = from; r < n; r++) { a[r] = a[r] <= b[r] ? 1 : 0; } break;
+            case Operator.OP_GT: for (int r = from; r < n; r++) { a[r] = a[r] > b[r] ? 1 : 0; } break;
+            case Operator.OP_GE: for (int r = from; r < n; r++) { a[r] = a[r] >= b[r] ? 1 : 0; } break;
+            case Operator.OP_EQ: for (int r = from; r < n; r++) { a[r] = a[r] == b[r] ? 1 : 0; } break;
+            case Operator.OP_NE: for (int r = from; r < n; r++) { a[r] = a[r] != b[r] ? 1 : 0; } break;
+            case Operator.OP_POW: for (int r = from; r < n; r++) { a[r] = Math.pow(a[r], b[r]); } break;
+            default: throw new IllegalStateException("Opcode tidak dikenal: " + opcode);
+        }
+    }
+
+    static void unary(final byte opcode, final double[] a, final int from, final int n) {
+        switch (opcode) {
+            case Operator.OP_NEG: for (int r = from; r < n; r++) { a[r] = -a[r]; } break;
+            case Operator.OP_ABS: for (int r = from; r < n; r++) { a[r] = Math.abs(a[r]); } break;
+            case Operator.OP_SQRT: for (int r = from; r < n; r++) { a[r] = Math.sqrt(a[r]); } break;
+            case Operator.OP_LOG: for (int r = from; r < n; r++) { a[r] = Math.log(a[r]); } break;
+            default: throw new IllegalStateException("Opcode tidak dikenal: " + opcode);
+        }
+    }
+
+    // Fungsi pengguna dipanggil per baris; baris yang sudah gagal dilewati seperti pada evaluasi per baris
+    private static boolean call(final Operator function, final double[][] stack, final int first, final int n,
+                                final ErrorCode[] failed) {
+        final double[] arguments = new double[function.arity];
+        final double[] out = stack[first];
+        boolean anyFailed = false;
+        for (int r = 0; r < n; r++) {
+            if (failed[r] != null) {
+                out[r] = Double.NaN;
+                continue;
+            }
+            for (int a = 0; a < arguments.length; a++) {
+                arguments[a] = stack[first + a][r];
+            }
+            try {
+                out[r] = function.function.apply(arguments);
+            } catch (ArithmeticException e) {
+                failed[r] = CompiledExpression.errorCode(e);
+                out[r] = Double.NaN;
+                anyFailed = true;
+            }
+        }
+        return anyFailed;
+    }
+
+    private static double[][] scratchStack(final int depth, final int block) {
+        double[][] stack = STACK.get();
+        if (stack.length < depth || (depth > 0 && stack[0].length < block)) {
+            stack = new double[depth][block];
+            STACK.set(stack);
+        }
+        return stack;
+    }
+
+    private static ErrorCode[] scratchFailed(final int block) {
+        ErrorCode[] failed = FAILED.get();
+        if (failed.length < block) {
+            failed = new ErrorCode[block];
+            FAILED.set(failed);
+        }
+        return failed;
+    }
+}
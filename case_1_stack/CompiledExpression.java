@@ -0,0 +1,741 @@
+// ekspresi yang sudah dikompilasi: parse sekali, evaluasi berkali-kali.
+
+package case_1_stack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public final class CompiledExpression {
+
+    // Stack kerja per thread, supaya evaluate() tidak alokasi dan tetap aman dipakai bersama
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[16]);
+    private static final ThreadLocal<long[]> SCRATCH_LONG = ThreadLocal.withInitial(() -> new long[16]);
+    private static final ThreadLocal<long[]> SCRATCH_LONG_VALUES = ThreadLocal.withInitial(() -> new long[16]);
+    private static final ThreadLocal<Object[]> SCRATCH_OBJECT = ThreadLocal.withInitial(() -> new Object[16]);
+    private static final ThreadLocal<InfixConverter.Workspace> WORKSPACE =
+            ThreadLocal.withInitial(InfixConverter.Workspace::new);
+    private static final double[] NO_VALUES = new double[0];
+
+    // Jumlah evaluasi sebelum program dikompilasi ke bytecode (negatif = tidak pernah)
+    static final int KERNEL_THRESHOLD = Integer.getInteger("case_1_stack.kernelThreshold", 10_000);
+
+    private final String source;
+    private final byte[] code;         // opcode per instruksi
+    private final double[] constants;  // nilai operand untuk OP_PUSH (sejajar dengan code)
+    private final int[] slots;         // indeks variabel untuk OP_LOAD, target untuk lompatan (sejajar dengan code)
+    private final String[] variables;  // nama variabel, urut sesuai kemunculan pertama
+    private final int maxDepth;        // kedalaman stack maksimum saat evaluasi
+    private final NumericBackend<?> backend;
+    private final Object[] typedConstants; // konstanta hasil backend.parse, null untuk backend double
+    private final long[] longConstants;    // semua literal bilangan bulat: jalur long primitif; selain itu null
+    private final Operator[] functions;    // fungsi pengguna untuk OP_CALL (sejajar dengan code), null jika tidak ada
+    private final boolean columnar;        // evaluateColumns memakai ColumnEvaluator (program tanpa lompatan)
+
+    private volatile ExpressionKernel kernel; // hasil kompilasi bytecode, null selama masih diinterpretasi
+    private boolean kernelAttempted;
+    private int invocations;
+
+    private CompiledExpression(final String source, final byte[] code, final double[] constants, final int[] slots,
+                               final String[] variables, final int maxDepth, final NumericBackend<?> backend,
+                               final Object[] typedConstants, final long[] longConstants,
+                               final Operator[] functions) {
+        this.source = source;
+        this.code = code;
+        this.constants = constants;
+        this.slots = slots;
+        this.variables = variables;
+        this.maxDepth = maxDepth;
+        this.backend = backend;
+        this.typedConstants = typedConstants;
+        this.longConstants = longConstants;
+        this.functions = functions;
+        this.columnar = ColumnEvaluator.supports(code);
+    }
+
+    /**
+     * Memvalidasi dan mengonversi ekspresi infix satu kali, lalu menyimpannya sebagai program datar.
+     * Tidak ada I/O konsol; gunakan {@link #tryCompile(String)} untuk mengetahui penyebab gagal.
+     *
+     * @param expression Ekspresi infix.
+     * @return Ekspresi terkompilasi, atau null jika validasi/konversi gagal.
+     */
+    public static CompiledExpression compile(final String expression) {
+        return tryCompile(expression).getValue();
+    }
+
+    /**
+     * Seperti {@link #compile(String)}, tetapi mengembalikan kode error, posisi, dan pesan jika gagal.
+     */
+    public static Result<CompiledExpression> tryCompile(final String expression) {
+        return tryCompile(expression, NumericBackend.DOUBLE);
+    }
+
+    /**
+     * Mengompilasi ekspresi untuk backend tertentu, dievaluasi dengan
+     * {@link #evaluate(NumericBackend, Object[])}. Untuk backend selain double, konstanta tidak
+     * dilipat (pelipatan dihitung dalam double) dan literal di-parse langsung oleh backend,
+     * misalnya "0,1" menjadi BigDecimal 0.1 yang eksak.
+     *
+     * @return Ekspresi terkompilasi, atau error; INVALID_OPERAND jika literal tidak bisa
+     *         direpresentasikan backend (misalnya 1,5 untuk long).
+     */
+    public static CompiledExpression compile(final String expression, final NumericBackend<?> backend) {
+        return tryCompile(expression, backend).getValue();
+    }
+
+    public static Result<CompiledExpression> tryCompile(final String expression, final NumericBackend<?> backend) {
+        // Token infix/postfix hanya dipakai selama kompilasi, jadi buffer per thread bisa dipakai ulang
+        final InfixConverter.Workspace workspace = WORKSPACE.get();
+        final Result<TokenStack> infixTokens = workspace.tokenize(expression);
+        if (!infixTokens.isOk()) {
+            return infixTokens.propagate();
+        }
+        final Result<TokenStack> postfixTokens = InfixConverter.convertToPostfix(infixTokens.getValue(), workspace);
+        if (!postfixTokens.isOk()) {
+            return postfixTokens.propagate();
+        }
+        if (backend != NumericBackend.DOUBLE) {
+            return tryFromPostfix(expression, postfixTokens.getValue(), backend);
+        }
+        return tryFromPostfix(expression, PostfixOptimizer.optimize(postfixTokens.getValue()), backend);
+    }
+
+    /**
+     * Mengubah token postfix menjadi program datar: operand di-parse sekali ke double,
+     * variabel diberi nomor slot, operator diubah menjadi opcode.
+     * Kedalaman stack diperiksa di sini, bukan saat evaluasi.
+     *
+     * @param source Teks ekspresi asli (untuk informasi saja).
+     * @param postfixTokens Token dalam notasi postfix.
+     * @return Ekspresi terkompilasi, atau null jika program postfix tidak valid.
+     */
+    public static CompiledExpression fromPostfix(final String source, final TokenStack postfixTokens) {
+        return tryFromPostfix(source, postfixTokens).getValue();
+    }
+
+    /**
+     * Seperti {@link #fromPostfix(String, TokenStack)}, tetapi mengembalikan error jika gagal.
+     */
+    public static Result<CompiledExpression> tryFromPostfix(final String source, final TokenStack postfixTokens) {
+        return tryFromPostfix(source, postfixTokens, NumericBackend.DOUBLE);
+    }
+
+    private static Result<CompiledExpression> tryFromPostfix(final String source, final TokenStack postfixTokens,
+                                                             final NumericBackend<?> backend) {
+        if (postfixTokens == null || postfixTokens.isEmpty()) {
+            return Result.error(ErrorCode.EMPTY_POSTFIX, Result.NO_POSITION);
+        }
+
+        // Setiap "?:" menjadi dua lompatan (setelah kondisi dan setelah cabang then) dan tidak punya
+        // instruksi sendiri; panjang program harus tepat karena slot sisa terbaca sebagai OP_PUSH
+        final int tokenCount = postfixTokens.size();
+        final int[] jumps = Operator.conditionalJumps(postfixTokens);
+        int size = tokenCount;
+        for (int i = 0; jumps != null && i < tokenCount; i++) {
+            if (jumps[i] != 0) {
+                size++;
+            }
+            if (postfixTokens.get(i).getOpcode() == Operator.OP_SELECT) {
+                size--;
+            }
+        }
+        final byte[] code = new byte[size];
+        final double[] constants = new double[size];
+        final int[] slots = new int[size];
+        final Object[] typedConstants = backend == NumericBackend.DOUBLE ? null : new Object[size];
+        long[] longConstants = typedConstants == null ? null : new long[size];
+        Operator[] functions = null;
+        final int[] positions = jumps == null ? null : new int[tokenCount]; // instruksi pertama tiap token
+        final List<String> variables = new ArrayList<>();
+        int depth = 0;
+        int maxDepth = 0;
+        int pc = 0;
+
+        for (int t = 0; t < tokenCount; t++) {
+            final Token token = postfixTokens.get(t);
+            final int i = pc;
+            if (positions != null) {
+                positions[t] = pc;
+            }
+            if (token.getType() == TokenType.OPERAND) {
+                try {
+                    constants[i] = token.getValue();
+                    if (typedConstants != null) {
+                        typedConstants[i] = backend.parse(token.toString());
+                        longConstants = parseLongLiteral(token.toString(), longConstants, i);
+                    }
+                } catch (NumberFormatException | ArithmeticException e) {
+                    return Result.error(ErrorCode.INVALID_OPERAND, Result.NO_POSITION, token);
+                }
+                code[pc++] = Operator.OP_PUSH;
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+            } else if (token.getType() == TokenType.VARIABLE) {
+                int slot = variables.indexOf(token.toString());
+                if (slot == -1) {
+                    slot = variables.size();
+                    variables.add(token.toString());
+                }
+                code[pc++] = Operator.OP_LOAD;
+                slots[i] = slot;
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+            } else if (token.getType() == TokenType.OPERATOR || token.getType() == TokenType.FUNCTION) {
+                final byte opcode = token.getOpcode();
+                // Dengan tabel lompatan, di "?:" hanya nilai cabang terpilih yang ada di stack
+                final int arity = opcode == Operator.OP_SELECT && jumps != null ? 1 : token.getArity();
+                if (depth < arity) {
+                    return Result.error(ErrorCode.INSUFFICIENT_OPERANDS, Result.NO_POSITION, token);
+                }
+                if (opcode == Operator.OP_SELECT) {
+                    // Tanpa tabel lompatan (postfix rusak) kedalaman tetap dihitung agar error operand kurang
+                    // dilaporkan di token yang sama dengan evaluator biasa
+                    if (jumps == null) {
+                        depth -= 2;
+                    }
+                } else if (opcode != Operator.OP_NONE && opcode <= Operator.OP_CALL) {
+                    if (opcode == Operator.OP_CALL) {
+                        if (functions == null) {
+                            functions = new Operator[size];
+                        }
+                        functions[i] = token.getOperator();
+                    }
+                    code[pc++] = opcode;
+                    depth += 1 - arity;
+                    maxDepth = Math.max(maxDepth, depth);
+                } else {
+                    return Result.error(ErrorCode.UNKNOWN_OPERATOR, Result.NO_POSITION, token);
+                }
+            } else {
+                return Result.error(ErrorCode.INVALID_TOKEN, Result.NO_POSITION, token);
+            }
+            if (jumps != null && jumps[t] != 0) {
+                // Target sementara berupa indeks token; diganti indeks instruksi setelah loop
+                code[pc] = jumps[t] > 0 ? Operator.OP_JUMP_IF_ZERO : Operator.OP_JUMP;
+                slots[pc++] = jumps[t] > 0 ? jumps[t] - 1 : -jumps[t] - 1;
+                depth--; // kondisi diambil, atau nilai cabang then tidak ada di jalur cabang else
+            }
+        }
+        for (int i = 0; positions != null && i < size; i++) {
+            if (code[i] == Operator.OP_JUMP_IF_ZERO || code[i] == Operator.OP_JUMP) {
+                slots[i] = positions[slots[i]];
+            }
+        }
+
+        if (depth != 1) {
+            return Result.error(ErrorCode.INVALID_FINAL_STACK, Result.NO_POSITION, depth);
+        }
+        return Result.ok(new CompiledExpression(source, code, constants, slots, variables.toArray(new String[0]),
+                maxDepth, backend, typedConstants, longConstants, functions));
+    }
+
+    // Literal tanpa titik desimal yang muat di long disimpan di longConstants[index];
+    // literal lain membuat seluruh program tidak bisa memakai jalur long (null)
+    private static long[] parseLongLiteral(final String literal, final long[] longConstants, final int index) {
+        if (longConstants == null || literal.indexOf('.') >= 0) {
+            return null;
+        }
+        try {
+            longConstants[index] = Long.parseLong(literal);
+            return longConstants;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Mengevaluasi program tanpa variabel memakai stack kerja milik thread pemanggil.
+     * Tidak ada alokasi maupun parsing string pada pemanggilan berulang.
+     *
+     * @return Hasil evaluasi.
+     * @throws EvaluationException jika terjadi pembagian dengan nol (kode DIVISION_BY_ZERO).
+     */
+    public double evaluate() {
+        return evaluate(NO_VALUES, scratchStack());
+    }
+
+    /**
+     * Mengevaluasi program memakai stack kerja milik thread pemanggil.
+     *
+     * @param values Nilai variabel, urut sesuai {@link #getVariables()}.
+     * @return Hasil evaluasi.
+     * @throws EvaluationException jika terjadi pembagian dengan nol (kode DIVISION_BY_ZERO).
+     */
+    public double evaluate(final double... values) {
+        return evaluate(values, scratchStack());
+    }
+
+    /**
+     * Mengevaluasi program memakai stack kerja dari pemanggil.
+     *
+     * @param values Nilai variabel, urut sesuai {@link #getVariables()}.
+     * @param stack Buffer kerja, panjang minimal {@link #getMaxDepth()}.
+     * @return Hasil evaluasi.
+     * @throws EvaluationException jika terjadi pembagian dengan nol (kode DIVISION_BY_ZERO).
+     */
+    public double evaluate(final double[] values, final double[] stack) {
+        if (values.length < this.variables.length) {
+            throw new IllegalArgumentException("Jumlah nilai variabel kurang: butuh " + this.variables.length
+                    + ", diberikan " + values.length + ".");
+        }
+        return run(values, stack);
+    }
+
+    /**
+     * Mengevaluasi dengan backend tempat ekspresi dikompilasi ({@link #compile(String, NumericBackend)}).
+     *
+     * @param backend Harus sama dengan {@link #getBackend()}.
+     * @param values Nilai variabel, urut sesuai {@link #getVariables()}.
+     * @return Hasil evaluasi dalam tipe backend.
+     * @throws ArithmeticException jika pembagian dengan nol, overflow long, dan sejenisnya.
+     */
+    @SafeVarargs
+    public final <T> T evaluate(final NumericBackend<T> backend, final T... values) {
+        if (backend != this.backend) {
+            throw new IllegalArgumentException("Ekspresi dikompilasi untuk backend " + this.backend
+                    + ", bukan " + backend + ".");
+        }
+        if (values.length < this.variables.length) {
+            throw new IllegalArgumentException("Jumlah nilai variabel kurang: butuh " + this.variables.length
+                    + ", diberikan " + values.length + ".");
+        }
+        // Jalur cepat untuk ekspresi bilangan bulat pada backend eksak: long primitif, tanpa boxing dan
+        // tanpa BigDecimal per operasi. Jika jalur long tidak cukup (overflow, pembagian tidak bulat,
+        // pangkat negatif, pembagian dengan nol), jalur umum menghitung ulang dan melaporkan error yang
+        // sama seperti tanpa jalur cepat. Array values tidak diteruskan ke method lain (@SafeVarargs).
+        final NumericBackend.LongPath<T> longPath = backend.longPath();
+        if (this.longConstants != null && longPath != null) {
+            final long[] longValues = scratchLongValues();
+            boolean exact = true;
+            for (int v = 0; v < this.variables.length && exact; v++) {
+                exact = longPath.isExactLong(values[v]);
+                if (exact) {
+                    longValues[v] = longPath.longValue(values[v]);
+                }
+            }
+            final long[] longStack = scratchLongStack();
+            if (exact && interpretLong(longValues, longStack)) {
+                return longPath.fromLong(longStack[0]);
+            }
+        }
+
+        final byte[] code = this.code;
+        final Object[] stack = scratchObjectStack();
+        int top = -1;
+
+        try {
+            for (int i = 0; i < code.length; i++) {
+                final byte opcode = code[i];
+                switch (opcode) {
+                    case Operator.OP_PUSH:
+                        stack[++top] = this.typedConstants != null
+                                ? this.typedConstants[i] : (Object) this.constants[i];
+                        break;
+                    case Operator.OP_LOAD: stack[++top] = values[this.slots[i]]; break;
+                    case Operator.OP_JUMP_IF_ZERO:
+                        if (backend.isZero(typed(stack[top--]))) {
+                            i = this.slots[i] - 1;
+                        }
+                        break;
+                    case Operator.OP_JUMP: i = this.slots[i] - 1; break;
+                    case Operator.OP_NEG: case Operator.OP_SQRT: case Operator.OP_ABS: case Operator.OP_LOG:
+                        stack[top] = backend.apply(opcode, typed(stack[top]));
+                        break;
+                    case Operator.OP_CALL: {
+                        final int arity = this.functions[i].arity;
+                        final T result = backend.call(this.functions[i], stack, top - arity + 1);
+                        top -= arity;
+                        stack[++top] = result;
+                        break;
+                    }
+                    default: {
+                        // Operator biner; pembagian dengan nol dilempar oleh backend.divide
+                        final T operand2 = typed(stack[top--]);
+                        stack[top] = backend.apply(opcode, typed(stack[top]), operand2);
+                        break;
+                    }
+                }
+            }
+            return typed(stack[0]);
+        } finally {
+            // Stack milik thread dipakai ulang: jangan menahan nilai (BigDecimal) setelah evaluasi
+            Arrays.fill(stack, 0, this.maxDepth, null);
+        }
+    }
+
+    // Isi stack selalu bertipe T (konstanta dari backend.parse, variabel dari pemanggil)
+    @SuppressWarnings("unchecked")
+    private static <T> T typed(final Object value) {
+        return (T) value;
+    }
+
+    public NumericBackend<?> getBackend() {
+        return this.backend;
+    }
+
+    /**
+     * Mengevaluasi program untuk banyak baris sekaligus. Setiap variabel diberikan sebagai satu kolom.
+     * Baris yang gagal (pembagian dengan nol, error fungsi pengguna) diisi NaN dan dihitung sebagai error.
+     * Program tanpa c ? a : b dievaluasi per blok baris oleh {@link ColumnEvaluator} (ukuran blok
+     * diatur property {@code case_1_stack.columnBlock}, 0 = selalu per baris).
+     *
+     * @param columns Kolom nilai, satu per variabel, urut sesuai {@link #getVariables()}.
+     * @param results Array hasil, satu elemen per baris.
+     * @return Jumlah baris yang gagal dievaluasi.
+     */
+    public int evaluateColumns(final double[][] columns, final double[] results) {
+        return evaluateColumns(columns, results, 0, results.length);
+    }
+
+    /**
+     * Seperti {@link #evaluateColumns(double[][], double[])}, tapi hanya untuk baris [from, to).
+     *
+     * @return Jumlah baris yang gagal dievaluasi dalam rentang tersebut.
+     */
+    public int evaluateColumns(final double[][] columns, final double[] results, final int from, final int to) {
+        return evaluateColumns(columns, results, from, to, null);
+    }
+
+    /**
+     * Seperti {@link #evaluateColumns(double[][], double[], int, int)}, dan jika errors tidak null,
+     * errors[r] diisi kode error baris r (null jika berhasil). Baris yang gagal dapat dibedakan
+     * dari hasil NaN yang sah.
+     */
+    public int evaluateColumns(final double[][] columns, final double[] results, final int from, final int to,
+                               final ErrorCode[] errors) {
+        if (columns.length < this.variables.length) {
+            throw new IllegalArgumentException("Jumlah kolom kurang: butuh " + this.variables.length
+                    + ", diberikan " + columns.length + ".");
+        }
+        for (int v = 0; v < this.variables.length; v++) {
+            if (columns[v].length < to) {
+                throw new IllegalArgumentException("Panjang kolom kurang dari jumlah baris (" + to + ").");
+            }
+        }
+
+        if (this.columnar) {
+            return ColumnEvaluator.evaluate(this.code, this.constants, this.slots, this.functions, this.maxDepth,
+                    columns, results, from, to, errors);
+        }
+        final double[] stack = scratchStack();
+        final double[] row = new double[this.variables.length];
+        int errorCount = 0;
+        for (int r = from; r < to; r++) {
+            for (int v = 0; v < row.length; v++) {
+                row[v] = columns[v][r];
+            }
+            try {
+                results[r] = run(row, stack);
+                if (errors != null) {
+                    errors[r] = null;
+                }
+            } catch (ArithmeticException e) {
+                results[r] = Double.NaN;
+                if (errors != null) {
+                    errors[r] = errorCode(e);
+                }
+                errorCount++;
+            }
+        }
+        return errorCount;
+    }
+
+    /**
+     * Versi {@link #evaluateColumns(double[][], double[])} dengan kolom berdasarkan nama variabel.
+     */
+    public int evaluateColumns(final Map<String, double[]> columns, final double[] results) {
+        final double[][] ordered = new double[this.variables.length][];
+        for (int v = 0; v < this.variables.length; v++) {
+            ordered[v] = columns.get(this.variables[v]);
+            if (ordered[v] == null) {
+                throw new IllegalArgumentException("Kolom untuk variabel '" + this.variables[v] + "' tidak ada.");
+            }
+        }
+        return evaluateColumns(ordered, results);
+    }
+
+    // Kode error untuk ArithmeticException dari evaluasi: kode dari EvaluationException (interpreter,
+    // kernel, backend), selainnya (fungsi pengguna) ARITHMETIC
+    static ErrorCode errorCode(final ArithmeticException e) {
+        return e instanceof EvaluationException ? ((EvaluationException) e).getCode() : ErrorCode.ARITHMETIC;
+    }
+
+    // Stack kerja milik thread ini, diperbesar jika belum cukup
+    private double[] scratchStack() {
+        double[] stack = SCRATCH.get();
+        if (stack.length < this.maxDepth) {
+            stack = new double[this.maxDepth];
+            SCRATCH.set(stack);
+        }
+        return stack;
+    }
+
+    // Jalur evaluasi: kernel bytecode jika sudah ada, selain itu interpreter
+    private double run(final double[] values, final double[] stack) {
+        final ExpressionKernel compiled = this.kernel;
+        if (compiled != null) {
+            return compiled.apply(values);
+        }
+        // Penghitung tidak atomik: cukup sebagai perkiraan kapan ekspresi menjadi "panas"
+        if (KERNEL_THRESHOLD >= 0 && ++this.invocations > KERNEL_THRESHOLD && !this.kernelAttempted) {
+            compileKernel();
+        }
+        return interpret(values, stack);
+    }
+
+    private long[] scratchLongStack() {
+        long[] stack = SCRATCH_LONG.get();
+        if (stack.length < this.maxDepth) {
+            stack = new long[this.maxDepth];
+            SCRATCH_LONG.set(stack);
+        }
+        return stack;
+    }
+
+    private long[] scratchLongValues() {
+        long[] values = SCRATCH_LONG_VALUES.get();
+        if (values.length < this.variables.length) {
+            values = new long[this.variables.length];
+            SCRATCH_LONG_VALUES.set(values);
+        }
+        return values;
+    }
+
+    private Object[] scratchObjectStack() {
+        Object[] stack = SCRATCH_OBJECT.get();
+        if (stack.length < this.maxDepth) {
+            stack = new Object[this.maxDepth];
+            SCRATCH_OBJECT.set(stack);
+        }
+        return stack;
+    }
+
+    /**
+     * Mengompilasi program ke class JVM sekarang juga, tanpa menunggu ambang pemanggilan.
+     *
+     * @return true jika evaluasi berikutnya memakai kernel bytecode.
+     */
+    public synchronized boolean compileKernel() {
+        if (!this.kernelAttempted) {
+            this.kernelAttempted = true;
+            this.kernel = this.functions != null ? null
+                    : KernelCompiler.compile(this.code, this.constants, this.slots, this.maxDepth);
+        }
+        return this.kernel != null;
+    }
+
+    public boolean isKernelCompiled() {
+        return this.kernel != null;
+    }
+
+    // Interpreter inti
+    double interpret(final double[] values, final double[] stack) {
+        final byte[] code = this.code;
+        final double[] constants = this.constants;
+        final int[] slots = this.slots;
+        int top = -1;
+
+        for (int i = 0; i < code.length; i++) {
+            switch (code[i]) {
+                case Operator.OP_PUSH: stack[++top] = constants[i]; break;
+                case Operator.OP_LOAD: stack[++top] = values[slots[i]]; break;
+                case Operator.OP_ADD: top--; stack[top] = stack[top] + stack[top + 1]; break;
+                case Operator.OP_SUB: top--; stack[top] = stack[top] - stack[top + 1]; break;
+                case Operator.OP_MUL: top--; stack[top] = stack[top] * stack[top + 1]; break;
+                case Operator.OP_DIV:
+                    top--;
+                    if (stack[top + 1] == 0) {
+                        throw new EvaluationException(ErrorCode.DIVISION_BY_ZERO);
+                    }
+                    stack[top] = stack[top] / stack[top + 1];
+                    break;
+                case Operator.OP_POW: top--; stack[top] = Math.pow(stack[top], stack[top + 1]); break;
+                case Operator.OP_NEG: stack[top] = -stack[top]; break;
+                case Operator.OP_LT: top--; stack[top] = stack[top] < stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_LE: top--; stack[top] = stack[top] <= stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_GT: top--; stack[top] = stack[top] > stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_GE: top--; stack[top] = stack[top] >= stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_EQ: top--; stack[top] = stack[top] == stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_NE: top--; stack[top] = stack[top] != stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_MIN: top--; stack[top] = Math.min(stack[top], stack[top + 1]); break;
+                case Operator.OP_MAX: top--; stack[top] = Math.max(stack[top], stack[top + 1]); break;
+                case Operator.OP_SQRT: stack[top] = Math.sqrt(stack[top]); break;
+                case Operator.OP_ABS: stack[top] = Math.abs(stack[top]); break;
+                case Operator.OP_LOG: stack[top] = Math.log(stack[top]); break;
+                case Operator.OP_JUMP_IF_ZERO:
+                    if (stack[top--] == 0) {
+                        i = slots[i] - 1;
+                    }
+                    break;
+                case Operator.OP_JUMP: i = slots[i] - 1; break;
+                case Operator.OP_CALL: {
+                    final Operator function = this.functions[i];
+                    final double[] arguments = new double[function.arity];
+                    top -= function.arity;
+                    System.arraycopy(stack, top + 1, arguments, 0, function.arity);
+                    stack[++top] = function.function.apply(arguments);
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Opcode tidak dikenal: " + code[i]);
+            }
+        }
+        return stack[0];
+    }
+
+    // Interpreter long dengan cek overflow tanpa exception. Hasil di stack[0] jika true;
+    // false berarti hasil tidak bisa dihitung eksak dalam long.
+    boolean interpretLong(final long[] values, final long[] stack) {
+        final byte[] code = this.code;
+        final long[] constants = this.longConstants;
+        final int[] slots = this.slots;
+        int top = -1;
+
+        for (int i = 0; i < code.length; i++) {
+            switch (code[i]) {
+                case Operator.OP_PUSH: stack[++top] = constants[i]; break;
+                case Operator.OP_LOAD: stack[++top] = values[slots[i]]; break;
+                case Operator.OP_ADD: {
+                    top--;
+                    final long a = stack[top];
+                    final long b = stack[top + 1];
+                    final long result = a + b;
+                    if (((a ^ result) & (b ^ result)) < 0) {
+                        return false;
+                    }
+                    stack[top] = result;
+                    break;
+                }
+                case Operator.OP_SUB: {
+                    top--;
+                    final long a = stack[top];
+                    final long b = stack[top + 1];
+                    final long result = a - b;
+                    if (((a ^ b) & (a ^ result)) < 0) {
+                        return false;
+                    }
+                    stack[top] = result;
+                    break;
+                }
+                case Operator.OP_MUL: {
+                    top--;
+                    final long a = stack[top];
+                    final long b = stack[top + 1];
+                    if (!multiplyFits(a, b)) {
+                        return false;
+                    }
+                    stack[top] = a * b;
+                    break;
+                }
+                case Operator.OP_DIV: {
+                    top--;
+                    final long a = stack[top];
+                    final long b = stack[top + 1];
+                    if (b == 0 || (b == -1 && a == Long.MIN_VALUE)) {
+                        return false;
+                    }
+                    final long quotient = a / b;
+                    if (quotient * b != a) {
+                        return false;
+                    }
+                    stack[top] = quotient;
+                    break;
+                }
+                case Operator.OP_POW: {
+                    top--;
+                    long base = stack[top];
+                    long exponent = stack[top + 1];
+                    if (exponent < 0) {
+                        return false;
+                    }
+                    long result = 1;
+                    while (exponent > 0) {
+                        if ((exponent & 1) != 0) {
+                            if (!multiplyFits(result, base)) {
+                                return false;
+                            }
+                            result *= base;
+                        }
+                        exponent >>= 1;
+                        if (exponent > 0) {
+                            if (!multiplyFits(base, base)) {
+                                return false;
+                            }
+                            base *= base;
+                        }
+                    }
+                    stack[top] = result;
+                    break;
+                }
+                case Operator.OP_NEG:
+                case Operator.OP_ABS:
+                    if (stack[top] == Long.MIN_VALUE) {
+                        return false;
+                    }
+                    stack[top] = code[i] == Operator.OP_NEG ? -stack[top] : Math.abs(stack[top]);
+                    break;
+                case Operator.OP_LT: top--; stack[top] = stack[top] < stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_LE: top--; stack[top] = stack[top] <= stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_GT: top--; stack[top] = stack[top] > stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_GE: top--; stack[top] = stack[top] >= stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_EQ: top--; stack[top] = stack[top] == stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_NE: top--; stack[top] = stack[top] != stack[top + 1] ? 1 : 0; break;
+                case Operator.OP_MIN: top--; stack[top] = Math.min(stack[top], stack[top + 1]); break;
+                case Operator.OP_MAX: top--; stack[top] = Math.max(stack[top], stack[top + 1]); break;
+                case Operator.OP_JUMP_IF_ZERO:
+                    if (stack[top--] == 0) {
+                        i = slots[i] - 1;
+                    }
+                    break;
+                case Operator.OP_JUMP: i = slots[i] - 1; break;
+                default:
+                    // sqrt, log, dan fungsi pengguna dihitung jalur umum backend
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    // Bagian atas hasil kali 128-bit harus sama dengan perluasan tanda bagian bawah
+    private static boolean multiplyFits(final long a, final long b) {
+        return Math.multiplyHigh(a, b) == ((a * b) >> 63);
+    }
+
+    /**
+     * @return Nama variabel dalam ekspresi, urut sesuai kemunculan pertama.
+     */
+    public List<String> getVariables() {
+        return List.of(this.variables);
+    }
+
+    /**
+     * @return Indeks variabel, atau -1 jika tidak ada dalam ekspresi.
+     */
+    public int indexOfVariable(final String name) {
+        for (int v = 0; v < this.variables.length; v++) {
+            if (this.variables[v].equals(name)) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public int size() {
+        return this.code.length;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    @Override
+    public String toString() {
+        return this.source;
+    }
+}
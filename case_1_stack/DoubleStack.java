@@ -0,0 +1,56 @@
+// stack double primitif berbasis array, tanpa boxing dan tanpa sinkronisasi.
+
+package case_1_stack;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+public final class DoubleStack {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] elements;
+    private int size;
+
+    public DoubleStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleStack(final int initialCapacity) {
+        this.elements = new double[Math.max(1, initialCapacity)];
+    }
+
+    public void push(final double value) {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.elements.length * 2);
+        }
+        this.elements[this.size++] = value;
+    }
+
+    public double pop() {
+        if (this.size == 0) {
+            throw new EmptyStackException();
+        }
+        return this.elements[--this.size];
+    }
+
+    public double peek() {
+        if (this.size == 0) {
+            throw new EmptyStackException();
+        }
+        return this.elements[this.size - 1];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    // Mengosongkan stack agar bisa dipakai ulang tanpa alokasi baru
+    public void clear() {
+        this.size = 0;
+    }
+}
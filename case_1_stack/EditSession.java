@@ -0,0 +1,656 @@
+// sesi edit inkremental: setiap edit hanya men-tokenisasi dan mengonversi ulang bagian yang berubah.
+
+package case_1_stack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Menyimpan teks, token infix (dengan posisi karakter dan kedalaman kurung setelah tiap token),
+ * dan postfix dari ekspresi yang sedang diedit. Untuk setiap edit:
+ * <ol>
+ *   <li>Tokenisasi dilanjutkan dari token terakhir sebelum edit, dengan keadaan validasi yang
+ *       tersimpan di token itu, dan berhenti begitu batas token dan tipe token sebelumnya kembali
+ *       sama dengan token lama setelah edit. Sisa token lama dipakai ulang (posisinya digeser).</li>
+ *   <li>Postfix hanya dikonversi ulang untuk unit terkecil yang memuat token yang berubah: suku
+ *       penjumlahan beserta '+'/'-' di kirinya, pada level kurung yang sama (dibatasi juga oleh
+ *       perbandingan, '?', ':', dan ';'). Postfix unit seperti itu selalu bersambung di postfix
+ *       keseluruhan, jadi cukup diganti di tempat. Jika kurung, fungsi, ';', perbandingan, '?',
+ *       atau ':' ikut berubah, atau unit baru tidak berisi operand sama sekali (jumlah argumen
+ *       fungsi bisa berubah), seluruh ekspresi dikonversi ulang.</li>
+ * </ol>
+ * Teks yang sedang tidak valid (misalnya "1 + * 2" di tengah mengetik) tetap ditokenisasi penuh
+ * dengan mode lenient, jadi edit berikutnya tetap inkremental. Yang sebanding dengan panjang
+ * ekspresi hanyalah penggeseran array (arraycopy dan loop int), bukan tokenisasi, alokasi token,
+ * atau konversi.
+ * <p>
+ * Hasil token dan error sama persis dengan {@link InfixValidator#tokenize(String, Limits)} dan
+ * {@link InfixConverter#convertToPostfix(TokenStack)} pada teks lengkap (error validasi lebih dulu,
+ * lalu error konversi seperti jumlah argumen fungsi). Batas kedalaman dan jumlah token diperiksa
+ * dari kedalaman yang tersimpan per token; edit yang membuat teks melebihi batas panjang ditolak
+ * dan tidak diterapkan. Tidak thread-safe.
+ */
+public final class EditSession {
+
+    // Penanda findUnit: tidak ada token yang berubah (misalnya hanya spasi)
+    private static final int[] UNCHANGED = new int[0];
+
+    private final Limits limits;
+    private String text = "";
+
+    // Token infix dan data paralelnya; count token
+    private Token[] tokens = new Token[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private long[] depths = new long[16];              // kedalaman kurung setelah token
+    private int[] postfixIndex = new int[16];          // posisi token di postfix (lihat inPostfix)
+    private ErrorCode[] errorCodes = new ErrorCode[16]; // error pertama saat membaca token ini
+    private int[] errorOffsets = new int[16];          // posisi error relatif terhadap awal token
+    private Object[] errorDetails = new Object[16];
+    private int count;
+
+    private int errorTokens;                           // jumlah token dengan error
+    private int negativeDepths;                        // jumlah token dengan kedalaman < 0
+    private int deepTokens;                            // jumlah token dengan kedalaman > limits.getMaxDepth()
+
+    // Error dari karakter tak dikenal setelah token terakhir; posisinya relatif terhadap akhir teks
+    private ErrorCode tailCode;
+    private int tailOffset;
+    private Object tailDetail;
+
+    // Postfix dirawat selama kurung seimbang dan konversi penuh terakhir berhasil, termasuk teks
+    // yang belum valid
+    private Token[] postfix = new Token[16];
+    private int postfixCount;
+    private boolean postfixValid = true;
+
+    private Result<TokenStack> error;                  // error validasi; null jika valid
+    private Result<TokenStack> conversionError;        // error konversi penuh terakhir; null jika berhasil
+
+    // Buffer kerja untuk satu edit
+    private final TokenStack fresh = new TokenStack(); // hanya penampung untuk Lexer
+    private Token[] freshTokens = new Token[16];
+    private int[] freshStarts = new int[16];
+    private int[] freshEnds = new int[16];
+    private long[] freshDepths = new long[16];
+    private int[] freshPostfixIndex = new int[16];
+    private ErrorCode[] freshErrorCodes = new ErrorCode[16];
+    private int[] freshErrorOffsets = new int[16];
+    private Object[] freshErrorDetails = new Object[16];
+    private int[] order = new int[16];
+    private int[] operators = new int[16];
+    private int[] arguments = new int[16];             // jumlah argumen per '(' di stack operators
+
+    private int relexedTokens;
+    private int reconvertedTokens;
+
+    public EditSession() {
+        this("");
+    }
+
+    public EditSession(final String expression) {
+        this(expression, Limits.DEFAULT);
+    }
+
+    /**
+     * @param expression Teks awal; diabaikan (sesi mulai kosong) jika lebih panjang dari batas.
+     */
+    public EditSession(final String expression, final Limits limits) {
+        this.limits = limits;
+        replace(0, 0, expression);
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    // Jumlah token infix (teks yang tidak valid juga ditokenisasi penuh)
+    public int size() {
+        return this.count;
+    }
+
+    // Token yang dibaca ulang oleh tokenizer pada edit terakhir
+    public int getRelexedTokens() {
+        return this.relexedTokens;
+    }
+
+    // Token infix yang dikonversi ulang ke postfix pada edit terakhir
+    public int getReconvertedTokens() {
+        return this.reconvertedTokens;
+    }
+
+    public Result<List<Token>> insert(final int position, final String inserted) {
+        return replace(position, 0, inserted);
+    }
+
+    public Result<List<Token>> delete(final int position, final int length) {
+        return replace(position, length, "");
+    }
+
+    /**
+     * Mengganti length karakter mulai dari position dengan teks baru.
+     *
+     * @return Postfix (hanya-baca, berlaku sampai edit berikutnya), atau error validasi teks baru;
+     *         EXPRESSION_TOO_LONG jika teks baru melebihi batas panjang (teks tidak berubah).
+     * @throws IllegalArgumentException jika rentang di luar teks.
+     */
+    public Result<List<Token>> replace(final int position, final int length, final String replacement) {
+        if (replacement == null || position < 0 || length < 0 || position + length > this.text.length()) {
+            throw new IllegalArgumentException("Rentang edit tidak valid: " + position + " + " + length
+                    + " (panjang teks " + this.text.length() + ").");
+        }
+        // Ditolak sebelum teks baru dibuat; sama dengan pemeriksaan pertama InfixValidator.tokenize
+        if ((long) this.text.length() - length + replacement.length() > this.limits.getMaxLength()) {
+            return Result.error(ErrorCode.EXPRESSION_TOO_LONG, this.limits.getMaxLength(), this.limits.getMaxLength());
+        }
+        final String next = this.text.substring(0, position) + replacement
+                + this.text.substring(position + length);
+        final int delta = replacement.length() - length;
+        final int editEnd = position + replacement.length();   // akhir edit di teks baru
+
+        // Token pertama yang bisa berubah: yang berakhir di atau setelah posisi edit (angka/nama yang
+        // bersentuhan dengan edit bisa menyambung); token sebelumnya tidak pernah melihat teks edit
+        final int first = firstEndingAtOrAfter(position);
+        final InfixValidator.Lexer lexer = first == 0
+                ? new InfixValidator.Lexer(0, 0, null, true)
+                : new InfixValidator.Lexer(this.ends[first - 1], this.depths[first - 1],
+                        this.tokens[first - 1].getType(), true);
+
+        this.fresh.clear();
+        int freshCount = 0;
+        int resume = this.count;       // token lama pertama yang dipakai ulang
+        boolean resynced = false;      // sisa token lama [resume, count) dipakai ulang
+        int candidate = first;         // batas token lama berikutnya; maju seiring posisi lexer
+        while (true) {
+            final int at = lexer.position;
+            if (freshCount > 0 && at >= editEnd) {
+                // Batas token lama yang jatuh di posisi yang sama (setelah digeser)?
+                while (candidate < this.count && this.ends[candidate] + delta <= at) {
+                    candidate++;
+                }
+                if (candidate > first && this.ends[candidate - 1] + delta == at
+                        && this.tokens[candidate - 1].getType() == lexer.previousType) {
+                    resume = candidate;
+                    resynced = true;
+                    break;
+                }
+            }
+            lexer.errorCode = null;
+            if (!lexer.next(next, this.fresh)) {
+                break;
+            }
+            ensureFresh(this.fresh.size());
+            for (; freshCount < this.fresh.size(); freshCount++) {
+                this.freshTokens[freshCount] = this.fresh.get(freshCount);
+                this.freshStarts[freshCount] = lexer.start;
+                this.freshEnds[freshCount] = lexer.position;
+                this.freshDepths[freshCount] = lexer.brackets;
+                // Error (termasuk karakter tak dikenal yang dilewati) menempel di token pertama
+                this.freshErrorCodes[freshCount] = lexer.errorCode;
+                this.freshErrorOffsets[freshCount] = lexer.errorPosition - lexer.start;
+                this.freshErrorDetails[freshCount] = lexer.errorDetail;
+                lexer.errorCode = null;
+            }
+        }
+        this.relexedTokens = freshCount;
+        if (!resynced) {
+            this.tailCode = lexer.errorCode;
+            this.tailOffset = lexer.errorPosition - next.length();
+            this.tailDetail = lexer.errorDetail;
+        }
+
+        // Unit postfix yang dikonversi ulang, ditentukan dari token lama sebelum disambung
+        final int[] unit = this.postfixValid ? findUnit(first, resume, freshCount) : null;
+
+        // Kedalaman kurung sisa token lama bergeser jika edit menambah/membuang kurung
+        final long depthDelta = resynced ? lexer.brackets - this.depths[resume - 1] : 0;
+        splice(first, resume, freshCount, delta, depthDelta);
+        this.text = next;
+
+        final boolean balanced = this.negativeDepths == 0 && (this.count == 0 || this.depths[this.count - 1] == 0);
+        this.reconvertedTokens = 0;
+        this.conversionError = null;
+        if (balanced) {
+            if (unit == null) {
+                this.conversionError = convert(0, this.count, 0, this.postfixCount);
+            } else if (unit != UNCHANGED) {
+                // Unit tanpa token struktur tidak bisa gagal dikonversi
+                convert(unit[0], unit[1] + freshCount - (resume - first), unit[2], unit[3]);
+            }
+        }
+        this.postfixValid = balanced && this.conversionError == null;
+        this.error = validation();
+        return postfix();
+    }
+
+    // Token infix teks saat ini, atau error validasi
+    public Result<TokenStack> getTokens() {
+        if (this.error != null) {
+            return this.error;
+        }
+        final TokenStack copy = new TokenStack(this.count);
+        for (int i = 0; i < this.count; i++) {
+            copy.push(this.tokens[i]);
+        }
+        return Result.ok(copy);
+    }
+
+    // Postfix teks saat ini (salinan, misalnya untuk PostfixEvaluator), atau error validasi/konversi
+    public Result<TokenStack> getPostfix() {
+        if (this.error != null || this.conversionError != null) {
+            return this.error != null ? this.error : this.conversionError;
+        }
+        final TokenStack copy = new TokenStack(this.postfixCount);
+        for (int i = 0; i < this.postfixCount; i++) {
+            copy.push(this.postfix[i]);
+        }
+        return Result.ok(copy);
+    }
+
+    private Result<List<Token>> postfix() {
+        if (this.error != null || this.conversionError != null) {
+            return (this.error != null ? this.error : this.conversionError).propagate();
+        }
+        return Result.ok(Collections.unmodifiableList(Arrays.asList(this.postfix).subList(0, this.postfixCount)));
+    }
+
+    // Error pertama dalam urutan baca, sama dengan yang dilaporkan InfixValidator; null jika valid.
+    // Untuk setiap token: error validasinya, lalu batas kedalaman, lalu batas jumlah token.
+    private Result<TokenStack> validation() {
+        if (this.errorTokens > 0 || this.deepTokens > 0 || this.count > this.limits.getMaxTokens()) {
+            for (int i = 0; i < this.count; i++) {
+                if (this.errorCodes[i] != null) {
+                    return Result.error(this.errorCodes[i], this.starts[i] + this.errorOffsets[i], this.errorDetails[i]);
+                }
+                if (this.depths[i] > this.limits.getMaxDepth()) {
+                    return Result.error(ErrorCode.NESTING_TOO_DEEP, this.starts[i], this.limits.getMaxDepth());
+                }
+                if (i >= this.limits.getMaxTokens()) {
+                    return Result.error(ErrorCode.TOO_MANY_TOKENS, this.starts[i], this.limits.getMaxTokens());
+                }
+            }
+        }
+        if (this.tailCode != null) {
+            return Result.error(this.tailCode, this.text.length() + this.tailOffset, this.tailDetail);
+        }
+        final InfixValidator.Lexer end = this.count == 0
+                ? new InfixValidator.Lexer()
+                : new InfixValidator.Lexer(this.text.length(), this.depths[this.count - 1],
+                        this.tokens[this.count - 1].getType(), false);
+        final Result<TokenStack> finished = end.finish(this.text.length(), null);
+        return finished.isOk() ? null : finished;
+    }
+
+    // Pencarian biner: indeks token pertama dengan ends >= position, atau count
+    private int firstEndingAtOrAfter(final int position) {
+        int low = 0;
+        int high = this.count;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (this.ends[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Unit konversi ulang untuk edit yang mengganti token lama [first, resume) dengan freshCount
+     * token baru. Token yang sama di awal dan akhir (teks dan tipe) tidak dihitung berubah, dan
+     * objek serta posisi postfix lamanya dipakai ulang.
+     *
+     * @return {awal, akhir (indeks lama), posisi awal di postfix, panjang lama di postfix},
+     *         UNCHANGED, atau null jika seluruh ekspresi harus dikonversi ulang.
+     */
+    private int[] findUnit(final int first, final int resume, final int freshCount) {
+        final int removed = resume - first;
+        int same = 0;
+        while (same < removed && same < freshCount && sameToken(this.tokens[first + same], this.freshTokens[same])) {
+            reuse(same, first + same);
+            same++;
+        }
+        int sameTail = 0;
+        while (sameTail < removed - same && sameTail < freshCount - same
+                && sameToken(this.tokens[resume - 1 - sameTail], this.freshTokens[freshCount - 1 - sameTail])) {
+            reuse(freshCount - 1 - sameTail, resume - 1 - sameTail);
+            sameTail++;
+        }
+        final int changedFrom = first + same;
+        final int changedTo = resume - sameTail;
+        if (changedFrom == changedTo && same + sameTail == freshCount) {
+            return UNCHANGED;
+        }
+        int changedLength = 0;        // perubahan jumlah token postfix di unit
+        for (int i = changedFrom; i < changedTo; i++) {
+            if (isStructural(this.tokens[i])) {
+                return null;
+            }
+            if (inPostfix(this.tokens[i])) {
+                changedLength--;
+            }
+        }
+        for (int i = same; i < freshCount - sameTail; i++) {
+            if (isStructural(this.freshTokens[i])) {
+                return null;
+            }
+            if (inPostfix(this.freshTokens[i])) {
+                changedLength++;
+            }
+        }
+
+        // Melebar ke kiri sampai '+'/'-' (ikut masuk) dan ke kanan sampai '+'/'-' (tidak ikut),
+        // atau sampai operator yang lebih lemah, ';', atau kurung yang membungkus (tidak ikut);
+        // kurung di dalamnya dilewati utuh
+        int from = changedFrom;
+        for (int nesting = 0; from > 0; from--) {
+            final Token token = this.tokens[from - 1];
+            if (token.getType() == TokenType.CLOSING_BRACKET) {
+                nesting++;
+            } else if (token.getType() == TokenType.OPENING_BRACKET) {
+                if (nesting == 0) {
+                    break;
+                }
+                nesting--;
+            } else if (nesting == 0 && isAdditive(token)) {
+                from--;
+                break;
+            } else if (nesting == 0 && isWeaker(token)) {
+                break;
+            }
+        }
+        int to = changedTo;
+        for (int nesting = 0; to < this.count; to++) {
+            final Token token = this.tokens[to];
+            if (token.getType() == TokenType.OPENING_BRACKET) {
+                nesting++;
+            } else if (token.getType() == TokenType.CLOSING_BRACKET) {
+                if (nesting == 0) {
+                    break;
+                }
+                nesting--;
+            } else if (nesting == 0 && (isAdditive(token) || isWeaker(token))) {
+                break;
+            }
+        }
+
+        // Postfix unit lama bersambung; awalnya adalah posisi postfix terkecil di unit
+        int runStart = Integer.MAX_VALUE;
+        int runLength = 0;
+        for (int i = from; i < to; i++) {
+            if (inPostfix(this.tokens[i])) {
+                runStart = Math.min(runStart, this.postfixIndex[i]);
+                runLength++;
+            }
+        }
+        if (runLength == 0 || runLength + changedLength == 0) {
+            // Misalnya "()" atau teks kosong: tidak ada titik sisip di postfix; atau "f(x)" menjadi
+            // "f()", yang mengubah jumlah argumen
+            return null;
+        }
+        return new int[] {from, to, runStart, runLength};
+    }
+
+    // Token baru yang sama dengan token lama: objek dan posisi postfix lama dipakai lagi
+    private void reuse(final int freshIndex, final int oldIndex) {
+        this.freshTokens[freshIndex] = this.tokens[oldIndex];
+        this.freshPostfixIndex[freshIndex] = this.postfixIndex[oldIndex];
+    }
+
+    private static boolean sameToken(final Token a, final Token b) {
+        return a.getType() == b.getType() && a.toString().equals(b.toString());
+    }
+
+    private static boolean isBracket(final Token token) {
+        return token.getType() == TokenType.OPENING_BRACKET || token.getType() == TokenType.CLOSING_BRACKET;
+    }
+
+    private static boolean isAdditive(final Token token) {
+        return token.getType() == TokenType.OPERATOR && token.getPrecedence() == Operator.ADDITIVE;
+    }
+
+    // Batas unit yang tidak ikut masuk: perbandingan, '?', ':', dan ';'
+    private static boolean isWeaker(final Token token) {
+        return token.getType() == TokenType.SEPARATOR
+                || (token.getType() == TokenType.OPERATOR && token.getPrecedence() < Operator.ADDITIVE);
+    }
+
+    // Token yang perubahannya mengubah struktur di luar unit, jadi perlu konversi penuh
+    private static boolean isStructural(final Token token) {
+        return isBracket(token) || token.getType() == TokenType.FUNCTION || isWeaker(token);
+    }
+
+    // Token yang punya tempat di postfix; kurung, ';', dan '?' tidak ('?' digabung ke "?:" milik ':')
+    private static boolean inPostfix(final Token token) {
+        return !isBracket(token) && token.getType() != TokenType.SEPARATOR
+                && token.getOpcode() != Operator.OP_CONDITION;
+    }
+
+    // Mengganti token lama [from, to) dengan freshCount token baru; token lama setelahnya digeser
+    private void splice(final int from, final int to, final int freshCount, final int delta, final long depthDelta) {
+        for (int i = from; i < to; i++) {
+            forget(i);
+        }
+        final int tail = this.count - to;
+        final int newCount = from + freshCount + tail;
+        ensureTokens(newCount);
+        final int target = from + freshCount;
+        System.arraycopy(this.tokens, to, this.tokens, target, tail);
+        System.arraycopy(this.starts, to, this.starts, target, tail);
+        System.arraycopy(this.ends, to, this.ends, target, tail);
+        System.arraycopy(this.depths, to, this.depths, target, tail);
+        System.arraycopy(this.postfixIndex, to, this.postfixIndex, target, tail);
+        System.arraycopy(this.errorCodes, to, this.errorCodes, target, tail);
+        System.arraycopy(this.errorOffsets, to, this.errorOffsets, target, tail);
+        System.arraycopy(this.errorDetails, to, this.errorDetails, target, tail);
+
+        System.arraycopy(this.freshTokens, 0, this.tokens, from, freshCount);
+        System.arraycopy(this.freshStarts, 0, this.starts, from, freshCount);
+        System.arraycopy(this.freshEnds, 0, this.ends, from, freshCount);
+        System.arraycopy(this.freshDepths, 0, this.depths, from, freshCount);
+        System.arraycopy(this.freshPostfixIndex, 0, this.postfixIndex, from, freshCount);
+        System.arraycopy(this.freshErrorCodes, 0, this.errorCodes, from, freshCount);
+        System.arraycopy(this.freshErrorOffsets, 0, this.errorOffsets, from, freshCount);
+        System.arraycopy(this.freshErrorDetails, 0, this.errorDetails, from, freshCount);
+        for (int i = from; i < target; i++) {
+            remember(i);
+        }
+
+        for (int i = target; i < newCount; i++) {
+            this.starts[i] += delta;
+            this.ends[i] += delta;
+        }
+        if (depthDelta != 0) {
+            for (int i = target; i < newCount; i++) {
+                forget(i);
+                this.depths[i] += depthDelta;
+                // Satu-satunya error yang bergantung pada kedalaman: kurung tutup tanpa pasangan
+                if (this.tokens[i].getType() == TokenType.CLOSING_BRACKET
+                        && (this.errorCodes[i] == null || this.errorCodes[i] == ErrorCode.EXTRA_CLOSING_BRACKET)) {
+                    this.errorCodes[i] = this.depths[i] < 0 ? ErrorCode.EXTRA_CLOSING_BRACKET : null;
+                    this.errorOffsets[i] = 0;
+                    this.errorDetails[i] = null;
+                }
+                remember(i);
+            }
+        }
+        for (int i = newCount; i < this.count; i++) {
+            this.tokens[i] = null;
+            this.errorDetails[i] = null;
+        }
+        this.count = newCount;
+    }
+
+    // Menjaga errorTokens, negativeDepths, dan deepTokens saat token i dibuang atau ditambahkan
+    private void forget(final int i) {
+        if (this.errorCodes[i] != null) {
+            this.errorTokens--;
+        }
+        if (this.depths[i] < 0) {
+            this.negativeDepths--;
+        }
+        if (this.depths[i] > this.limits.getMaxDepth()) {
+            this.deepTokens--;
+        }
+    }
+
+    private void remember(final int i) {
+        if (this.errorCodes[i] != null) {
+            this.errorTokens++;
+        }
+        if (this.depths[i] < 0) {
+            this.negativeDepths++;
+        }
+        if (this.depths[i] > this.limits.getMaxDepth()) {
+            this.deepTokens++;
+        }
+    }
+
+    /**
+     * Shunting-yard yang sama dengan {@link InfixConverter#convertToPostfix(TokenStack)}, tetapi atas
+     * indeks token [from, to) (kurung seimbang). Hasilnya menggantikan oldLength token postfix mulai
+     * dari runStart, dan posisi postfix token lain digeser.
+     *
+     * @return null jika berhasil, atau error konversi yang sama dengan InfixConverter (postfix tidak diubah).
+     */
+    private Result<TokenStack> convert(final int from, final int to, final int runStart, final int oldLength) {
+        final int length = to - from;
+        if (this.order.length < length + 1) {
+            this.order = new int[Math.max(length + 1, this.order.length * 2)];
+            this.operators = new int[this.order.length];
+            this.arguments = new int[this.order.length];
+        }
+        final Token[] tokens = this.tokens;
+        final int[] operators = this.operators;
+        int output = 0;
+        int top = -1;
+        for (int i = from; i < to; i++) {
+            final Token token = tokens[i];
+            switch (token.getType()) {
+                case OPERAND:
+                case VARIABLE:
+                    this.order[output++] = i;
+                    break;
+                case FUNCTION:
+                    operators[++top] = i;
+                    break;
+                case OPERATOR:
+                    if (token.getOpcode() == Operator.OP_ELSE) {
+                        // ':' mengeluarkan operator sampai '?' pasangannya, lalu menggantikannya
+                        while (top >= 0 && tokens[operators[top]].getType() == TokenType.OPERATOR
+                               && tokens[operators[top]].getOpcode() != Operator.OP_CONDITION) {
+                            this.order[output++] = operators[top--];
+                        }
+                        if (top < 0 || tokens[operators[top]].getType() != TokenType.OPERATOR) {
+                            return InfixConverter.unmatchedElse();
+                        }
+                        operators[top] = i;
+                        break;
+                    }
+                    while (top >= 0 && tokens[operators[top]].getType() == TokenType.OPERATOR
+                           && InfixConverter.pops(token, tokens[operators[top]])) {
+                        if (tokens[operators[top]].getOpcode() == Operator.OP_CONDITION) {
+                            return InfixConverter.unmatchedCondition();
+                        }
+                        this.order[output++] = operators[top--];
+                    }
+                    operators[++top] = i;
+                    break;
+                case OPENING_BRACKET:
+                    operators[++top] = i;
+                    this.arguments[top] = 1;
+                    break;
+                case SEPARATOR:
+                case CLOSING_BRACKET: {
+                    while (top >= 0 && tokens[operators[top]].getType() != TokenType.OPENING_BRACKET) {
+                        if (tokens[operators[top]].getOpcode() == Operator.OP_CONDITION) {
+                            return InfixConverter.unmatchedCondition();
+                        }
+                        this.order[output++] = operators[top--];
+                    }
+                    if (token.getType() == TokenType.SEPARATOR) {
+                        if (top <= 0 || tokens[operators[top - 1]].getType() != TokenType.FUNCTION) {
+                            return Result.error(ErrorCode.MISPLACED_SEPARATOR, Result.NO_POSITION);
+                        }
+                        this.arguments[top]++;
+                        break;
+                    }
+                    final int bracket = top--; // Buang '('
+                    if (top >= 0 && tokens[operators[top]].getType() == TokenType.FUNCTION) {
+                        final Token function = tokens[operators[top]];
+                        final int arguments = tokens[i - 1].getType() == TokenType.OPENING_BRACKET
+                                ? 0 : this.arguments[bracket];
+                        if (function.getOperator() != null && arguments != function.getArity()) {
+                            return Result.error(ErrorCode.ARGUMENT_COUNT, Result.NO_POSITION, function);
+                        }
+                        this.order[output++] = operators[top--];
+                    }
+                    break;
+                }
+                default:
+                    return Result.error(ErrorCode.UNKNOWN_TOKEN_TYPE, Result.NO_POSITION,
+                            "Tipe token tidak dikenal: " + token.getType());
+            }
+        }
+        while (top >= 0) {
+            if (tokens[operators[top]].getOpcode() == Operator.OP_CONDITION) {
+                return InfixConverter.unmatchedCondition();
+            }
+            this.order[output++] = operators[top--];
+        }
+
+        final int shift = output - oldLength;
+        final int newCount = this.postfixCount + shift;
+        if (shift != 0) {
+            if (this.postfix.length < newCount) {
+                this.postfix = Arrays.copyOf(this.postfix, Math.max(newCount, this.postfix.length * 2));
+            }
+            System.arraycopy(this.postfix, runStart + oldLength, this.postfix, runStart + output,
+                    this.postfixCount - runStart - oldLength);
+            for (int i = 0; i < this.count; i++) {
+                if ((i < from || i >= to) && this.postfixIndex[i] >= runStart + oldLength && inPostfix(this.tokens[i])) {
+                    this.postfixIndex[i] += shift;
+                }
+            }
+            Arrays.fill(this.postfix, newCount, Math.max(newCount, this.postfixCount), null);
+            this.postfixCount = newCount;
+        }
+        for (int k = 0; k < output; k++) {
+            final Token token = this.tokens[this.order[k]];
+            this.postfix[runStart + k] = token.getOpcode() == Operator.OP_ELSE ? InfixConverter.CONDITIONAL : token;
+            this.postfixIndex[this.order[k]] = runStart + k;
+        }
+        this.reconvertedTokens = length;
+        return null;
+    }
+
+    private void ensureTokens(final int capacity) {
+        if (this.tokens.length < capacity) {
+            final int size = Math.max(capacity, this.tokens.length * 2);
+            this.tokens = Arrays.copyOf(this.tokens, size);
+            this.starts = Arrays.copyOf(this.starts, size);
+            this.ends = Arrays.copyOf(this.ends, size);
+            this.depths = Arrays.copyOf(this.depths, size);
+            this.postfixIndex = Arrays.copyOf(this.postfixIndex, size);
+            this.errorCodes = Arrays.copyOf(this.errorCodes, size);
+            this.errorOffsets = Arrays.copyOf(this.errorOffsets, size);
+            this.errorDetails = Arrays.copyOf(this.errorDetails, size);
+        }
+    }
+
+    private void ensureFresh(final int capacity) {
+        if (this.freshTokens.length < capacity) {
+            final int size = Math.max(capacity, this.freshTokens.length * 2);
+            this.freshTokens = Arrays.copyOf(this.freshTokens, size);
+            this.freshStarts = Arrays.copyOf(this.freshStarts, size);
+            this.freshEnds = Arrays.copyOf(this.freshEnds, size);
+            this.freshDepths = Arrays.copyOf(this.freshDepths, size);
+            this.freshPostfixIndex = Arrays.copyOf(this.freshPostfixIndex, size);
+            this.freshErrorCodes = Arrays.copyOf(this.freshErrorCodes, size);
+            this.freshErrorOffsets = Arrays.copyOf(this.freshErrorOffsets, size);
+            this.freshErrorDetails = Arrays.copyOf(this.freshErrorDetails, size);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+// kode error untuk setiap tahap (validasi, konversi, evaluasi) beserta templat pesannya.
+
+package case_1_stack;
+
+public enum ErrorCode {
+    // Validasi / tokenisasi
+    OPERAND_POSITION("Penempatan operand tidak valid."),
+    VARIABLE_POSITION("Penempatan variabel tidak valid."),
+    UNARY_OPERAND_POSITION("Penempatan operand (unary) tidak valid."),
+    INVALID_UNARY_MINUS("Penggunaan unary '-' tidak valid."),
+    OPERATOR_POSITION("Operator '%s' tidak di posisi yang benar."),
+    OPERATOR_NOT_AFTER_OPERAND("Operator '%s' tidak mengikuti operand/kurung tutup."),
+    OPENING_BRACKET_POSITION("Kurung buka '(' tidak di posisi yang benar."),
+    CLOSING_BRACKET_POSITION("Kurung tutup ')' tidak di posisi yang benar."),
+    CLOSING_BRACKET_AFTER_OPERATOR("Kurung tutup ')' tidak mengikuti operand atau kurung buka."),
+    EXTRA_CLOSING_BRACKET("Kurung tutup ')' berlebih."),
+    UNKNOWN_CHARACTER("Karakter tidak dikenal: '%s'"),
+    FUNCTION_POSITION("Penempatan fungsi tidak valid."),
+    UNKNOWN_FUNCTION("Fungsi tidak dikenal: '%s'"),
+    SEPARATOR_POSITION("Pemisah argumen ';' tidak di posisi yang benar."),
+    UNBALANCED_BRACKETS("Jumlah kurung buka dan tutup tidak cocok."),
+    UNEXPECTED_END("Ekspresi berakhir secara tidak terduga."),
+    EMPTY_EXPRESSION("Ekspresi kosong."),
+    EXPRESSION_TOO_LONG("Ekspresi terlalu panjang (maksimum %s karakter)."),
+    NESTING_TOO_DEEP("Kurung terlalu dalam (maksimum %s tingkat)."),
+    TOO_MANY_TOKENS("Token terlalu banyak (maksimum %s)."),
+
+    // Konversi (detail berisi pesan lengkap karena berbeda antara postfix dan prefix)
+    NULL_INPUT("Input infixTokens tidak boleh null."),
+    MISMATCHED_BRACKETS("%s"),
+    UNKNOWN_TOKEN_TYPE("%s"),
+    EMPTY_CONVERSION("%s"),
+    MISPLACED_SEPARATOR("Pemisah ';' hanya boleh di antara argumen fungsi."),
+    ARGUMENT_COUNT("Jumlah argumen fungsi '%s' tidak sesuai."),
+    MISMATCHED_CONDITIONAL("%s"),
+
+    // Evaluasi / kompilasi
+    EMPTY_POSTFIX("Ekspresi postfix kosong atau null."),
+    MISSING_VARIABLE("Variabel '%s' tidak memiliki nilai."),
+    INSUFFICIENT_OPERANDS("Operand tidak cukup untuk operator '%s'"),
+    DIVISION_BY_ZERO("Pembagian dengan nol."),
+    UNKNOWN_OPERATOR("Operator tidak dikenal '%s'"),
+    INVALID_TOKEN("Token tidak valid dalam postfix '%s'"),
+    INVALID_OPERAND("Gagal parsing operand '%s'"),
+    EMPTY_STACK("Stack kosong saat pop operand untuk '%s'"),
+    INVALID_FINAL_STACK("Stack akhir tidak valid (size: %s)."),
+    ARITHMETIC("%s"), // overflow long, pembagian tidak bulat, pangkat pecahan pada desimal, dll.
+
+    // Server
+    TOO_MANY_CONNECTIONS("Server penuh (maksimum %s koneksi).");
+
+    private final String template;
+
+    ErrorCode(final String template) {
+        this.template = template;
+    }
+
+    // Pesan lengkap; detail (karakter/token) disisipkan jika templat membutuhkannya
+    public String format(final Object detail) {
+        return this.template.contains("%s") ? String.format(this.template, detail) : this.template;
+    }
+}
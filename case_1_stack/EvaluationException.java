@@ -0,0 +1,23 @@
+// error aritmetika saat evaluasi yang membawa ErrorCode-nya sendiri.
+
+package case_1_stack;
+
+/**
+ * ArithmeticException dengan {@link ErrorCode}, dilempar oleh interpreter, kernel bytecode, dan
+ * backend numerik (misalnya pembagian dengan nol). Pemanggil membaca kodenya dengan
+ * {@link #getCode()}, bukan dengan mencocokkan teks pesan.
+ */
+public final class EvaluationException extends ArithmeticException {
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorCode code;
+
+    public EvaluationException(final ErrorCode code) {
+        super(code.format(null));
+        this.code = code;
+    }
+
+    public ErrorCode getCode() {
+        return this.code;
+    }
+}
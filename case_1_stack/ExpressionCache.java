@@ -0,0 +1,213 @@
+// cache LRU berukuran terbatas untuk ekspresi yang sudah dikompilasi, dengan kunci teks infix.
+
+package case_1_stack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ExpressionCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Jumlah segmen maksimum; setiap segmen punya lock sendiri agar thread jarang saling menunggu
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final Result<CompiledExpression> NULL_INPUT = Result.error(ErrorCode.NULL_INPUT, Result.NO_POSITION);
+
+    private final Segment[] segments;
+    private final int capacity;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpressionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Kapasitas dibagi ke segmen dengan ukuran pasti yang jumlahnya sama dengan capacity (sisa
+     * pembagian ke segmen-segmen pertama), jadi {@link #size()} tidak pernah melebihi capacity.
+     * Urutan LRU berlaku per segmen: entri yang dibuang adalah yang paling lama tidak dipakai di
+     * segmennya, belum tentu di seluruh cache.
+     */
+    public ExpressionCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Kapasitas cache harus lebih dari 0.");
+        }
+        this.capacity = capacity;
+        final int segmentCount = Math.min(MAX_SEGMENTS, capacity);
+        final int segmentCapacity = capacity / segmentCount;
+        final int remainder = capacity % segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment(i < remainder ? segmentCapacity + 1 : segmentCapacity);
+        }
+    }
+
+    // LinkedHashMap dengan urutan akses: entri paling lama tidak dipakai dibuang lebih dulu.
+    // Nilai berupa Result, sehingga ekspresi tidak valid disimpan beserta kode error-nya.
+    private final class Segment extends LinkedHashMap<String, Result<CompiledExpression>> {
+        private static final long serialVersionUID = 1L;
+        private final int limit;
+
+        Segment(final int limit) {
+            super(16, 0.75f, true);
+            this.limit = limit;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Result<CompiledExpression>> eldest) {
+            if (size() > this.limit) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Menormalkan teks infix: spasi di awal/akhir dibuang dan deretan spasi diringkas menjadi satu.
+     * Bagi tokenizer, satu spasi dan banyak spasi berarti sama, jadi hasil validasi tidak berubah.
+     */
+    public static String normalize(final String expression) {
+        // Teks yang sudah normal (kasus umum) dipakai langsung sebagai kunci, tanpa alokasi
+        if (isNormalized(expression)) {
+            return expression;
+        }
+        final StringBuilder normalized = new StringBuilder(expression.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < expression.length(); i++) {
+            final char character = expression.charAt(i);
+            if (Character.isWhitespace(character)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(character);
+        }
+        return normalized.toString();
+    }
+
+    // Normal berarti: tidak diawali/diakhiri spasi, dan setiap spasi adalah ' ' tunggal
+    private static boolean isNormalized(final String expression) {
+        final int length = expression.length();
+        for (int i = 0; i < length; i++) {
+            final char character = expression.charAt(i);
+            if (Character.isWhitespace(character)
+                    && (character != ' ' || i == 0 || i == length - 1
+                        || Character.isWhitespace(expression.charAt(i + 1)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mengambil ekspresi terkompilasi dari cache, atau mengompilasinya jika belum ada.
+     * Input yang tidak valid juga disimpan, sehingga tidak divalidasi ulang.
+     *
+     * @param expression Ekspresi infix.
+     * @return Ekspresi terkompilasi, atau null jika ekspresi tidak valid.
+     */
+    public CompiledExpression get(final String expression) {
+        return lookup(expression).getValue();
+    }
+
+    /**
+     * Seperti {@link #get(String)}, tetapi untuk ekspresi tidak valid mengembalikan error yang
+     * tersimpan (kode, posisi, pesan) tanpa memvalidasi ulang. Posisi error mengacu pada
+     * teks yang sudah dinormalkan ({@link #normalize(String)}).
+     */
+    public Result<CompiledExpression> lookup(final String expression) {
+        if (expression == null) {
+            return NULL_INPUT;
+        }
+        // Input yang terlalu panjang ditolak sebelum dinormalkan dan tidak disimpan di cache
+        if (expression.length() > Limits.DEFAULT.getMaxLength()) {
+            return Result.error(ErrorCode.EXPRESSION_TOO_LONG, Limits.DEFAULT.getMaxLength(),
+                    Limits.DEFAULT.getMaxLength());
+        }
+        final String key = normalize(expression);
+        final Segment segment = segmentFor(key);
+
+        Result<CompiledExpression> entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+        if (entry != null) {
+            if (entry.isOk()) {
+                this.hits.increment();
+            } else {
+                this.invalidHits.increment();
+            }
+            return entry;
+        }
+
+        // Kompilasi dilakukan di luar lock; jika dua thread berpacu, hasil terakhir yang disimpan
+        this.misses.increment();
+        entry = CompiledExpression.tryCompile(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+        return entry;
+    }
+
+    private Segment segmentFor(final String key) {
+        final int hash = key.hashCode();
+        return this.segments[((hash ^ (hash >>> 16)) & 0x7fffffff) % this.segments.length];
+    }
+
+    public int size() {
+        int size = 0;
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    // Ditemukan di cache dan valid
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    // Ditemukan di cache sebagai ekspresi tidak valid (validasi ulang dihindari)
+    public long getInvalidHits() {
+        return this.invalidHits.sum();
+    }
+
+    // Tidak ditemukan, sehingga ekspresi divalidasi dan dikompilasi
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ExpressionCache[size=" + size() + "/" + this.capacity + ", hits=" + getHits()
+                + ", invalidHits=" + getInvalidHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "]";
+    }
+}
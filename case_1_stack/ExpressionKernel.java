@@ -0,0 +1,9 @@
+// kernel evaluasi hasil kompilasi ke bytecode (lihat KernelCompiler).
+
+package case_1_stack;
+
+interface ExpressionKernel {
+
+    // Menghitung hasil ekspresi dengan nilai variabel urut sesuai CompiledExpression.getVariables()
+    double apply(double[] values);
+}
@@ -0,0 +1,328 @@
+// pohon ekspresi (AST) berbasis array: satu kali parse, lalu postfix, prefix, infix, dan evaluasi.
+
+package case_1_stack;
+
+import java.util.List;
+import java.util.Map;
+
+public final class ExpressionTree {
+
+    // Simpul disimpan dalam urutan postfix: anak selalu punya indeks lebih kecil dari induknya,
+    // sehingga array tokens sendiri sudah merupakan notasi postfix. Anak terakhir simpul i ada di
+    // i - 1, dan anak sebelum anak c ada di first[c] - 1.
+    private final Token[] tokens;
+    private final int[] first;   // indeks simpul pertama subtree (simpul itu sendiri untuk daun)
+    private final int[] jumps;   // tabel lompatan c ? a : b (lihat Operator.conditionalJumps), null jika tidak ada
+    private final int size;
+
+    private ExpressionTree(final Token[] tokens, final int[] first, final int[] jumps, final int size) {
+        this.tokens = tokens;
+        this.first = first;
+        this.jumps = jumps;
+        this.size = size;
+    }
+
+    /**
+     * Membangun pohon dari token infix dengan satu kali Shunting-yard (yang sama dengan
+     * {@link InfixConverter}), lalu satu kali lintasan postfix untuk menghubungkan simpul dengan
+     * anak-anaknya.
+     *
+     * @param infixTokens Token infix hasil {@link InfixValidator#tokenize(String)}.
+     * @return Pohon ekspresi, atau error jika kurung tidak cocok atau operand kurang.
+     */
+    public static Result<ExpressionTree> parse(final TokenStack infixTokens) {
+        if (!PipelineMetrics.ENABLED) {
+            return parse(infixTokens, null);
+        }
+        final PipelineMetrics.Probe probe = PipelineMetrics.start();
+        final Result<ExpressionTree> result = parse(infixTokens, probe);
+        probe.finish(PipelineMetrics.Stage.CONVERSION, result, infixTokens == null ? 0 : infixTokens.size());
+        return result;
+    }
+
+    // probe null jika metrik tidak aktif; stack subtree di sini sama dalamnya dengan stack evaluasi postfix
+    private static Result<ExpressionTree> parse(final TokenStack infixTokens, final PipelineMetrics.Probe probe) {
+        final Result<TokenStack> postfix = InfixConverter.convertToPostfix(infixTokens, probe);
+        if (!postfix.isOk()) {
+            return postfix.propagate();
+        }
+        final TokenStack postfixTokens = postfix.getValue();
+
+        final int size = postfixTokens.size();
+        final Token[] tokens = new Token[Math.max(1, size)];
+        final int[] first = new int[tokens.length];
+        final int[] roots = new int[tokens.length]; // stack indeks akar subtree
+        int[] jumps = null;
+        int top = -1;
+
+        for (int i = 0; i < size; i++) {
+            final Token token = postfixTokens.get(i);
+            final int arity = token.getArity();
+            if (top + 1 < arity) {
+                return Result.error(ErrorCode.INSUFFICIENT_OPERANDS, Result.NO_POSITION, token);
+            }
+            tokens[i] = token;
+            top -= arity;
+            first[i] = arity == 0 ? i : first[roots[top + 1]];
+            roots[++top] = i;
+            if (probe != null) {
+                probe.evaluationDepth(top + 1);
+            }
+            if (token.getOpcode() == Operator.OP_SELECT) {
+                if (jumps == null) {
+                    jumps = new int[tokens.length];
+                }
+                final int then = first[i - 1] - 1;
+                jumps[first[then] - 1] = first[i - 1] + 1;
+                jumps[then] = -(i + 1);
+            }
+        }
+
+        // Tepat satu akar; "()" menghasilkan nol simpul, "() + 1" operand yang kurang
+        if (top != 0) {
+            return Result.error(ErrorCode.EMPTY_CONVERSION, Result.NO_POSITION,
+                    "Ekspresi tidak membentuk satu pohon (sisa operand: " + (top + 1) + ").");
+        }
+        return Result.ok(new ExpressionTree(tokens, first, jumps, size));
+    }
+
+    // Jumlah simpul (= jumlah token postfix)
+    public int size() {
+        return this.size;
+    }
+
+    // Indeks akar; simpul terakhir dalam urutan postfix
+    private int root() {
+        return this.size - 1;
+    }
+
+    // Anak ke-index (mulai 0) dari simpul; ditelusuri mundur dari anak terakhir
+    private int child(final int node, final int index) {
+        int child = node - 1;
+        for (int k = this.tokens[node].getArity() - 1; k > index; k--) {
+            child = this.first[child] - 1;
+        }
+        return child;
+    }
+
+    /**
+     * Token dalam notasi postfix. Karena simpul disimpan dalam urutan postfix, cukup disalin.
+     */
+    public TokenStack toPostfix() {
+        final TokenStack postfix = new TokenStack(this.size);
+        for (int i = 0; i < this.size; i++) {
+            postfix.push(this.tokens[i]);
+        }
+        return postfix;
+    }
+
+    /**
+     * Token dalam notasi prefix (pre-order), tanpa Shunting-yard kedua dan tanpa token kurung baru.
+     * Fungsi ditulis sebagai namanya diikuti argumennya, c ? a : b sebagai "?: c a b".
+     */
+    public TokenStack toPrefix() {
+        final TokenStack prefix = new TokenStack(this.size);
+        writePrefix(prefix);
+        return prefix;
+    }
+
+    // Pre-order iteratif agar aman untuk pohon yang sangat dalam
+    void writePrefix(final List<Token> output) {
+        final int[] pending = new int[this.size + 1];
+        int top = 0;
+        pending[0] = root();
+        while (top >= 0) {
+            final int node = pending[top--];
+            output.add(this.tokens[node]);
+            // Anak terakhir di-push lebih dulu agar anak pertama ditulis lebih dulu
+            int child = node - 1;
+            for (int k = this.tokens[node].getArity(); k > 0; k--) {
+                pending[++top] = child;
+                child = this.first[child] - 1;
+            }
+        }
+    }
+
+    /**
+     * Infix dengan kurung seminimal mungkin. Anak dengan precedence sama diberi kurung jika berada
+     * di sisi yang berlawanan dengan asosiativitas operator ('^' dan ?: asosiatif kanan).
+     * Argumen fungsi dipisah "; " dan tidak pernah perlu kurung.
+     * Hasilnya bisa divalidasi ulang dan menghasilkan pohon yang sama.
+     */
+    public String toInfix() {
+        final StringBuilder builder = new StringBuilder(this.size * 4);
+        // Frame: simpul, tahap (jumlah anak yang sudah ditulis), perlu kurung
+        final int[] nodes = new int[this.size + 1];
+        final int[] stages = new int[this.size + 1];
+        final boolean[] brackets = new boolean[this.size + 1];
+        int top = 0;
+        nodes[0] = root();
+
+        while (top >= 0) {
+            final int node = nodes[top];
+            final Token token = this.tokens[node];
+            final boolean function = token.getType() == TokenType.FUNCTION;
+            final int arity = token.getArity();
+            if (arity == 0 && !function) {
+                // Daun hanya diberi kurung sebagai operand negasi: -(2), bukan literal -2
+                if (brackets[top]) {
+                    builder.append('(').append(token).append(')');
+                } else {
+                    builder.append(token);
+                }
+                top--;
+                continue;
+            }
+            final int stage = stages[top];
+            if (stage == 0) {
+                if (function) {
+                    builder.append(token).append('(');
+                } else if (brackets[top]) {
+                    builder.append('(');
+                }
+                if (token.isUnaryOperator()) {
+                    builder.append('-');
+                }
+            } else if (stage < arity) {
+                if (function) {
+                    builder.append("; ");
+                } else if (token.getOpcode() == Operator.OP_SELECT) {
+                    builder.append(stage == 1 ? " ? " : " : ");
+                } else {
+                    builder.append(' ').append(token).append(' ');
+                }
+            }
+            if (stage == arity) {
+                if (function || brackets[top]) {
+                    builder.append(')');
+                }
+                top--;
+                continue;
+            }
+            stages[top] = stage + 1;
+            final int child = child(node, stage);
+            push(nodes, stages, brackets, ++top, child, !function && needsBrackets(child, node, stage));
+        }
+        return builder.toString();
+    }
+
+    private static void push(final int[] nodes, final int[] stages, final boolean[] brackets, final int top,
+                             final int node, final boolean bracket) {
+        nodes[top] = node;
+        stages[top] = 0;
+        brackets[top] = bracket;
+    }
+
+    private boolean needsBrackets(final int child, final int parent, final int index) {
+        final Token childToken = this.tokens[child];
+        final Token parentToken = this.tokens[parent];
+        if (parentToken.isUnaryOperator()) {
+            // "-" hanya diikuti variabel atau nama fungsi tanpa kurung; "-2" akan dibaca sebagai literal
+            return childToken.getType() != TokenType.VARIABLE && childToken.getType() != TokenType.FUNCTION;
+        }
+        if (childToken.getArity() == 0 || childToken.getType() == TokenType.FUNCTION) {
+            return false;
+        }
+        final int arity = parentToken.getArity();
+        if (parentToken.getOpcode() == Operator.OP_SELECT && index > 0) {
+            // Cabang then dibatasi '?' dan ':', cabang else paling kanan; keduanya tidak perlu kurung
+            return false;
+        }
+        final int childPrecedence = childToken.getPrecedence();
+        final int parentPrecedence = parentToken.getPrecedence();
+        if (childPrecedence != parentPrecedence) {
+            return childPrecedence < parentPrecedence;
+        }
+        // Sama kuat: kurung di sisi yang tidak dikelompokkan oleh asosiativitas
+        return parentToken.isRightAssociative() ? index < arity - 1 : index > 0;
+    }
+
+    /**
+     * Mengevaluasi pohon. Simpul dihitung berurutan (urutan postfix), jadi hasil dan error
+     * sama persis dengan {@link PostfixEvaluator#evaluateResult(TokenStack, Map)}.
+     *
+     * @param variables Nilai variabel (nama -> nilai).
+     * @return Hasil evaluasi, atau error (variabel tanpa nilai, pembagian dengan nol, error fungsi
+     *         pengguna). Cabang c ? a : b yang tidak dipilih tidak dievaluasi.
+     */
+    public Result<Double> evaluate(final Map<String, Double> variables) {
+        if (!PipelineMetrics.ENABLED) {
+            return evaluateNodes(variables);
+        }
+        final PipelineMetrics.Probe probe = PipelineMetrics.start();
+        final Result<Double> result = evaluateNodes(variables);
+        probe.finish(PipelineMetrics.Stage.EVALUATION, result, this.size);
+        return result;
+    }
+
+    private Result<Double> evaluateNodes(final Map<String, Double> variables) {
+        final int[] jumps = this.jumps;
+        final double[] values = new double[this.size];
+        for (int i = 0; i < this.size; i++) {
+            final Token token = this.tokens[i];
+            final byte opcode = token.getOpcode();
+            switch (opcode) {
+                case Operator.OP_PUSH:
+                    try {
+                        values[i] = token.getValue();
+                    } catch (NumberFormatException e) {
+                        return Result.error(ErrorCode.INVALID_OPERAND, Result.NO_POSITION, token);
+                    }
+                    break;
+                case Operator.OP_LOAD: {
+                    final Double value = variables.get(token.toString());
+                    if (value == null) {
+                        return Result.error(ErrorCode.MISSING_VARIABLE, Result.NO_POSITION, token);
+                    }
+                    values[i] = value;
+                    break;
+                }
+                case Operator.OP_SELECT: {
+                    // Hanya cabang yang dipilih yang sudah dihitung (lihat lompatan di bawah)
+                    final int then = this.first[i - 1] - 1;
+                    values[i] = values[this.first[then] - 1] != 0 ? values[then] : values[i - 1];
+                    break;
+                }
+                case Operator.OP_CALL: {
+                    final double[] arguments = new double[token.getArity()];
+                    for (int k = arguments.length - 1, child = i - 1; k >= 0; k--, child = this.first[child] - 1) {
+                        arguments[k] = values[child];
+                    }
+                    try {
+                        values[i] = token.getOperator().function.apply(arguments);
+                    } catch (ArithmeticException e) {
+                        return Result.error(ErrorCode.ARITHMETIC, Result.NO_POSITION, e.getMessage());
+                    }
+                    break;
+                }
+                case Operator.OP_NEG: case Operator.OP_SQRT: case Operator.OP_ABS: case Operator.OP_LOG:
+                    values[i] = Operator.apply(opcode, values[i - 1]);
+                    break;
+                default: {
+                    if (opcode == Operator.OP_NONE || opcode > Operator.OP_CALL) {
+                        return Result.error(ErrorCode.UNKNOWN_OPERATOR, Result.NO_POSITION, token);
+                    }
+                    final double operand2 = values[i - 1];
+                    if (opcode == Operator.OP_DIV && operand2 == 0) {
+                        return Result.error(ErrorCode.DIVISION_BY_ZERO, Result.NO_POSITION);
+                    }
+                    values[i] = Operator.apply(opcode, values[this.first[i - 1] - 1], operand2);
+                    break;
+                }
+            }
+            if (jumps != null && jumps[i] != 0) {
+                if (jumps[i] < 0) {
+                    i = -jumps[i] - 2;      // akhir cabang then: lewati cabang else
+                } else if (values[i] == 0) {
+                    i = jumps[i] - 2;       // kondisi salah: lewati cabang then
+                }
+            }
+        }
+        return Result.ok(values[root()]);
+    }
+
+    @Override
+    public String toString() {
+        return toInfix();
+    }
+}
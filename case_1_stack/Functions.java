@@ -0,0 +1,62 @@
+// registri fungsi yang bisa dipanggil di ekspresi: bawaan (min, max, sqrt, abs, log) dan fungsi pengguna.
+
+package case_1_stack;
+
+/**
+ * Fungsi dipanggil dengan nama diikuti langsung kurung buka, argumen dipisah ';'
+ * (koma sudah dipakai sebagai titik desimal), misalnya "max(1,5; x) + sqrt(2)".
+ * <ul>
+ *   <li>min(a; b), max(a; b), abs(a): sama dengan Math.min, Math.max, Math.abs.</li>
+ *   <li>sqrt(a), log(a): akar kuadrat dan logaritma natural; pada double, argumen negatif
+ *       menghasilkan NaN (log(0) = -Infinity), bukan error.</li>
+ * </ul>
+ * Nama fungsi diperiksa saat tokenisasi, jadi fungsi pengguna harus didaftarkan sebelum ekspresi
+ * yang memakainya divalidasi (hasil lama di {@link ExpressionCache} tidak diperbarui).
+ */
+public final class Functions {
+
+    /**
+     * Implementasi fungsi pengguna. Harus murni (hasil hanya bergantung pada argumen), karena
+     * evaluator boleh menghitung ulang atau melewati pemanggilan. Lempar ArithmeticException
+     * untuk melaporkan error; evaluator mengubahnya menjadi {@link ErrorCode#ARITHMETIC}.
+     */
+    @FunctionalInterface
+    public interface UserFunction {
+        double apply(double[] arguments);
+    }
+
+    private Functions() {
+    }
+
+    /**
+     * Mendaftarkan fungsi pengguna. Fungsi pengguna hanya tersedia untuk evaluasi double;
+     * backend long dan desimal melaporkan error aritmetika.
+     *
+     * @param name Nama fungsi, aturan sama dengan nama variabel ([A-Za-z_][A-Za-z0-9_]*).
+     * @param arity Jumlah argumen tetap (0 atau lebih).
+     * @throws IllegalArgumentException jika nama tidak valid, arity negatif, atau nama sudah dipakai
+     *                                  (fungsi bawaan maupun fungsi pengguna lain).
+     */
+    public static void register(final String name, final int arity, final UserFunction function) {
+        if (name == null || !name.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Nama fungsi tidak valid: '" + name + "'");
+        }
+        if (arity < 0 || function == null) {
+            throw new IllegalArgumentException("Arity negatif atau implementasi null untuk fungsi '" + name + "'.");
+        }
+        if (Operator.isBuiltin(name) || !Operator.register(name, arity, function)) {
+            throw new IllegalArgumentException("Fungsi '" + name + "' sudah terdaftar.");
+        }
+    }
+
+    // true jika nama adalah fungsi bawaan atau fungsi pengguna yang sudah didaftarkan
+    public static boolean isDefined(final String name) {
+        return Operator.forFunction(name) != null;
+    }
+
+    // Jumlah argumen fungsi, atau -1 jika tidak dikenal
+    public static int arity(final String name) {
+        final Operator function = Operator.forFunction(name);
+        return function == null ? -1 : function.arity;
+    }
+}
@@ -4,12 +4,12 @@
 package case_1_stack;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Stack;
 
 public class InfixConverter {
 
+    // Token postfix operator kondisional c ? a : b, dipakai bersama
+    static final Token CONDITIONAL = Token.operator(Token.CONDITIONAL);
+
     /**
      * Mengonversi tumpukan token infix ke tumpukan token postfix.
      * Menggunakan algoritma Shunting-yard.
@@ -17,186 +17,317 @@ public class InfixConverter {
      * @param infixTokens Tumpukan token dalam notasi infix.
      * @return Tumpukan token dalam notasi postfix, atau null jika input null atau terjadi error.
      */
-    public static Stack<Token> toPostfix(final Stack<Token> infixTokens) {
+    public static TokenStack toPostfix(final TokenStack infixTokens) {
+        final Result<TokenStack> result = convertToPostfix(infixTokens);
+        if (!result.isOk()) {
+            System.err.println("Error Konversi Postfix: " + result.getMessage());
+            return null;
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Sama dengan {@link #toPostfix(TokenStack)}, tetapi tanpa I/O konsol.
+     *
+     * @param infixTokens Tumpukan token dalam notasi infix.
+     * @return Token postfix, atau error jika input null atau kurung tidak cocok.
+     */
+    public static Result<TokenStack> convertToPostfix(final TokenStack infixTokens) {
+        if (!PipelineMetrics.ENABLED) {
+            return convert(infixTokens, null, null);
+        }
+        final PipelineMetrics.Probe probe = PipelineMetrics.start();
+        final Result<TokenStack> result = convertToPostfix(infixTokens, probe);
+        probe.finish(PipelineMetrics.Stage.CONVERSION, result, infixTokens == null ? 0 : infixTokens.size());
+        return result;
+    }
+
+    /**
+     * Buffer kerja yang dipakai ulang antar-konversi: token infix, stack operator, jumlah argumen,
+     * dan hasil postfix. Ukurannya ditentukan sekali dari {@link Limits#getMaxTokens()}, jadi
+     * konversi input yang lolos tokenisasi tidak pernah mengalokasikan atau memperbesar array.
+     * Tidak thread-safe; satu workspace per thread.
+     */
+    public static final class Workspace {
+        final Limits limits;
+        final TokenStack infix;
+        final TokenStack postfix;
+        final TokenStack operators;
+        int[] arguments;
+
+        public Workspace() {
+            this(Limits.DEFAULT);
+        }
+
+        public Workspace(final Limits limits) {
+            this.limits = limits;
+            // Tokenisasi berhenti paling lambat satu token setelah melewati batas
+            final int capacity = limits.getMaxTokens() + 1;
+            this.infix = new TokenStack(capacity);
+            this.postfix = new TokenStack(capacity);
+            this.operators = new TokenStack(capacity);
+            this.arguments = new int[capacity + 1];
+        }
+
+        public Limits getLimits() {
+            return this.limits;
+        }
+
+        /**
+         * Tokenisasi dengan batas workspace ini; token ditulis ke buffer workspace.
+         *
+         * @return Token infix (berlaku sampai workspace dipakai lagi), atau error.
+         */
+        public Result<TokenStack> tokenize(final String expression) {
+            return InfixValidator.tokenize(expression, this.limits, this.infix);
+        }
+    }
+
+    /**
+     * Sama dengan {@link #convertToPostfix(TokenStack)}, tetapi memakai buffer workspace, tanpa
+     * alokasi selain objek Result.
+     *
+     * @return Token postfix (berlaku sampai workspace dipakai lagi), atau error.
+     */
+    public static Result<TokenStack> convertToPostfix(final TokenStack infixTokens, final Workspace workspace) {
+        if (!PipelineMetrics.ENABLED) {
+            return convert(infixTokens, null, workspace);
+        }
+        final PipelineMetrics.Probe probe = PipelineMetrics.start();
+        final Result<TokenStack> result = convert(infixTokens, probe, workspace);
+        probe.finish(PipelineMetrics.Stage.CONVERSION, result, infixTokens == null ? 0 : infixTokens.size());
+        return result;
+    }
+
+    // probe null jika metrik tidak aktif; dipakai juga oleh ExpressionTree.parse
+    static Result<TokenStack> convertToPostfix(final TokenStack infixTokens,
+                                               final PipelineMetrics.Probe probe) {
+        return convert(infixTokens, probe, null);
+    }
+
+    // workspace null: buffer baru seukuran input
+    private static Result<TokenStack> convert(final TokenStack infixTokens, final PipelineMetrics.Probe probe,
+                                              final Workspace workspace) {
         // Handle jika input null
         if (infixTokens == null) {
-            System.err.println("Error Konversi Postfix: Input infixTokens tidak boleh null.");
-            return null;
+            return Result.error(ErrorCode.NULL_INPUT, Result.NO_POSITION);
         }
 
-        // Stack untuk hasil postfix
-        final Stack<Token> postfixTokens = new Stack<>();
-        // Stack untuk operator sementara dan kurung buka
-        final Stack<Token> operators = new Stack<>();
+        // Stack untuk hasil postfix (ukurannya tidak pernah melebihi jumlah token infix)
+        final TokenStack postfixTokens;
+        // Stack untuk operator sementara, nama fungsi, dan kurung buka
+        final TokenStack operators;
+        // Jumlah argumen yang sudah dimulai untuk setiap '(' fungsi, indeks = posisinya di stack operator
+        final int[] arguments;
+        if (workspace == null) {
+            postfixTokens = new TokenStack(infixTokens.size());
+            operators = new TokenStack();
+            arguments = new int[infixTokens.size() + 1];
+        } else {
+            postfixTokens = workspace.postfix;
+            operators = workspace.operators;
+            postfixTokens.clear();
+            operators.clear();
+            // Hanya jika token infix tidak berasal dari tokenisasi dengan batas workspace ini
+            if (workspace.arguments.length < infixTokens.size() + 1) {
+                workspace.arguments = new int[infixTokens.size() + 1];
+            }
+            arguments = workspace.arguments;
+        }
 
-        // --- PERBAIKAN: Membuat salinan (clone) yang aman ---
-        // Buat stack baru untuk salinan
-        Stack<Token> infixClone = new Stack<>();
-        // Salin semua elemen dari stack asli ke stack baru
-        infixClone.addAll(infixTokens);
-        // --- Akhir Perbaikan ---
+        // Input hanya dibaca (tidak diubah), jadi tidak perlu membuat salinan
 
-        // Iterasi melalui setiap token dalam salinan infix
-        for (final Token token : infixClone) {
+        // Iterasi melalui setiap token infix
+        for (int i = 0; i < infixTokens.size(); i++) {
+            final Token token = infixTokens.get(i);
             switch (token.getType()) {
-                // Jika token adalah operand, langsung tambahkan ke output postfix
+                // Jika token adalah operand atau variabel, langsung tambahkan ke output postfix
                 case OPERAND:
-                    postfixTokens.add(token);
+                case VARIABLE:
+                    postfixTokens.push(token);
+                    break;
+
+                // Nama fungsi menunggu di stack sampai kurung tutup argumennya
+                case FUNCTION:
+                    operators.push(token);
                     break;
 
                 // Jika token adalah operator
                 case OPERATOR:
-                    // Selama stack operator tidak kosong, DAN operator di puncak BUKAN '(',
-                    // DAN precedence token saat ini <= precedence operator di puncak stack
-                    while (!operators.isEmpty()
-                           && operators.peek().getType() != TokenType.OPENING_BRACKET // Cek tipe, bukan string
-                           && token.getPrecedence() <= operators.peek().getPrecedence()) {
+                    if (token.getOpcode() == Operator.OP_ELSE) {
+                        // ':' menyelesaikan cabang then: keluarkan operator sampai '?' pasangannya,
+                        // lalu '?' diganti ':' yang menunggu cabang else
+                        while (!operators.isEmpty() && operators.peekType() == TokenType.OPERATOR
+                               && operators.peek().getOpcode() != Operator.OP_CONDITION) {
+                            popOperator(operators, postfixTokens);
+                        }
+                        if (operators.isEmpty() || operators.peekType() != TokenType.OPERATOR) {
+                            return unmatchedElse();
+                        }
+                        operators.pop();
+                        operators.push(token);
+                        break;
+                    }
+                    // Selama operator di puncak stack mengikat lebih kuat, atau sama kuat dan token
+                    // asosiatif kiri, pop ke output ('(' dan nama fungsi menghentikan loop)
+                    while (operators.peekType() == TokenType.OPERATOR
+                           && pops(token, operators.peek())) {
                         // Pop operator dari stack operator ke output postfix
-                        postfixTokens.add(operators.pop());
+                        if (!popOperator(operators, postfixTokens)) {
+                            return unmatchedCondition();
+                        }
                     }
                     // Push operator saat ini ke stack operator
-                    operators.add(token);
+                    operators.push(token);
+                    if (probe != null) {
+                        probe.operatorDepth(operators.size());
+                    }
                     break;
 
                 // Jika token adalah kurung buka, push ke stack operator
                 case OPENING_BRACKET:
-                    operators.add(token);
+                    operators.push(token);
+                    arguments[operators.size() - 1] = 1;
+                    if (probe != null) {
+                        probe.operatorDepth(operators.size());
+                    }
                     break;
 
+                // Pemisah argumen: selesaikan argumen sebelumnya sampai '(' fungsi
+                case SEPARATOR: {
+                    final int bracket = popUntilBracket(operators, postfixTokens);
+                    if (bracket == -2) {
+                        return unmatchedCondition();
+                    }
+                    if (bracket <= 0 || operators.get(bracket - 1).getType() != TokenType.FUNCTION) {
+                        return Result.error(ErrorCode.MISPLACED_SEPARATOR, Result.NO_POSITION);
+                    }
+                    arguments[bracket]++;
+                    break;
+                }
+
                 // Jika token adalah kurung tutup
-                case CLOSING_BRACKET:
+                case CLOSING_BRACKET: {
                     // Pop operator dari stack ke output sampai bertemu '('
-                    while (!operators.isEmpty() && operators.peek().getType() != TokenType.OPENING_BRACKET) {
-                        postfixTokens.add(operators.pop());
+                    final int bracket = popUntilBracket(operators, postfixTokens);
+                    if (bracket == -2) {
+                        return unmatchedCondition();
                     }
 
                     // Jika stack kosong sebelum menemukan '(', berarti kurung tidak cocok
-                    if (operators.isEmpty()) {
-                        System.err.println("Error Konversi Postfix: Kurung tutup tidak cocok dengan kurung buka.");
-                        return null; // Error
+                    if (bracket == -1) {
+                        return Result.error(ErrorCode.MISMATCHED_BRACKETS, Result.NO_POSITION,
+                                "Kurung tutup tidak cocok dengan kurung buka.");
                     }
                     // Pop '(' dari stack operator, tapi tidak dimasukkan ke output
                     operators.pop();
+                    // Kurung argumen fungsi: fungsi ikut keluar ke output setelah argumennya
+                    if (operators.peekType() == TokenType.FUNCTION) {
+                        final Token function = operators.pop();
+                        final int count = infixTokens.get(i - 1).getType() == TokenType.OPENING_BRACKET
+                                ? 0 : arguments[bracket];
+                        if (function.getOperator() != null && count != function.getArity()) {
+                            return Result.error(ErrorCode.ARGUMENT_COUNT, Result.NO_POSITION, function);
+                        }
+                        postfixTokens.push(function);
+                    }
                     break;
+                }
 
                 // Default case, seharusnya tidak terjadi jika tokenisasi benar
                 default:
-                     System.err.println("Error Konversi Postfix: Tipe token tidak dikenal: " + token.getType());
-                     return null; // Sebaiknya tidak terjadi
+                     return Result.error(ErrorCode.UNKNOWN_TOKEN_TYPE, Result.NO_POSITION,
+                             "Tipe token tidak dikenal: " + token.getType());
             }
         } // Akhir loop for token
 
         // Setelah semua token infix diproses, pop semua sisa operator dari stack ke output
         while (!operators.isEmpty()) {
              // Jika masih ada kurung buka tersisa, berarti ekspresi tidak valid
-             if(operators.peek().getType() == TokenType.OPENING_BRACKET) {
-                 System.err.println("Error Konversi Postfix: Kurung buka tersisa di stack operator.");
-                 return null; // Error: kurung tidak seimbang
+             if(operators.peekType() == TokenType.OPENING_BRACKET) {
+                 return Result.error(ErrorCode.MISMATCHED_BRACKETS, Result.NO_POSITION,
+                         "Kurung buka tersisa di stack operator.");
+             }
+             if (!popOperator(operators, postfixTokens)) {
+                 return unmatchedCondition();
              }
-            postfixTokens.add(operators.pop());
         }
 
         // Kembalikan stack hasil konversi postfix
-        return postfixTokens;
+        return Result.ok(postfixTokens);
     }
 
-    /**
-     * Mengonversi tumpukan token infix ke ArrayList token prefix.
-     * Menggunakan metode: Balik Infix -> Konversi ke Postfix -> Balik Hasil.
-     *
-     * @param infixTokens Tumpukan token dalam notasi infix.
-     * @return ArrayList token dalam notasi prefix, atau null jika input null atau terjadi error.
-     */
-    public static ArrayList<Token> toPrefix(final Stack<Token> infixTokens) {
-         // Handle jika input null
-         if (infixTokens == null) {
-             System.err.println("Error Konversi Prefix: Input infixTokens tidak boleh null.");
-             return null;
-         }
-
-        // Langkah 1: Balik urutan token infix & Tukar kurung buka/tutup
-        Stack<Token> reversedInfix = new Stack<>();
-        // Gunakan List untuk membalik urutan dengan mudah
-        List<Token> infixList = new ArrayList<>(infixTokens); // Salinan aman
-        Collections.reverse(infixList); // Balik urutan list
-
-        for (Token t : infixList) {
-             if (t.getType() == TokenType.OPENING_BRACKET) {
-                 // Ganti '(' dengan ')'
-                 reversedInfix.push(new Token(")", TokenType.CLOSING_BRACKET));
-             } else if (t.getType() == TokenType.CLOSING_BRACKET) {
-                 // Ganti ')' dengan '('
-                 reversedInfix.push(new Token("(", TokenType.OPENING_BRACKET));
-             } else {
-                 // Biarkan operand dan operator apa adanya
-                 reversedInfix.push(t);
-             }
+    // true jika operator top di stack harus dikeluarkan sebelum token di-push
+    static boolean pops(final Token token, final Token top) {
+        // Operator prefix (negasi) belum punya operand kiri, jadi tidak mengeluarkan apa pun
+        if (token.isUnaryOperator()) {
+            return false;
         }
+        return token.getPrecedence() < top.getPrecedence()
+                || (token.getPrecedence() == top.getPrecedence() && !token.isRightAssociative());
+    }
 
+    // Memindahkan operator di puncak stack ke output; ':' menjadi "?:", dan '?' tanpa ':' gagal (false)
+    private static boolean popOperator(final TokenStack operators, final TokenStack output) {
+        final Token top = operators.pop();
+        if (top.getOpcode() == Operator.OP_CONDITION) {
+            return false;
+        }
+        output.push(top.getOpcode() == Operator.OP_ELSE ? CONDITIONAL : top);
+        return true;
+    }
 
-        // Langkah 2: Konversi infix yang sudah dibalik ke "postfix" (pseudo-postfix)
-        // Kita bisa memanggil ulang toPostfix(reversedInfix) di sini,
-        // tetapi untuk menghindari dependensi siklik atau kerumitan,
-        // kita ulangi logika Shunting-yard yang sedikit dimodifikasi jika perlu
-        // (Dalam kasus ini, logika standar postfix cukup)
-
-         Stack<Token> pseudoPostfix = new Stack<>();
-         Stack<Token> operators = new Stack<>();
-
-        for (final Token token : reversedInfix) { // Proses infix yang sudah dibalik
-            switch (token.getType()) {
-                case OPERAND:
-                    pseudoPostfix.add(token);
-                    break;
-                case OPERATOR:
-                     // Logika sama persis dengan konversi ke postfix standar
-                     while (!operators.isEmpty()
-                           && operators.peek().getType() != TokenType.OPENING_BRACKET
-                           && token.getPrecedence() <= operators.peek().getPrecedence()) {
-                        pseudoPostfix.add(operators.pop());
-                     }
-                    operators.add(token);
-                    break;
-                case OPENING_BRACKET: // Ini adalah ')' dari infix asli
-                    operators.add(token);
-                    break;
-                case CLOSING_BRACKET: // Ini adalah '(' dari infix asli
-                    while (!operators.isEmpty() && operators.peek().getType() != TokenType.OPENING_BRACKET) {
-                        pseudoPostfix.add(operators.pop());
-                    }
-                     if (operators.isEmpty()) {
-                          System.err.println("Error Konversi Prefix: Kurung tidak cocok saat memproses infix terbalik.");
-                         return null;
-                     }
-                    operators.pop(); // Pop '(' (yang merupakan ')' asli)
-                    break;
-                default:
-                     System.err.println("Error Konversi Prefix: Tipe token tidak dikenal saat memproses infix terbalik: " + token.getType());
-                     return null;
+    // Pop operator sampai '(' (tidak ikut di-pop); mengembalikan posisi '(' di stack,
+    // -1 jika tidak ada, atau -2 jika bertemu '?' tanpa ':'
+    private static int popUntilBracket(final TokenStack operators, final TokenStack output) {
+        while (!operators.isEmpty() && operators.peekType() != TokenType.OPENING_BRACKET) {
+            if (!popOperator(operators, output)) {
+                return -2;
             }
         }
-         // Pop sisa operator
-         while (!operators.isEmpty()) {
-             if(operators.peek().getType() == TokenType.OPENING_BRACKET) {
-                 System.err.println("Error Konversi Prefix: Kurung buka tersisa di stack operator saat memproses infix terbalik.");
-                 return null;
-             }
-             pseudoPostfix.add(operators.pop());
-         }
+        return operators.size() - 1;
+    }
 
+    // Error konversi '?' / ':' tanpa pasangan; dipakai juga oleh EditSession
+    static <T> Result<T> unmatchedCondition() {
+        return Result.error(ErrorCode.MISMATCHED_CONDITIONAL, Result.NO_POSITION, "'?' tanpa pasangan ':'.");
+    }
 
-        // Langkah 3: Balik hasil "postfix" untuk mendapatkan prefix yang sebenarnya
-        ArrayList<Token> prefixTokens = new ArrayList<>(pseudoPostfix);
-        Collections.reverse(prefixTokens); // Balik list hasil
+    static <T> Result<T> unmatchedElse() {
+        return Result.error(ErrorCode.MISMATCHED_CONDITIONAL, Result.NO_POSITION, "':' tanpa pasangan '?'.");
+    }
 
-         // Validasi hasil akhir (minimalis)
-         if (prefixTokens.isEmpty() && !infixTokens.isEmpty()) {
-             // Jika infix asli tidak kosong tapi hasil prefix kosong, kemungkinan ada error
-             System.err.println("Error Konversi Prefix: Hasil prefix kosong padahal input infix tidak kosong.");
-             return null;
-         }
+    /**
+     * Mengonversi tumpukan token infix ke ArrayList token prefix.
+     * Menggunakan metode: Bangun pohon ekspresi sekali -> tulis pre-order.
+     *
+     * @param infixTokens Tumpukan token dalam notasi infix.
+     * @return ArrayList token dalam notasi prefix, atau null jika input null atau terjadi error.
+     */
+    public static ArrayList<Token> toPrefix(final TokenStack infixTokens) {
+        final Result<ArrayList<Token>> result = convertToPrefix(infixTokens);
+        if (!result.isOk()) {
+            System.err.println("Error Konversi Prefix: " + result.getMessage());
+            return null;
+        }
+        return result.getValue();
+    }
 
-        // Kembalikan hasil konversi prefix
-        return prefixTokens;
+    /**
+     * Sama dengan {@link #toPrefix(TokenStack)}, tetapi tanpa I/O konsol.
+     * Jika postfix juga dibutuhkan, gunakan {@link ExpressionTree#parse(TokenStack)} langsung
+     * agar kedua notasi diambil dari satu kali parse.
+     *
+     * @param infixTokens Tumpukan token dalam notasi infix.
+     * @return Token prefix, atau error jika input null atau kurung tidak cocok.
+     */
+    public static Result<ArrayList<Token>> convertToPrefix(final TokenStack infixTokens) {
+        final Result<ExpressionTree> tree = ExpressionTree.parse(infixTokens);
+        if (!tree.isOk()) {
+            return tree.propagate();
+        }
+        final ArrayList<Token> prefixTokens = new ArrayList<>(tree.getValue().size());
+        tree.getValue().writePrefix(prefixTokens);
+        return Result.ok(prefixTokens);
     }
-}
\ No newline at end of file
+}
@@ -3,154 +3,368 @@
 
 package case_1_stack;
 
-import java.util.Stack;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public class InfixValidator {
 
-    // Pattern di-private agar hanya digunakan di class ini
-    private static final Pattern NUMBER_PATTERN = Pattern.compile("^-?\\d+(?:[.,]\\d*)?");
+    // Helper validasi juga private; previousType null berarti belum ada token
+    private static boolean validatePreviousNumber(final TokenType previousType) {
+        return previousType != TokenType.OPERAND && previousType != TokenType.VARIABLE
+                && previousType != TokenType.CLOSING_BRACKET;
+    }
+
+    private static boolean validatePreviousOperators(final TokenType previousType) {
+        return previousType == TokenType.OPERAND || previousType == TokenType.VARIABLE
+                || previousType == TokenType.CLOSING_BRACKET;
+    }
+
+    // Cek digit ASCII, setara dengan \d pada regex default Java
+    private static boolean isDigit(final char character) {
+        return character >= '0' && character <= '9';
+    }
 
-    // Helper validasi juga private
-    private static boolean validatePreviousNumber(final Stack<Token> tokens) {
-       if (!tokens.isEmpty()) {
-            TokenType previousType = tokens.peek().getType();
-            return previousType != TokenType.OPERAND && previousType != TokenType.CLOSING_BRACKET;
+    // Memindai angka tanpa tanda mulai dari posisi start, setara dengan pola \d+(?:[.,]\d*)?
+    // Mengembalikan posisi setelah angka, atau -1 jika tidak ada digit di posisi start.
+    private static int scanNumber(final String expression, final int start) {
+        final int length = expression.length();
+        int position = start;
+        while (position < length && isDigit(expression.charAt(position))) {
+            position++;
+        }
+        if (position == start) {
+            return -1;
+        }
+        if (position < length && (expression.charAt(position) == '.' || expression.charAt(position) == ',')) {
+            position++;
+            while (position < length && isDigit(expression.charAt(position))) {
+                position++;
+            }
         }
-        return true;
+        return position;
+    }
+
+    // Karakter awal nama variabel: huruf atau underscore
+    private static boolean isIdentifierStart(final char character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || character == '_';
     }
 
-    private static boolean validatePreviousOperators(final Stack<Token> tokens) {
-       if (tokens.isEmpty()) {
-            return false;
+    // Memindai nama variabel [A-Za-z_][A-Za-z0-9_]* mulai dari posisi start.
+    // Mengembalikan posisi setelah nama, atau -1 jika bukan awal nama variabel.
+    private static int scanIdentifier(final String expression, final int start) {
+        final int length = expression.length();
+        if (start >= length || !isIdentifierStart(expression.charAt(start))) {
+            return -1;
+        }
+        int position = start + 1;
+        while (position < length
+                && (isIdentifierStart(expression.charAt(position)) || isDigit(expression.charAt(position)))) {
+            position++;
         }
-        final TokenType previousTokenType = tokens.peek().getType();
-        return previousTokenType == TokenType.OPERAND || previousTokenType == TokenType.CLOSING_BRACKET;
+        return position;
     }
 
-    // Metode utama dibuat public static agar bisa dipanggil dari luar
-    public static Stack<Token> tokenizeAndValidate(String expression) {
-        final Stack<Token> tokens = new Stack<>();
-        long brackets = 0;
+    // Metode utama dibuat public static agar bisa dipanggil dari luar.
+    // Mencetak error ke System.err dan mengembalikan null jika tidak valid (untuk tampilan CalculatorApp).
+    public static TokenStack tokenizeAndValidate(final String expression) {
+        final Result<TokenStack> result = tokenize(expression);
+        if (!result.isOk()) {
+            System.err.println("Error Validasi: " + result.getMessage());
+            return null;
+        }
+        System.out.println("Validasi Infix: OK");
+        return result.getValue(); // Valid dan tokenized
+    }
+
+    /**
+     * Tokenisasi dan validasi tanpa I/O konsol. Input dipindai sekali dengan kursor (indeks),
+     * tanpa regex dan tanpa memotong sisa string tiap langkah.
+     *
+     * @param expression Ekspresi infix.
+     * @return Token infix, atau error berisi kode, posisi karakter, dan pesan.
+     */
+    public static Result<TokenStack> tokenize(final String expression) {
+        return tokenize(expression, Limits.DEFAULT);
+    }
+
+    /**
+     * Seperti {@link #tokenize(String)}, dengan batas panjang, kedalaman kurung, dan jumlah token
+     * sendiri. Input yang melebihi batas ditolak sebelum atau selama pemindaian, bukan setelahnya.
+     *
+     * @return Token infix, atau error; EXPRESSION_TOO_LONG, NESTING_TOO_DEEP, atau TOO_MANY_TOKENS
+     *         jika batas terlampaui.
+     */
+    public static Result<TokenStack> tokenize(final String expression, final Limits limits) {
+        return tokenize(expression, limits, new TokenStack());
+    }
+
+    // tokens dikosongkan lalu diisi (dipakai ulang oleh InfixConverter.Workspace)
+    static Result<TokenStack> tokenize(final String expression, final Limits limits, final TokenStack tokens) {
+        if (!PipelineMetrics.ENABLED) {
+            return scan(expression, limits, tokens);
+        }
+        final PipelineMetrics.Probe probe = PipelineMetrics.start();
+        final Result<TokenStack> result = scan(expression, limits, tokens);
+        probe.finish(PipelineMetrics.Stage.VALIDATION, result, result.isOk() ? result.getValue().size() : 0);
+        return result;
+    }
+
+    private static Result<TokenStack> scan(final String expression, final Limits limits, final TokenStack tokens) {
+        // Teks yang terlalu panjang tidak dipindai sama sekali
+        if (expression.length() > limits.getMaxLength()) {
+            return Result.error(ErrorCode.EXPRESSION_TOO_LONG, limits.getMaxLength(), limits.getMaxLength());
+        }
+        tokens.clear();
+        final Lexer lexer = new Lexer();
+        while (lexer.next(expression, tokens)) {
+            // Satu token per langkah; batas diperiksa setelah token valid,
+            // sama dengan urutan yang dipakai EditSession.validation
+            if (lexer.brackets > limits.getMaxDepth()) {
+                return Result.error(ErrorCode.NESTING_TOO_DEEP, lexer.start, limits.getMaxDepth());
+            }
+            if (tokens.size() > limits.getMaxTokens()) {
+                return Result.error(ErrorCode.TOO_MANY_TOKENS, lexer.start, limits.getMaxTokens());
+            }
+        }
+        return lexer.errorCode != null ? lexer.error() : lexer.finish(expression.length(), tokens);
+    }
+
+    /**
+     * Keadaan tokenizer di antara dua token: posisi, kedalaman kurung, dan tipe token sebelumnya.
+     * Karena aturan validasi hanya melihat token sebelumnya, tokenisasi bisa dilanjutkan dari
+     * batas token mana pun dengan keadaan ini ({@link EditSession}).
+     * <p>
+     * Mode lenient (untuk EditSession) tidak berhenti pada error: error pertama dicatat, token
+     * tetap dibuat seolah valid, karakter tak dikenal dilewati, dan kedalaman kurung boleh negatif.
+     * Token sebelum error pertama sama persis dengan mode biasa.
+     */
+    static final class Lexer {
+        final boolean lenient;
+        int position;
+        long brackets;
         boolean expectOperand = true;
+        TokenType previousType;          // null jika belum ada token
+        int start;                       // posisi awal token terakhir yang dibaca
+
+        // Error pertama sejak terakhir di-reset (null jika tidak ada)
+        ErrorCode errorCode;
+        int errorPosition;
+        Object errorDetail;
 
-        while (true) {
-            expression = expression.stripLeading();
-            if (expression.isEmpty()) {
-                break;
+        Lexer() {
+            this.lenient = false;
+        }
+
+        Lexer(final int position, final long brackets, final TokenType previousType, final boolean lenient) {
+            this.lenient = lenient;
+            this.position = position;
+            this.brackets = brackets;
+            this.previousType = previousType;
+            this.expectOperand = previousType == null || previousType == TokenType.OPERATOR
+                    || previousType == TokenType.FUNCTION || previousType == TokenType.SEPARATOR
+                    || previousType == TokenType.OPENING_BRACKET;
+        }
+
+        Result<TokenStack> error() {
+            return Result.error(this.errorCode, this.errorPosition, this.errorDetail);
+        }
+
+        private void push(final TokenStack tokens, final Token token) {
+            tokens.push(token);
+            this.previousType = token.getType();
+        }
+
+        // Mencatat error; true jika tokenisasi boleh lanjut (lenient)
+        private boolean reject(final ErrorCode code, final int at, final Object detail) {
+            if (this.errorCode == null) {
+                this.errorCode = code;
+                this.errorPosition = at;
+                this.errorDetail = detail;
             }
+            return this.lenient;
+        }
 
-            final char character = expression.charAt(0);
-            boolean isUnaryMinus = character == '-' && expectOperand;
-
-            // Handle Angka (Operand)
-            Matcher numberMatcher = NUMBER_PATTERN.matcher(expression);
-             if (!isUnaryMinus && expectOperand && numberMatcher.lookingAt() && !numberMatcher.group().equals("-")) {
-                 if (!validatePreviousNumber(tokens)) {
-                     System.err.println("Error Validasi: Penempatan operand tidak valid.");
-                     return null;
-                 }
-                 final String number = numberMatcher.group();
-                 tokens.add(new Token(number, TokenType.OPERAND));
-                 expression = expression.substring(number.length());
-                 expectOperand = false;
-                 continue;
-             }
-             // Handle unary minus
-             if (isUnaryMinus) {
-                 Matcher unaryNumberMatcher = NUMBER_PATTERN.matcher(expression);
-                 if(unaryNumberMatcher.lookingAt()){
-                      if (!validatePreviousNumber(tokens)) {
-                           System.err.println("Error Validasi: Penempatan operand (unary) tidak valid.");
-                           return null;
-                       }
-                     final String number = unaryNumberMatcher.group();
-                     tokens.add(new Token(number, TokenType.OPERAND));
-                     expression = expression.substring(number.length());
-                     expectOperand = false;
-                     continue;
-                 } else if (expression.length() > 1 && expression.charAt(1) == '(') {
-                     tokens.add(new Token("-1", TokenType.OPERAND));
-                     tokens.add(new Token("*", TokenType.OPERATOR));
-                     // Lanjut proses '(' di switch case bawah
-                 } else {
-                     System.err.println("Error Validasi: Penggunaan unary '-' tidak valid.");
-                     return null;
-                 }
-                 if(unaryNumberMatcher.lookingAt() || (expression.length() > 1 && expression.charAt(1) == '(')) {
-                    // Continue sudah dipanggil di atas
-                 }
-             }
+        /**
+         * Membaca token berikutnya ke tokens ("-x" dan "-(" menghasilkan dua token).
+         *
+         * @return false jika input habis atau (selain lenient) terjadi error.
+         */
+        boolean next(final String expression, final TokenStack tokens) {
+            final int length = expression.length();
+            while (true) {
+                int position = this.position;
+                // Lewati spasi (setara dengan stripLeading)
+                while (position < length && Character.isWhitespace(expression.charAt(position))) {
+                    position++;
+                }
+                this.position = position;
+                if (position >= length) {
+                    return false;
+                }
+                this.start = position;
+
+                final char character = expression.charAt(position);
+                final boolean isUnaryMinus = character == '-' && this.expectOperand;
 
-            // Handle Operator dan Kurung
-            switch (character) {
-                case '+': case '-': case '*': case '/': case '^': {
-                    if (expectOperand) {
-                         System.err.println("Error Validasi: Operator '" + character + "' tidak di posisi yang benar.");
-                        return null;
+                // Handle Angka (Operand)
+                if (!isUnaryMinus && this.expectOperand) {
+                    final int end = scanNumber(expression, position);
+                    if (end != -1) {
+                        if (!validatePreviousNumber(this.previousType)
+                                && !reject(ErrorCode.OPERAND_POSITION, position, null)) {
+                            return false;
+                        }
+                        push(tokens, new Token(expression.substring(position, end), TokenType.OPERAND));
+                        this.position = end;
+                        this.expectOperand = false;
+                        return true;
                     }
-                     // Allow operator after opening bracket case e.g. (+5) -> handled by unary logic above
-                    if (!validatePreviousOperators(tokens) && tokens.peek().getType() != TokenType.OPENING_BRACKET) {
-                         System.err.println("Error Validasi: Operator '" + character + "' tidak mengikuti operand/kurung tutup.");
-                         return null;
+                    // Handle Fungsi: nama yang langsung diikuti '(' (tanpa spasi)
+                    final int identifierEnd = scanIdentifier(expression, position);
+                    if (identifierEnd != -1 && identifierEnd < length && expression.charAt(identifierEnd) == '(') {
+                        if (!validatePreviousNumber(this.previousType)
+                                && !reject(ErrorCode.FUNCTION_POSITION, position, null)) {
+                            return false;
+                        }
+                        final Token function = new Token(expression.substring(position, identifierEnd),
+                                TokenType.FUNCTION);
+                        if (function.getOperator() == null
+                                && !reject(ErrorCode.UNKNOWN_FUNCTION, position, function)) {
+                            return false;
+                        }
+                        push(tokens, function);
+                        this.position = identifierEnd;
+                        return true; // '(' dibaca di langkah berikutnya, expectOperand tetap true
                     }
-                    tokens.add(new Token(Character.toString(character), TokenType.OPERATOR));
-                    expression = expression.substring(1);
-                    expectOperand = true;
-                    break;
-                }
-                case '(': {
-                    if (!expectOperand) {
-                       System.err.println("Error Validasi: Kurung buka '(' tidak di posisi yang benar.");
-                       return null;
+                    // Handle Variabel (Operand bernama)
+                    if (identifierEnd != -1) {
+                        if (!validatePreviousNumber(this.previousType)
+                                && !reject(ErrorCode.VARIABLE_POSITION, position, null)) {
+                            return false;
+                        }
+                        push(tokens, new Token(expression.substring(position, identifierEnd), TokenType.VARIABLE));
+                        this.position = identifierEnd;
+                        this.expectOperand = false;
+                        return true;
                     }
-                    brackets++;
-                    tokens.add(new Token(Character.toString(character), TokenType.OPENING_BRACKET));
-                    expression = expression.substring(1);
-                    expectOperand = true;
-                    break;
                 }
-                case ')': {
-                     if (expectOperand && (tokens.isEmpty() || tokens.peek().getType() != TokenType.OPENING_BRACKET)) {
-                        System.err.println("Error Validasi: Kurung tutup ')' tidak di posisi yang benar.");
-                        return null;
+                // Handle unary minus
+                if (isUnaryMinus) {
+                    final int end = scanNumber(expression, position + 1);
+                    if (end != -1) {
+                        if (!validatePreviousNumber(this.previousType)
+                                && !reject(ErrorCode.UNARY_OPERAND_POSITION, position, null)) {
+                            return false;
+                        }
+                        push(tokens, new Token(expression.substring(position, end), TokenType.OPERAND));
+                        this.position = end;
+                        this.expectOperand = false;
+                        return true;
+                    } else if (position + 1 < length
+                            && (expression.charAt(position + 1) == '(' || isIdentifierStart(expression.charAt(position + 1)))) {
+                        // -(...) dan -x menjadi operator negasi prefix '~': mengikat lebih kuat dari
+                        // '*' dan '/' (6 / -x = 6 / (-x)), lebih lemah dari '^' (-(2) ^ 2 = -4)
+                        push(tokens, Token.operator(Token.NEGATE));
+                        // Lewati '-', lalu '(' atau variabel diproses di langkah berikutnya
+                        this.position = position + 1;
+                        return true;
+                    } else if (!reject(ErrorCode.INVALID_UNARY_MINUS, position, null)) {
+                        return false;
                     }
-                     if (tokens.isEmpty() || tokens.peek().getType() == TokenType.OPERATOR){
-                         System.err.println("Error Validasi: Kurung tutup ')' tidak mengikuti operand atau kurung buka.");
-                         return null;
-                     }
-                    if (brackets <= 0) {
-                        System.err.println("Error Validasi: Kurung tutup ')' berlebih.");
-                        return null;
-                    }
-                    brackets--;
-                    tokens.add(new Token(Character.toString(character), TokenType.CLOSING_BRACKET));
-                    expression = expression.substring(1);
-                    expectOperand = false;
-                    break;
-                }
-                default: {
-                    System.err.println("Error Validasi: Karakter tidak dikenal: '" + character + "'");
-                    return null;
+                    // Lenient: '-' dibaca sebagai operator di bawah
                 }
-            } // end switch
-        } // end while
 
-        if (brackets != 0) {
-             System.err.println("Error Validasi: Jumlah kurung buka dan tutup tidak cocok.");
-            return null;
-        }
-        if (expectOperand && !tokens.isEmpty()) {
-             System.err.println("Error Validasi: Ekspresi berakhir secara tidak terduga.");
-             return null;
+                // Handle Operator dan Kurung
+                switch (character) {
+                    case '+': case '-': case '*': case '/': case '^': case '?': case ':':
+                    case '<': case '>': case '=': case '!': {
+                        // Perbandingan dua karakter: <=, >=, ==, !=; '=' dan '!' tidak berdiri sendiri
+                        final boolean twoCharacters = position + 1 < length && expression.charAt(position + 1) == '='
+                                && (character == '<' || character == '>' || character == '=' || character == '!');
+                        if (!twoCharacters && (character == '=' || character == '!')) {
+                            if (!reject(ErrorCode.UNKNOWN_CHARACTER, position, character)) {
+                                return false;
+                            }
+                            this.position = position + 1;
+                            continue;
+                        }
+                        final String symbol = twoCharacters ? expression.substring(position, position + 2)
+                                : Character.toString(character);
+                        if (this.expectOperand
+                                && !reject(ErrorCode.OPERATOR_POSITION, position, symbol)) {
+                            return false;
+                        }
+                         // Allow operator after opening bracket case e.g. (+5) -> handled by unary logic above
+                        if (!validatePreviousOperators(this.previousType) && this.previousType != TokenType.OPENING_BRACKET
+                                && !reject(ErrorCode.OPERATOR_NOT_AFTER_OPERAND, position, symbol)) {
+                            return false;
+                        }
+                        push(tokens, Token.operator(symbol));
+                        this.position = position + symbol.length();
+                        this.expectOperand = true;
+                        return true;
+                    }
+                    case ';': {
+                        // Posisi seperti operator biner; apakah ';' memang di dalam argumen fungsi
+                        // diperiksa saat konversi (butuh struktur kurung)
+                        if ((this.expectOperand || !validatePreviousOperators(this.previousType))
+                                && !reject(ErrorCode.SEPARATOR_POSITION, position, null)) {
+                            return false;
+                        }
+                        push(tokens, Token.SEPARATOR);
+                        this.position = position + 1;
+                        this.expectOperand = true;
+                        return true;
+                    }
+                    case '(': {
+                        if (!this.expectOperand && !reject(ErrorCode.OPENING_BRACKET_POSITION, position, null)) {
+                            return false;
+                        }
+                        this.brackets++;
+                        push(tokens, Token.OPENING_BRACKET);
+                        this.position = position + 1;
+                        this.expectOperand = true;
+                        return true;
+                    }
+                    case ')': {
+                        if (this.expectOperand && this.previousType != TokenType.OPENING_BRACKET
+                                && !reject(ErrorCode.CLOSING_BRACKET_POSITION, position, null)) {
+                            return false;
+                        }
+                        if ((this.previousType == null || this.previousType == TokenType.OPERATOR
+                                || this.previousType == TokenType.SEPARATOR)
+                                && !reject(ErrorCode.CLOSING_BRACKET_AFTER_OPERATOR, position, null)) {
+                            return false;
+                        }
+                        if (this.brackets <= 0 && !reject(ErrorCode.EXTRA_CLOSING_BRACKET, position, null)) {
+                            return false;
+                        }
+                        this.brackets--;
+                        push(tokens, Token.CLOSING_BRACKET);
+                        this.position = position + 1;
+                        this.expectOperand = false;
+                        return true;
+                    }
+                    default: {
+                        if (!reject(ErrorCode.UNKNOWN_CHARACTER, position, character)) {
+                            return false;
+                        }
+                        // Lenient: karakter dilewati tanpa token
+                        this.position = position + 1;
+                    }
+                } // end switch
+            }
         }
-         if (tokens.isEmpty()){
-              System.err.println("Error Validasi: Ekspresi kosong.");
-              return null;
-         }
 
-        System.out.println("Validasi Infix: OK");
-        return tokens; // Valid dan tokenized
+        // Pemeriksaan akhir input setelah next() mengembalikan false tanpa error
+        Result<TokenStack> finish(final int length, final TokenStack tokens) {
+            if (this.brackets != 0) {
+                 return Result.error(ErrorCode.UNBALANCED_BRACKETS, length);
+            }
+            if (this.expectOperand && this.previousType != null) {
+                 return Result.error(ErrorCode.UNEXPECTED_END, length);
+            }
+             if (this.previousType == null){
+                  return Result.error(ErrorCode.EMPTY_EXPRESSION, length);
+             }
+            return Result.ok(tokens);
+        }
     }
-}
\ No newline at end of file
+}
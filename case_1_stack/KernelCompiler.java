@@ -0,0 +1,304 @@
+// NOTE: Hanya berlaku untuk Java 15+ (memakai Lookup.defineHiddenClass)
+// menerjemahkan program postfix CompiledExpression menjadi class JVM saat runtime.
+
+package case_1_stack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+
+final class KernelCompiler {
+
+    // Program yang lebih panjang tetap diinterpretasi (batas ukuran method JVM & biaya JIT)
+    static final int MAX_INSTRUCTIONS = 4096;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final String KERNEL_NAME = "case_1_stack/ExpressionKernel$Generated";
+    private static final String COMPILER_NAME = "case_1_stack/KernelCompiler";
+
+    // Opcode bytecode JVM yang dipakai
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC2_W = 0x14;
+    private static final int DALOAD = 0x31;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DNEG = 0x77;
+    private static final int DCMPL = 0x97;
+    private static final int IFEQ = 0x99;
+    private static final int GOTO = 0xa7;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    private KernelCompiler() {
+    }
+
+    // Dipanggil oleh kernel hasil generate; exception sama dengan interpreter
+    static double divide(final double dividend, final double divisor) {
+        if (divisor == 0) {
+            throw new EvaluationException(ErrorCode.DIVISION_BY_ZERO);
+        }
+        return dividend / divisor;
+    }
+
+    // Perbandingan menghasilkan 1 atau 0 seperti interpreter (tanpa percabangan di kernel)
+    static double compare(final double a, final double b, final int opcode) {
+        return Operator.apply((byte) opcode, a, b);
+    }
+
+    /**
+     * Membuat kernel untuk program postfix. Setiap instruksi dipetakan langsung ke bytecode
+     * (operand stack JVM menggantikan stack evaluasi), sehingga JIT bisa meng-inline-nya
+     * seperti aritmetika yang ditulis tangan.
+     *
+     * @return Kernel, atau null jika program terlalu besar, memanggil fungsi pengguna, atau class
+     *         gagal didefinisikan (dicetak ke System.err, karena itu berarti bytecode yang salah).
+     */
+    static ExpressionKernel compile(final byte[] code, final double[] constants, final int[] slots,
+                                    final int maxDepth) {
+        if (code.length > MAX_INSTRUCTIONS) {
+            return null;
+        }
+        for (final byte opcode : code) {
+            if (opcode == Operator.OP_CALL) {
+                return null;
+            }
+        }
+        try {
+            final byte[] classBytes = generate(code, constants, slots, maxDepth);
+            final MethodHandles.Lookup kernelLookup = LOOKUP.defineHiddenClass(classBytes, true);
+            return (ExpressionKernel) kernelLookup.lookupClass().getConstructor().newInstance();
+        } catch (IOException | LinkageError | ReflectiveOperationException e) {
+            // Tetap memakai interpreter; hasilnya sama, hanya lebih lambat
+            System.err.println("Kernel gagal dibuat, memakai interpreter: " + e);
+            return null;
+        }
+    }
+
+    private static byte[] generate(final byte[] code, final double[] constants, final int[] slots,
+                                   final int maxDepth) throws IOException {
+        final ConstantPool pool = new ConstantPool();
+        final int thisClass = pool.classRef(KERNEL_NAME);
+        final int superClass = pool.classRef("java/lang/Object");
+        final int kernelInterface = pool.classRef("case_1_stack/ExpressionKernel");
+        final int objectInit = pool.methodRef("java/lang/Object", "<init>", "()V");
+        final int codeAttribute = pool.utf8("Code");
+
+        // Body apply([D)D; offset bytecode tiap instruksi dicatat untuk menambal target lompatan
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final int[] offsets = new int[code.length + 1];
+        final int[] branches = new int[code.length]; // offset instruksi IFEQ/GOTO, -1 jika bukan lompatan
+        for (int i = 0; i < code.length; i++) {
+            offsets[i] = body.size();
+            branches[i] = -1;
+            switch (code[i]) {
+                case Operator.OP_PUSH: {
+                    final double value = constants[i];
+                    if (Double.doubleToRawLongBits(value) == 0L) {
+                        body.write(DCONST_0);
+                    } else if (value == 1.0) {
+                        body.write(DCONST_1);
+                    } else {
+                        body.write(LDC2_W);
+                        writeShort(body, pool.doubleConstant(value));
+                    }
+                    break;
+                }
+                case Operator.OP_LOAD:
+                    body.write(ALOAD_1);
+                    body.write(SIPUSH);
+                    writeShort(body, slots[i]);
+                    body.write(DALOAD);
+                    break;
+                case Operator.OP_ADD: body.write(DADD); break;
+                case Operator.OP_SUB: body.write(DSUB); break;
+                case Operator.OP_MUL: body.write(DMUL); break;
+                case Operator.OP_NEG: body.write(DNEG); break;
+                case Operator.OP_DIV:
+                    body.write(INVOKESTATIC);
+                    writeShort(body, pool.methodRef(COMPILER_NAME, "divide", "(DD)D"));
+                    break;
+                case Operator.OP_POW: invokeMath(body, pool, "pow", "(DD)D"); break;
+                case Operator.OP_MIN: invokeMath(body, pool, "min", "(DD)D"); break;
+                case Operator.OP_MAX: invokeMath(body, pool, "max", "(DD)D"); break;
+                case Operator.OP_SQRT: invokeMath(body, pool, "sqrt", "(D)D"); break;
+                case Operator.OP_ABS: invokeMath(body, pool, "abs", "(D)D"); break;
+                case Operator.OP_LOG: invokeMath(body, pool, "log", "(D)D"); break;
+                case Operator.OP_LT: case Operator.OP_LE: case Operator.OP_GT:
+                case Operator.OP_GE: case Operator.OP_EQ: case Operator.OP_NE:
+                    body.write(SIPUSH);
+                    writeShort(body, code[i]);
+                    body.write(INVOKESTATIC);
+                    writeShort(body, pool.methodRef(COMPILER_NAME, "compare", "(DDI)D"));
+                    break;
+                case Operator.OP_JUMP_IF_ZERO:
+                    // dcmpl memberi 0 hanya jika kondisi == 0 (NaN dianggap benar, sama dengan interpreter)
+                    body.write(DCONST_0);
+                    body.write(DCMPL);
+                    branches[i] = body.size();
+                    body.write(IFEQ);
+                    writeShort(body, 0);
+                    break;
+                case Operator.OP_JUMP:
+                    branches[i] = body.size();
+                    body.write(GOTO);
+                    writeShort(body, 0);
+                    break;
+                default:
+                    throw new IllegalStateException("Opcode tidak dikenal: " + code[i]);
+            }
+        }
+        offsets[code.length] = body.size();
+        body.write(DRETURN);
+        final byte[] apply = body.toByteArray();
+        for (int i = 0; i < code.length; i++) {
+            if (branches[i] >= 0) {
+                // Offset lompatan relatif terhadap instruksi lompat itu sendiri
+                final int delta = offsets[slots[i]] - branches[i];
+                apply[branches[i] + 1] = (byte) (delta >> 8);
+                apply[branches[i] + 2] = (byte) delta;
+            }
+        }
+
+        // Body konstruktor: super()
+        final byte[] init = {
+            (byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN
+        };
+
+        final int initName = pool.utf8("<init>");
+        final int initDescriptor = pool.utf8("()V");
+        final int applyName = pool.utf8("apply");
+        final int applyDescriptor = pool.utf8("([D)D");
+
+        final ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(classBytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);            // minor version
+        out.writeShort(49);           // major version; di bawah 50 verifier tidak meminta StackMapTable untuk lompatan ?:
+        pool.writeTo(out);
+        out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);            // jumlah interface
+        out.writeShort(kernelInterface);
+        out.writeShort(0);            // jumlah field
+        out.writeShort(2);            // jumlah method
+        writeMethod(out, codeAttribute, initName, initDescriptor, 1, 1, init);
+        // Setiap double memakai 2 slot operand stack; paling dalam: maxDepth double ditambah dconst_0
+        // untuk OP_JUMP_IF_ZERO (opcode perbandingan hanya menambah satu int di atas maxDepth double)
+        writeMethod(out, codeAttribute, applyName, applyDescriptor, maxDepth * 2 + 2, 2, apply);
+        out.writeShort(0);            // jumlah atribut class
+        out.flush();
+        return classBytes.toByteArray();
+    }
+
+    private static void writeMethod(final DataOutputStream out, final int codeAttribute, final int name,
+                                    final int descriptor, final int maxStack, final int maxLocals,
+                                    final byte[] code) throws IOException {
+        out.writeShort(0x0001);       // public
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);            // satu atribut: Code
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);            // exception table
+        out.writeShort(0);            // atribut Code
+    }
+
+    private static void invokeMath(final ByteArrayOutputStream body, final ConstantPool pool, final String name,
+                                   final String descriptor) throws IOException {
+        body.write(INVOKESTATIC);
+        writeShort(body, pool.methodRef("java/lang/Math", name, descriptor));
+    }
+
+    private static void writeShort(final ByteArrayOutputStream out, final int value) {
+        out.write(value >> 8);
+        out.write(value);
+    }
+
+    // Constant pool sederhana dengan deduplikasi entri
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(this.bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(final String value) throws IOException {
+            final Integer existing = this.entries.get("U" + value);
+            if (existing != null) {
+                return existing;
+            }
+            this.out.writeByte(1);
+            this.out.writeUTF(value);
+            return register("U" + value, 1);
+        }
+
+        int classRef(final String name) throws IOException {
+            final Integer existing = this.entries.get("C" + name);
+            if (existing != null) {
+                return existing;
+            }
+            final int nameIndex = utf8(name);
+            this.out.writeByte(7);
+            this.out.writeShort(nameIndex);
+            return register("C" + name, 1);
+        }
+
+        int methodRef(final String owner, final String name, final String descriptor) throws IOException {
+            final String key = "M" + owner + "." + name + descriptor;
+            final Integer existing = this.entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            final int ownerIndex = classRef(owner);
+            final int nameIndex = utf8(name);
+            final int descriptorIndex = utf8(descriptor);
+            this.out.writeByte(12);   // NameAndType
+            this.out.writeShort(nameIndex);
+            this.out.writeShort(descriptorIndex);
+            final int nameAndType = register("N" + name + descriptor, 1);
+            this.out.writeByte(10);   // Methodref
+            this.out.writeShort(ownerIndex);
+            this.out.writeShort(nameAndType);
+            return register(key, 1);
+        }
+
+        int doubleConstant(final double value) throws IOException {
+            final String key = "D" + Double.doubleToRawLongBits(value);
+            final Integer existing = this.entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            this.out.writeByte(6);
+            this.out.writeDouble(value);
+            return register(key, 2);  // double memakai 2 entri constant pool
+        }
+
+        private int register(final String key, final int width) {
+            final int index = this.count;
+            this.entries.put(key, index);
+            this.count += width;
+            return index;
+        }
+
+        void writeTo(final DataOutputStream target) throws IOException {
+            this.out.flush();
+            target.writeShort(this.count);
+            this.bytes.writeTo(target);
+        }
+    }
+}
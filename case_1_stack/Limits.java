@@ -0,0 +1,58 @@
+// batas ukuran input: panjang teks, kedalaman kurung, dan jumlah token.
+// Default bisa diubah dengan: java -Dcase_1_stack.maxLength=... -Dcase_1_stack.maxDepth=... -Dcase_1_stack.maxTokens=...
+
+package case_1_stack;
+
+/**
+ * Batas yang diperiksa saat tokenisasi, sebelum converter dan evaluator sempat mengalokasikan
+ * apa pun sebesar input. Panjang teks diperiksa sebelum pemindaian dimulai; kedalaman kurung dan
+ * jumlah token diperiksa setiap kali satu token dibaca, jadi input yang terlalu besar berhenti
+ * paling lambat setelah maxTokens token.
+ * <p>
+ * Karena jumlah token dibatasi, semua stack di converter dan evaluator (termasuk rantai '^' atau
+ * '?' yang tidak butuh kurung untuk menumpuk) juga tidak pernah lebih besar dari maxTokens.
+ */
+public final class Limits {
+
+    public static final Limits DEFAULT = new Limits(
+            Integer.getInteger("case_1_stack.maxLength", 65_536),
+            Integer.getInteger("case_1_stack.maxDepth", 1_000),
+            Integer.getInteger("case_1_stack.maxTokens", 16_384));
+
+    private final int maxLength;
+    private final int maxDepth;
+    private final int maxTokens;
+
+    /**
+     * @param maxLength Jumlah karakter maksimum.
+     * @param maxDepth Kedalaman kurung maksimum (kurung argumen fungsi ikut dihitung).
+     * @param maxTokens Jumlah token infix maksimum ("-x" dihitung dua token: negasi dan x).
+     * @throws IllegalArgumentException jika ada batas yang negatif.
+     */
+    public Limits(final int maxLength, final int maxDepth, final int maxTokens) {
+        if (maxLength < 0 || maxDepth < 0 || maxTokens < 0) {
+            throw new IllegalArgumentException("Batas tidak boleh negatif: " + maxLength + ", " + maxDepth
+                    + ", " + maxTokens);
+        }
+        this.maxLength = maxLength;
+        this.maxDepth = maxDepth;
+        this.maxTokens = maxTokens;
+    }
+
+    public int getMaxLength() {
+        return this.maxLength;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public int getMaxTokens() {
+        return this.maxTokens;
+    }
+
+    @Override
+    public String toString() {
+        return "Limits(panjang " + this.maxLength + ", kedalaman " + this.maxDepth + ", token " + this.maxTokens + ")";
+    }
+}
@@ -0,0 +1,567 @@
+// backend aritmetika untuk evaluasi: double, long (dengan cek overflow), dan BigDecimal (MathContext).
+
+package case_1_stack;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+
+public abstract class NumericBackend<T> {
+
+    /** Aritmetika double biasa, sama dengan {@link PostfixEvaluator}. */
+    public static final NumericBackend<Double> DOUBLE = new DoubleBackend();
+
+    /** Bilangan bulat eksak; overflow, pembagian tidak bulat, dan pangkat negatif menjadi error. */
+    public static final NumericBackend<Long> LONG = new LongBackend();
+
+    /** Desimal eksak dengan presisi 34 digit (IEEE 754R Decimal128). */
+    public static final NumericBackend<BigDecimal> DECIMAL = decimal(MathContext.DECIMAL128);
+
+    private final String name;
+
+    NumericBackend(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Desimal dengan pembulatan sesuai context. Dengan {@link MathContext#UNLIMITED}, pembagian yang
+     * hasilnya tidak berhingga (misalnya 1 / 3) menjadi error.
+     */
+    public static NumericBackend<BigDecimal> decimal(final MathContext context) {
+        return new DecimalBackend(context);
+    }
+
+    // Literal operand dari token (koma sudah diganti titik oleh Token)
+    public abstract T parse(String literal);
+
+    public abstract T add(T a, T b);
+
+    public abstract T subtract(T a, T b);
+
+    public abstract T multiply(T a, T b);
+
+    // Melempar EvaluationException(DIVISION_BY_ZERO) jika b nol
+    public abstract T divide(T a, T b);
+
+    // Dipakai evaluator untuk melaporkan pembagian dengan nol sebagai ErrorCode, bukan exception
+    public abstract boolean isZero(T a);
+
+    public abstract T power(T base, T exponent);
+
+    public abstract T negate(T a);
+
+    // Perbandingan; pada double mengikuti operator Java (NaN tidak kurang dari dan tidak sama dengan apa pun)
+    public abstract boolean less(T a, T b);
+
+    public abstract boolean equal(T a, T b);
+
+    // Hasil perbandingan sebagai angka: 1 jika benar, 0 jika salah
+    public abstract T fromBoolean(boolean value);
+
+    public abstract T min(T a, T b);
+
+    public abstract T max(T a, T b);
+
+    public abstract T abs(T a);
+
+    // Backend eksak melempar ArithmeticException jika hasilnya tidak bisa direpresentasikan
+    public abstract T sqrt(T a);
+
+    // Logaritma natural
+    public abstract T log(T a);
+
+    // Dispatch opcode operator biner/fungsi dua argumen (lihat Operator); pembagian dengan nol
+    // diperiksa pemanggil lewat isZero agar bisa dilaporkan sebagai ErrorCode
+    final T apply(final byte opcode, final T a, final T b) {
+        switch (opcode) {
+            case Operator.OP_ADD: return add(a, b);
+            case Operator.OP_SUB: return subtract(a, b);
+            case Operator.OP_MUL: return multiply(a, b);
+            case Operator.OP_DIV: return divide(a, b);
+            case Operator.OP_POW: return power(a, b);
+            case Operator.OP_LT: return fromBoolean(less(a, b));
+            case Operator.OP_LE: return fromBoolean(less(a, b) || equal(a, b));
+            case Operator.OP_GT: return fromBoolean(less(b, a));
+            case Operator.OP_GE: return fromBoolean(less(b, a) || equal(a, b));
+            case Operator.OP_EQ: return fromBoolean(equal(a, b));
+            case Operator.OP_NE: return fromBoolean(!equal(a, b));
+            case Operator.OP_MIN: return min(a, b);
+            case Operator.OP_MAX: return max(a, b);
+            default: throw new IllegalStateException("Opcode tidak dikenal: " + opcode);
+        }
+    }
+
+    final T apply(final byte opcode, final T a) {
+        switch (opcode) {
+            case Operator.OP_NEG: return negate(a);
+            case Operator.OP_SQRT: return sqrt(a);
+            case Operator.OP_ABS: return abs(a);
+            case Operator.OP_LOG: return log(a);
+            default: throw new IllegalStateException("Opcode tidak dikenal: " + opcode);
+        }
+    }
+
+    // Fungsi pengguna hanya didefinisikan atas double
+    T call(final Operator function, final List<T> arguments) {
+        throw doubleOnly(function);
+    }
+
+    // Seperti call(Operator, List), dengan argumen di stack[from .. from + arity) milik CompiledExpression
+    T call(final Operator function, final Object[] stack, final int from) {
+        throw doubleOnly(function);
+    }
+
+    // Jalur long primitif (CompiledExpression), atau null jika backend ini tidak punya jalur long
+    LongPath<T> longPath() {
+        return null;
+    }
+
+    /**
+     * Konversi untuk jalur long primitif CompiledExpression. Hanya backend yang hasil eksak long-nya
+     * sama persis dengan hasilnya sendiri untuk operand bilangan bulat (long, desimal presisi >= 19)
+     * yang mengimplementasikannya.
+     */
+    interface LongPath<T> {
+        T fromLong(long value);
+
+        // true jika nilai bilangan bulat yang persis sama dengan literal tanpa titik (boleh masuk jalur long)
+        boolean isExactLong(T value);
+
+        // Nilai sebagai long primitif; hanya dipanggil jika isExactLong(value)
+        long longValue(T value);
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    private static ArithmeticException doubleOnly(final Operator function) {
+        return new ArithmeticException("Fungsi '" + function.symbol + "' hanya tersedia untuk backend double.");
+    }
+
+    private static EvaluationException divisionByZero() {
+        return new EvaluationException(ErrorCode.DIVISION_BY_ZERO);
+    }
+
+    private static final class DoubleBackend extends NumericBackend<Double> {
+        DoubleBackend() {
+            super("double");
+        }
+
+        @Override
+        public Double parse(final String literal) {
+            return Double.parseDouble(literal);
+        }
+
+        @Override
+        public Double add(final Double a, final Double b) {
+            return a + b;
+        }
+
+        @Override
+        public Double subtract(final Double a, final Double b) {
+            return a - b;
+        }
+
+        @Override
+        public Double multiply(final Double a, final Double b) {
+            return a * b;
+        }
+
+        @Override
+        public Double divide(final Double a, final Double b) {
+            if (b == 0) {
+                throw divisionByZero();
+            }
+            return a / b;
+        }
+
+        @Override
+        public boolean isZero(final Double a) {
+            return a == 0;
+        }
+
+        @Override
+        public Double power(final Double base, final Double exponent) {
+            return Math.pow(base, exponent);
+        }
+
+        @Override
+        public Double negate(final Double a) {
+            return -a;
+        }
+
+        @Override
+        public boolean less(final Double a, final Double b) {
+            return a.doubleValue() < b.doubleValue();
+        }
+
+        @Override
+        public boolean equal(final Double a, final Double b) {
+            return a.doubleValue() == b.doubleValue();
+        }
+
+        @Override
+        public Double fromBoolean(final boolean value) {
+            return value ? 1.0 : 0.0;
+        }
+
+        @Override
+        public Double min(final Double a, final Double b) {
+            return Math.min(a, b);
+        }
+
+        @Override
+        public Double max(final Double a, final Double b) {
+            return Math.max(a, b);
+        }
+
+        @Override
+        public Double abs(final Double a) {
+            return Math.abs(a);
+        }
+
+        @Override
+        public Double sqrt(final Double a) {
+            return Math.sqrt(a);
+        }
+
+        @Override
+        public Double log(final Double a) {
+            return Math.log(a);
+        }
+
+        @Override
+        Double call(final Operator function, final List<Double> arguments) {
+            final double[] values = new double[arguments.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments.get(i);
+            }
+            return function.function.apply(values);
+        }
+
+        @Override
+        Double call(final Operator function, final Object[] stack, final int from) {
+            final double[] values = new double[function.arity];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (Double) stack[from + i];
+            }
+            return function.function.apply(values);
+        }
+    }
+
+    private static final class LongBackend extends NumericBackend<Long> implements LongPath<Long> {
+        LongBackend() {
+            super("long");
+        }
+
+        @Override
+        public Long parse(final String literal) {
+            try {
+                return new BigDecimal(literal).longValueExact();
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new ArithmeticException("Bukan bilangan bulat long: " + literal);
+            }
+        }
+
+        @Override
+        public Long add(final Long a, final Long b) {
+            return Math.addExact(a, b);
+        }
+
+        @Override
+        public Long subtract(final Long a, final Long b) {
+            return Math.subtractExact(a, b);
+        }
+
+        @Override
+        public Long multiply(final Long a, final Long b) {
+            return Math.multiplyExact(a, b);
+        }
+
+        @Override
+        public Long divide(final Long a, final Long b) {
+            if (b == 0) {
+                throw divisionByZero();
+            }
+            if (a % b != 0) {
+                throw new ArithmeticException("Hasil pembagian bukan bilangan bulat: " + a + " / " + b);
+            }
+            // Long.MIN_VALUE / -1 satu-satunya pembagian yang overflow
+            return b == -1 ? Math.negateExact(a) : a / b;
+        }
+
+        @Override
+        public boolean isZero(final Long a) {
+            return a == 0;
+        }
+
+        @Override
+        public Long power(final Long base, final Long exponent) {
+            if (exponent < 0) {
+                throw new ArithmeticException("Pangkat negatif tidak didukung untuk long: " + exponent);
+            }
+            return powerExact(base, exponent);
+        }
+
+        @Override
+        public Long negate(final Long a) {
+            return Math.negateExact(a);
+        }
+
+        @Override
+        public boolean less(final Long a, final Long b) {
+            return a.longValue() < b.longValue();
+        }
+
+        @Override
+        public boolean equal(final Long a, final Long b) {
+            return a.longValue() == b.longValue();
+        }
+
+        @Override
+        public Long fromBoolean(final boolean value) {
+            return value ? 1L : 0L;
+        }
+
+        @Override
+        public Long min(final Long a, final Long b) {
+            return Math.min(a, b);
+        }
+
+        @Override
+        public Long max(final Long a, final Long b) {
+            return Math.max(a, b);
+        }
+
+        @Override
+        public Long abs(final Long a) {
+            return a < 0 ? Math.negateExact(a) : a;
+        }
+
+        // Hanya akar bilangan kuadrat sempurna
+        @Override
+        public Long sqrt(final Long a) {
+            if (a < 0) {
+                throw new ArithmeticException("Akar kuadrat dari bilangan negatif: " + a);
+            }
+            long root = (long) Math.sqrt(a);
+            // Koreksi pembulatan double untuk nilai di atas 2^53
+            while (root * root > a) {
+                root--;
+            }
+            while (root < 3037000499L && (root + 1) * (root + 1) <= a) { // 3037000499^2 < 2^63
+                root++;
+            }
+            if (root * root != a) {
+                throw new ArithmeticException("Akar kuadrat bukan bilangan bulat: " + a);
+            }
+            return root;
+        }
+
+        // Hanya log(1) = 0 yang hasilnya bilangan bulat
+        @Override
+        public Long log(final Long a) {
+            if (a != 1) {
+                throw new ArithmeticException("Logaritma bukan bilangan bulat: " + a);
+            }
+            return 0L;
+        }
+
+        @Override
+        LongPath<Long> longPath() {
+            return this;
+        }
+
+        @Override
+        public Long fromLong(final long value) {
+            return value;
+        }
+
+        @Override
+        public boolean isExactLong(final Long value) {
+            return true;
+        }
+
+        @Override
+        public long longValue(final Long value) {
+            return value;
+        }
+    }
+
+    // Pemangkatan dengan kuadrat berulang; melempar ArithmeticException jika overflow
+    static long powerExact(long base, long exponent) {
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = Math.multiplyExact(result, base);
+            }
+            exponent >>= 1;
+            if (exponent > 0) {
+                base = Math.multiplyExact(base, base);
+            }
+        }
+        return result;
+    }
+
+    private static final class DecimalBackend extends NumericBackend<BigDecimal> implements LongPath<BigDecimal> {
+        private final MathContext context;
+
+        DecimalBackend(final MathContext context) {
+            super("decimal(" + context + ")");
+            this.context = context;
+        }
+
+        @Override
+        public BigDecimal parse(final String literal) {
+            return new BigDecimal(literal).round(this.context);
+        }
+
+        @Override
+        public BigDecimal add(final BigDecimal a, final BigDecimal b) {
+            return a.add(b, this.context);
+        }
+
+        @Override
+        public BigDecimal subtract(final BigDecimal a, final BigDecimal b) {
+            return a.subtract(b, this.context);
+        }
+
+        @Override
+        public BigDecimal multiply(final BigDecimal a, final BigDecimal b) {
+            return a.multiply(b, this.context);
+        }
+
+        @Override
+        public BigDecimal divide(final BigDecimal a, final BigDecimal b) {
+            if (b.signum() == 0) {
+                throw divisionByZero();
+            }
+            return a.divide(b, this.context);
+        }
+
+        @Override
+        public boolean isZero(final BigDecimal a) {
+            return a.signum() == 0;
+        }
+
+        // Hanya pangkat bilangan bulat yang bisa dihitung eksak; pangkat pecahan menjadi error
+        @Override
+        public BigDecimal power(final BigDecimal base, final BigDecimal exponent) {
+            final BigDecimal integer = exponent.stripTrailingZeros();
+            if (integer.scale() > 0) {
+                throw new ArithmeticException("Pangkat harus bilangan bulat untuk desimal: " + exponent);
+            }
+            // Lebih dari 10 digit pasti di luar int; tidak diubah ke BigInteger, yang untuk pangkat
+            // seperti 2 ^ 3 ^ 20 bisa berjuta-juta digit
+            if (integer.precision() - integer.scale() > 10 || integer.toBigInteger().bitLength() > 31) {
+                return hugePower(base, exponent);
+            }
+            final int n = integer.intValue();
+            if (n < 0 && base.signum() == 0) {
+                throw divisionByZero();
+            }
+            if (n >= 0 || this.context.getPrecision() > 0) {
+                return base.pow(n, this.context);
+            }
+            // BigDecimal.pow menolak pangkat negatif tanpa presisi; lewat pembagian 2 ^ -1 = 0.5 tetap eksak
+            return BigDecimal.ONE.divide(base.pow(-n), this.context);
+        }
+
+        @Override
+        public BigDecimal negate(final BigDecimal a) {
+            return a.negate(this.context);
+        }
+
+        // compareTo, jadi 1.0 dan 1.00 sama
+        @Override
+        public boolean less(final BigDecimal a, final BigDecimal b) {
+            return a.compareTo(b) < 0;
+        }
+
+        @Override
+        public boolean equal(final BigDecimal a, final BigDecimal b) {
+            return a.compareTo(b) == 0;
+        }
+
+        @Override
+        public BigDecimal fromBoolean(final boolean value) {
+            return value ? BigDecimal.ONE : BigDecimal.ZERO;
+        }
+
+        @Override
+        public BigDecimal min(final BigDecimal a, final BigDecimal b) {
+            return a.min(b);
+        }
+
+        @Override
+        public BigDecimal max(final BigDecimal a, final BigDecimal b) {
+            return a.max(b);
+        }
+
+        @Override
+        public BigDecimal abs(final BigDecimal a) {
+            return a.abs(this.context);
+        }
+
+        // Dengan MathContext.UNLIMITED, akar yang tidak berhingga (misalnya akar 2) menjadi error
+        @Override
+        public BigDecimal sqrt(final BigDecimal a) {
+            if (a.signum() < 0) {
+                throw new ArithmeticException("Akar kuadrat dari bilangan negatif: " + a);
+            }
+            return a.sqrt(this.context);
+        }
+
+        // BigDecimal tidak punya logaritma; hanya log(1) = 0 yang eksak
+        @Override
+        public BigDecimal log(final BigDecimal a) {
+            if (a.compareTo(BigDecimal.ONE) != 0) {
+                throw new ArithmeticException("Logaritma tidak didukung untuk desimal: " + a);
+            }
+            return BigDecimal.ZERO;
+        }
+
+        // Pangkat bilangan bulat di luar int: hanya basis 0, 1, dan -1 yang hasilnya berhingga dan tidak nol
+        private static BigDecimal hugePower(final BigDecimal base, final BigDecimal exponent) {
+            if (base.signum() == 0) {
+                if (exponent.signum() < 0) {
+                    throw divisionByZero();
+                }
+                return BigDecimal.ZERO;
+            }
+            // Tanpa nol di belakang, skala negatif berarti kelipatan 10 (genap)
+            final BigDecimal integer = exponent.stripTrailingZeros();
+            if (base.abs().compareTo(BigDecimal.ONE) == 0) {
+                final boolean odd = integer.scale() == 0 && integer.unscaledValue().testBit(0);
+                return base.signum() > 0 || !odd ? BigDecimal.ONE : BigDecimal.ONE.negate();
+            }
+            // Pangkat yang sangat besar ditulis dalam notasi ilmiah, bukan jutaan digit
+            throw new ArithmeticException("Pangkat terlalu besar untuk desimal: "
+                    + (integer.precision() - integer.scale() <= 40 ? integer.toPlainString() : integer));
+        }
+
+        // Presisi >= 19 digit (atau tak terbatas) tidak pernah membulatkan nilai long
+        @Override
+        LongPath<BigDecimal> longPath() {
+            return this.context.getPrecision() == 0 || this.context.getPrecision() >= 19 ? this : null;
+        }
+
+        @Override
+        public BigDecimal fromLong(final long value) {
+            return BigDecimal.valueOf(value);
+        }
+
+        // Hanya skala 0, agar 4 dan 4.0 (skala berbeda) tetap dihitung oleh jalur BigDecimal
+        @Override
+        public boolean isExactLong(final BigDecimal value) {
+            return value.scale() == 0 && value.unscaledValue().bitLength() <= 63;
+        }
+
+        @Override
+        public long longValue(final BigDecimal value) {
+            return value.longValue();
+        }
+    }
+}
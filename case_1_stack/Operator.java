@@ -0,0 +1,230 @@
+// tabel opcode: operator dan fungsi beserta precedence, asosiativitas, dan jumlah operand.
+
+package case_1_stack;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Satu entri tabel opcode. Setiap token operator/fungsi menyimpan entrinya sejak dibuat, jadi
+ * converter dan evaluator cukup membaca field dan melakukan switch atas opcode (byte rapat,
+ * dikompilasi JVM menjadi tableswitch), tanpa membandingkan string. Menambah operator berarti
+ * menambah entri dan satu case, tanpa memperlambat operator lain.
+ */
+final class Operator {
+
+    // Opcode; sekaligus instruksi program CompiledExpression (OP_PUSH/OP_LOAD untuk operand/variabel)
+    static final byte OP_PUSH = 0;
+    static final byte OP_ADD = 1;
+    static final byte OP_SUB = 2;
+    static final byte OP_MUL = 3;
+    static final byte OP_DIV = 4;
+    static final byte OP_POW = 5;
+    static final byte OP_LOAD = 6;
+    static final byte OP_NEG = 7;
+    static final byte OP_LT = 8;
+    static final byte OP_LE = 9;
+    static final byte OP_GT = 10;
+    static final byte OP_GE = 11;
+    static final byte OP_EQ = 12;
+    static final byte OP_NE = 13;
+    static final byte OP_SELECT = 14;       // c ? a : b, di postfix ditulis "c a b ?:"
+    static final byte OP_MIN = 15;
+    static final byte OP_MAX = 16;
+    static final byte OP_SQRT = 17;
+    static final byte OP_ABS = 18;
+    static final byte OP_LOG = 19;
+    static final byte OP_CALL = 20;         // fungsi pengguna (Functions.register)
+    static final byte OP_JUMP_IF_ZERO = 21; // hanya di program CompiledExpression
+    static final byte OP_JUMP = 22;
+    // Hanya di token infix, tidak pernah sampai ke postfix
+    static final byte OP_CONDITION = 23;    // '?'
+    static final byte OP_ELSE = 24;         // ':'
+    static final byte OP_SEPARATOR = 25;    // ';' pemisah argumen
+    static final byte OP_NONE = -1;         // kurung
+
+    // Precedence; makin besar makin kuat mengikat
+    static final int CONDITIONAL = 1;       // ?: (asosiatif kanan)
+    static final int COMPARISON = 2;
+    static final int ADDITIVE = 3;
+    static final int MULTIPLICATIVE = 4;
+    static final int NEGATION = 5;          // unary '-' sebelum kurung/variabel (prefix)
+    static final int POWER = 6;             // ^ (asosiatif kanan)
+
+    // Operator infix berdasarkan simbol, dan fungsi bawaan berdasarkan nama
+    private static final Map<String, Operator> SYMBOLS = new HashMap<>();
+    private static final Map<String, Operator> BUILTINS = new HashMap<>();
+    private static final Map<String, Operator> USER_FUNCTIONS = new ConcurrentHashMap<>();
+
+    // Lebih lemah dari '^' (-(2) ^ 2 = -4), lebih kuat dari '*' dan '/' (6 / -(2) = -3)
+    static final Operator NEGATE = new Operator(Token.NEGATE, OP_NEG, NEGATION, true, 1, null);
+    static final Operator SELECT = new Operator(Token.CONDITIONAL, OP_SELECT, CONDITIONAL, true, 3, null);
+    static final Operator SEPARATOR = new Operator(";", OP_SEPARATOR, -1, false, 0, null);
+
+    static {
+        symbol("+", OP_ADD, ADDITIVE, false);
+        symbol("-", OP_SUB, ADDITIVE, false);
+        symbol("*", OP_MUL, MULTIPLICATIVE, false);
+        symbol("/", OP_DIV, MULTIPLICATIVE, false);
+        symbol("^", OP_POW, POWER, true);
+        symbol("<", OP_LT, COMPARISON, false);
+        symbol("<=", OP_LE, COMPARISON, false);
+        symbol(">", OP_GT, COMPARISON, false);
+        symbol(">=", OP_GE, COMPARISON, false);
+        symbol("==", OP_EQ, COMPARISON, false);
+        symbol("!=", OP_NE, COMPARISON, false);
+        symbol("?", OP_CONDITION, CONDITIONAL, true);
+        symbol(":", OP_ELSE, CONDITIONAL, true);
+        SYMBOLS.put(NEGATE.symbol, NEGATE);
+        SYMBOLS.put(SELECT.symbol, SELECT);
+        builtin("min", OP_MIN, 2);
+        builtin("max", OP_MAX, 2);
+        builtin("sqrt", OP_SQRT, 1);
+        builtin("abs", OP_ABS, 1);
+        builtin("log", OP_LOG, 1);
+    }
+
+    final String symbol;
+    final byte opcode;
+    final int precedence;
+    final boolean rightAssociative;
+    final int arity;                        // jumlah operand/argumen yang diambil dari stack
+    final Functions.UserFunction function;  // implementasi OP_CALL, selain itu null
+
+    private Operator(final String symbol, final byte opcode, final int precedence, final boolean rightAssociative,
+                     final int arity, final Functions.UserFunction function) {
+        this.symbol = symbol;
+        this.opcode = opcode;
+        this.precedence = precedence;
+        this.rightAssociative = rightAssociative;
+        this.arity = arity;
+        this.function = function;
+    }
+
+    private static void symbol(final String symbol, final byte opcode, final int precedence,
+                               final boolean rightAssociative) {
+        SYMBOLS.put(symbol, new Operator(symbol, opcode, precedence, rightAssociative, 2, null));
+    }
+
+    private static void builtin(final String name, final byte opcode, final int arity) {
+        BUILTINS.put(name, new Operator(name, opcode, -1, false, arity, null));
+    }
+
+    // Operator infix/postfix berdasarkan simbol, atau null jika tidak dikenal
+    static Operator forSymbol(final String symbol) {
+        return SYMBOLS.get(symbol);
+    }
+
+    // Semua simbol operator infix/postfix (untuk token bersama di Token)
+    static Iterable<String> symbols() {
+        return SYMBOLS.keySet();
+    }
+
+    // Fungsi bawaan atau fungsi pengguna berdasarkan nama, atau null jika tidak dikenal
+    static Operator forFunction(final String name) {
+        final Operator builtin = BUILTINS.get(name);
+        return builtin != null ? builtin : USER_FUNCTIONS.get(name);
+    }
+
+    static boolean isBuiltin(final String name) {
+        return BUILTINS.containsKey(name);
+    }
+
+    // Mendaftarkan fungsi pengguna; false jika nama sudah dipakai
+    static boolean register(final String name, final int arity, final Functions.UserFunction function) {
+        return USER_FUNCTIONS.putIfAbsent(name, new Operator(name, OP_CALL, -1, false, arity, function)) == null;
+    }
+
+    // Operator biner dan fungsi dua argumen atas double; pembagian dengan nol diperiksa pemanggil
+    static double apply(final byte opcode, final double a, final double b) {
+        switch (opcode) {
+            case OP_ADD: return a + b;
+            case OP_SUB: return a - b;
+            case OP_MUL: return a * b;
+            case OP_DIV: return a / b;
+            case OP_POW: return Math.pow(a, b);
+            case OP_LT: return a < b ? 1 : 0;
+            case OP_LE: return a <= b ? 1 : 0;
+            case OP_GT: return a > b ? 1 : 0;
+            case OP_GE: return a >= b ? 1 : 0;
+            case OP_EQ: return a == b ? 1 : 0;
+            case OP_NE: return a != b ? 1 : 0;
+            case OP_MIN: return Math.min(a, b);
+            case OP_MAX: return Math.max(a, b);
+            default: throw new IllegalStateException("Opcode tidak dikenal: " + opcode);
+        }
+    }
+
+    // Operator dan fungsi satu argumen atas double
+    static double apply(final byte opcode, final double a) {
+        switch (opcode) {
+            case OP_NEG: return -a;
+            case OP_SQRT: return Math.sqrt(a);
+            case OP_ABS: return Math.abs(a);
+            case OP_LOG: return Math.log(a);
+            default: throw new IllegalStateException("Opcode tidak dikenal: " + opcode);
+        }
+    }
+
+    boolean isComparison() {
+        return this.opcode >= OP_LT && this.opcode <= OP_NE;
+    }
+
+    /**
+     * Indeks awal subtree setiap token postfix (token itu sendiri untuk operand), atau null jika
+     * operand tidak cukup. Dipakai untuk menyusun lompatan evaluasi c ? a : b yang malas: setelah
+     * c dihitung, a atau b dilewati utuh, jadi error di cabang yang tidak dipilih tidak muncul.
+     */
+    static int[] subtreeStarts(final List<Token> postfix) {
+        final int size = postfix.size();
+        final int[] starts = new int[size];
+        final int[] roots = new int[size]; // stack indeks akar subtree
+        int top = -1;
+        for (int i = 0; i < size; i++) {
+            final int arity = postfix.get(i).getArity();
+            if (top + 1 < arity) {
+                return null;
+            }
+            top -= arity;
+            starts[i] = arity == 0 ? i : starts[roots[top + 1]];
+            roots[++top] = i;
+        }
+        return starts;
+    }
+
+    /**
+     * Tabel lompatan untuk evaluasi postfix yang memuat "?:", atau null jika tidak ada.
+     * Setelah token i dievaluasi: jumps[i] &gt; 0 berarti token i adalah akar kondisi; kondisi diambil
+     * dari stack dan jika nol evaluasi lanjut di jumps[i] - 1 (awal cabang else).
+     * jumps[i] &lt; 0 berarti token i akar cabang then; evaluasi lanjut di -jumps[i] - 1 (token "?:",
+     * yang sendiri tidak melakukan apa-apa karena nilai cabang sudah di puncak stack).
+     * Postfix dengan operand kurang juga menghasilkan null: evaluasi biasa lalu melaporkan errornya.
+     */
+    static int[] conditionalJumps(final List<Token> postfix) {
+        boolean found = false;
+        for (int i = 0; i < postfix.size() && !found; i++) {
+            found = postfix.get(i).getOpcode() == OP_SELECT;
+        }
+        if (!found) {
+            return null;
+        }
+        final int[] starts = subtreeStarts(postfix);
+        if (starts == null) {
+            return null;
+        }
+        final int[] jumps = new int[postfix.size()];
+        for (int k = 0; k < postfix.size(); k++) {
+            if (postfix.get(k).getOpcode() != OP_SELECT) {
+                continue;
+            }
+            final int otherwise = starts[k - 1];     // awal cabang else
+            final int then = otherwise - 1;          // akar cabang then
+            final int condition = starts[then] - 1;  // akar kondisi
+            jumps[condition] = otherwise + 1;
+            jumps[then] = -(k + 1);
+        }
+        return jumps;
+    }
+}
@@ -0,0 +1,471 @@
+// metrik per tahap (validasi, konversi, evaluasi): histogram latensi, jumlah token, kedalaman stack, error.
+// Aktifkan dengan: java -Dcase_1_stack.metrics=true ...
+// Jika tidak aktif, ENABLED adalah konstanta false dan JIT membuang seluruh kode pengukuran.
+
+package case_1_stack;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public final class PipelineMetrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("case_1_stack.metrics");
+
+    public static final String OBJECT_NAME = "case_1_stack:type=PipelineMetrics";
+
+    public enum Stage { VALIDATION, CONVERSION, EVALUATION }
+
+    // Bucket log2: bucket b berisi nilai [2^(b-1), 2^b - 1], bucket 0 hanya nilai 0
+    private static final int BUCKETS = 64;
+
+    private static final StageMetrics[] STAGES = new StageMetrics[Stage.values().length];
+    private static final Histogram OPERATOR_DEPTH = new Histogram();
+    private static final Histogram EVALUATION_DEPTH = new Histogram();
+    private static final LongAdder[] ERRORS = new LongAdder[ErrorCode.values().length];
+
+    static {
+        for (int i = 0; i < STAGES.length; i++) {
+            STAGES[i] = new StageMetrics();
+        }
+        for (int i = 0; i < ERRORS.length; i++) {
+            ERRORS[i] = new LongAdder();
+        }
+    }
+
+    private PipelineMetrics() {
+    }
+
+    /**
+     * Memulai pengukuran satu pemanggilan tahap. Hanya dipanggil jika {@link #ENABLED}; objeknya
+     * tidak keluar dari method pemanggil, jadi biasanya tidak dialokasikan di heap (escape analysis).
+     */
+    static Probe start() {
+        return new Probe(System.nanoTime());
+    }
+
+    // Pengukuran satu pemanggilan: waktu mulai dan stack terdalam yang teramati
+    static final class Probe {
+        private final long start;
+        private int operatorDepth;
+        private int evaluationDepth;
+
+        private Probe(final long start) {
+            this.start = start;
+        }
+
+        void operatorDepth(final int depth) {
+            if (depth > this.operatorDepth) {
+                this.operatorDepth = depth;
+            }
+        }
+
+        void evaluationDepth(final int depth) {
+            if (depth > this.evaluationDepth) {
+                this.evaluationDepth = depth;
+            }
+        }
+
+        void finish(final Stage stage, final Result<?> result, final int tokens) {
+            finish(stage, result.isOk() ? null : result.getCode(), tokens);
+        }
+
+        // error null berarti tahap berhasil
+        void finish(final Stage stage, final ErrorCode error, final int tokens) {
+            final long nanos = System.nanoTime() - this.start;
+            STAGES[stage.ordinal()].record(nanos, tokens, Math.max(this.operatorDepth, this.evaluationDepth));
+            if (this.operatorDepth > 0) {
+                OPERATOR_DEPTH.record(this.operatorDepth);
+            }
+            if (this.evaluationDepth > 0) {
+                EVALUATION_DEPTH.record(this.evaluationDepth);
+            }
+            if (error != null) {
+                STAGES[stage.ordinal()].errors.increment();
+                ERRORS[error.ordinal()].increment();
+            }
+        }
+    }
+
+    /**
+     * Salinan semua metrik saat ini. Counter dibaca satu per satu tanpa kunci, jadi snapshot yang
+     * diambil saat ada beban bisa sedikit tidak konsisten antar-counter.
+     */
+    public static Snapshot snapshot() {
+        final Map<Stage, StageSnapshot> stages = new EnumMap<>(Stage.class);
+        for (final Stage stage : Stage.values()) {
+            stages.put(stage, STAGES[stage.ordinal()].snapshot());
+        }
+        final Map<ErrorCode, Long> errors = new EnumMap<>(ErrorCode.class);
+        for (final ErrorCode code : ErrorCode.values()) {
+            final long count = ERRORS[code.ordinal()].sum();
+            if (count > 0) {
+                errors.put(code, count);
+            }
+        }
+        return new Snapshot(stages, OPERATOR_DEPTH.snapshot(), EVALUATION_DEPTH.snapshot(), errors);
+    }
+
+    // Mengosongkan semua counter (tidak atomik terhadap pencatatan yang sedang berjalan)
+    public static void reset() {
+        for (final StageMetrics stage : STAGES) {
+            stage.reset();
+        }
+        OPERATOR_DEPTH.reset();
+        EVALUATION_DEPTH.reset();
+        for (final LongAdder counter : ERRORS) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Mendaftarkan MXBean {@value #OBJECT_NAME} ke platform MBeanServer (jconsole, VisualVM,
+     * jcmd). Aman dipanggil berkali-kali.
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Sudah terdaftar
+        } catch (JMException e) {
+            throw new IllegalStateException("Gagal mendaftarkan MXBean metrik: " + e.getMessage(), e);
+        }
+    }
+
+    private static int bucket(final long value) {
+        return value <= 0 ? 0 : Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(value));
+    }
+
+    private static long upperBound(final int bucket) {
+        return bucket == 0 ? 0 : bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    private static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(final long value) {
+            this.buckets[bucket(value)].increment();
+            this.sum.add(value);
+            this.max.accumulate(value);
+        }
+
+        Distribution snapshot() {
+            final long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = this.buckets[i].sum();
+            }
+            return new Distribution(counts, this.sum.sum(), this.max.get());
+        }
+
+        void reset() {
+            for (final LongAdder bucket : this.buckets) {
+                bucket.reset();
+            }
+            this.sum.reset();
+            this.max.reset();
+        }
+    }
+
+    // Latensi dan ukuran input satu tahap, plus total latensi per bucket kedalaman dan per bucket
+    // jumlah token: dari sini terlihat apakah input lambat karena dalam (bersarang) atau karena panjang.
+    private static final class StageMetrics {
+        private final Histogram latency = new Histogram();
+        private final Histogram tokens = new Histogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder[] countByDepth = adders();
+        private final LongAdder[] nanosByDepth = adders();
+        private final LongAdder[] countByTokens = adders();
+        private final LongAdder[] nanosByTokens = adders();
+
+        private static LongAdder[] adders() {
+            final LongAdder[] adders = new LongAdder[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+
+        void record(final long nanos, final int tokenCount, final int depth) {
+            this.latency.record(nanos);
+            this.tokens.record(tokenCount);
+            if (depth > 0) {
+                this.countByDepth[bucket(depth)].increment();
+                this.nanosByDepth[bucket(depth)].add(nanos);
+            }
+            this.countByTokens[bucket(tokenCount)].increment();
+            this.nanosByTokens[bucket(tokenCount)].add(nanos);
+        }
+
+        StageSnapshot snapshot() {
+            return new StageSnapshot(this.latency.snapshot(), this.tokens.snapshot(), this.errors.sum(),
+                    means(this.countByDepth, this.nanosByDepth), means(this.countByTokens, this.nanosByTokens));
+        }
+
+        // Rata-rata nanodetik per bucket; -1 untuk bucket tanpa sampel
+        private static long[] means(final LongAdder[] counts, final LongAdder[] nanos) {
+            final long[] means = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                final long count = counts[i].sum();
+                means[i] = count == 0 ? -1 : nanos[i].sum() / count;
+            }
+            return means;
+        }
+
+        void reset() {
+            this.latency.reset();
+            this.tokens.reset();
+            this.errors.reset();
+            for (int i = 0; i < BUCKETS; i++) {
+                this.countByDepth[i].reset();
+                this.nanosByDepth[i].reset();
+                this.countByTokens[i].reset();
+                this.nanosByTokens[i].reset();
+            }
+        }
+    }
+
+    /**
+     * Ringkasan histogram log2. Persentil adalah batas atas bucket tempat persentil itu jatuh
+     * (paling jauh 2x nilai sebenarnya), dibatasi oleh nilai maksimum.
+     */
+    public static final class Distribution {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Distribution(final long[] buckets, final long sum, final long max) {
+            this.buckets = buckets;
+            long count = 0;
+            for (final long bucket : buckets) {
+                count += bucket;
+            }
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getSum() {
+            return this.sum;
+        }
+
+        public double getMean() {
+            return this.count == 0 ? 0 : (double) this.sum / this.count;
+        }
+
+        public long getMax() {
+            return this.max;
+        }
+
+        public long getP50() {
+            return percentile(0.50);
+        }
+
+        public long getP90() {
+            return percentile(0.90);
+        }
+
+        public long getP99() {
+            return percentile(0.99);
+        }
+
+        public long percentile(final double fraction) {
+            if (this.count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+            long seen = 0;
+            for (int i = 0; i < this.buckets.length; i++) {
+                seen += this.buckets[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), this.max);
+                }
+            }
+            return this.max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d rata2=%.1f p50<=%d p90<=%d p99<=%d maks=%d",
+                    this.count, getMean(), getP50(), getP90(), getP99(), this.max);
+        }
+    }
+
+    public static final class StageSnapshot {
+        private final Distribution latency;
+        private final Distribution tokens;
+        private final long errors;
+        private final long[] meanNanosByDepth;
+        private final long[] meanNanosByTokens;
+
+        StageSnapshot(final Distribution latency, final Distribution tokens, final long errors,
+                      final long[] meanNanosByDepth, final long[] meanNanosByTokens) {
+            this.latency = latency;
+            this.tokens = tokens;
+            this.errors = errors;
+            this.meanNanosByDepth = meanNanosByDepth;
+            this.meanNanosByTokens = meanNanosByTokens;
+        }
+
+        // Latensi dalam nanodetik
+        public Distribution getLatency() {
+            return this.latency;
+        }
+
+        public Distribution getTokens() {
+            return this.tokens;
+        }
+
+        public long getErrors() {
+            return this.errors;
+        }
+
+        // Indeks b: kedalaman stack [2^(b-1), 2^b - 1]; nilai -1 berarti tanpa sampel
+        public long[] getMeanNanosByDepth() {
+            return this.meanNanosByDepth.clone();
+        }
+
+        // Indeks b: jumlah token [2^(b-1), 2^b - 1]; nilai -1 berarti tanpa sampel
+        public long[] getMeanNanosByTokens() {
+            return this.meanNanosByTokens.clone();
+        }
+    }
+
+    public static final class Snapshot {
+        private final Map<Stage, StageSnapshot> stages;
+        private final Distribution operatorDepth;
+        private final Distribution evaluationDepth;
+        private final Map<ErrorCode, Long> errors;
+
+        Snapshot(final Map<Stage, StageSnapshot> stages, final Distribution operatorDepth,
+                 final Distribution evaluationDepth, final Map<ErrorCode, Long> errors) {
+            this.stages = stages;
+            this.operatorDepth = operatorDepth;
+            this.evaluationDepth = evaluationDepth;
+            this.errors = errors;
+        }
+
+        public StageSnapshot getStage(final Stage stage) {
+            return this.stages.get(stage);
+        }
+
+        // Stack operator terdalam per konversi (InfixConverter / ExpressionTree)
+        public Distribution getOperatorDepth() {
+            return this.operatorDepth;
+        }
+
+        // Stack operand terdalam per evaluasi (PostfixEvaluator) atau per pohon yang dibangun
+        public Distribution getEvaluationDepth() {
+            return this.evaluationDepth;
+        }
+
+        // Hanya kode yang pernah terjadi
+        public Map<ErrorCode, Long> getErrorCounts() {
+            return new EnumMap<>(this.errors);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder();
+            for (final Map.Entry<Stage, StageSnapshot> entry : this.stages.entrySet()) {
+                final StageSnapshot stage = entry.getValue();
+                if (stage.latency.getCount() == 0) {
+                    continue;
+                }
+                builder.append(entry.getKey()).append(": error=").append(stage.errors).append('\n')
+                       .append("  latensi (ns): ").append(stage.latency).append('\n')
+                       .append("  token       : ").append(stage.tokens).append('\n');
+                appendMeans(builder, "  ns per kedalaman", stage.meanNanosByDepth);
+                appendMeans(builder, "  ns per token    ", stage.meanNanosByTokens);
+            }
+            builder.append("kedalaman stack operator: ").append(this.operatorDepth).append('\n')
+                   .append("kedalaman stack evaluasi: ").append(this.evaluationDepth).append('\n')
+                   .append("error: ").append(this.errors);
+            return builder.toString();
+        }
+
+        private static void appendMeans(final StringBuilder builder, final String label, final long[] means) {
+            builder.append(label).append(':');
+            for (int i = 0; i < means.length; i++) {
+                if (means[i] >= 0) {
+                    builder.append(" <=").append(upperBound(i)).append('=').append(means[i]);
+                }
+            }
+            builder.append('\n');
+        }
+    }
+
+    private static final class Bean implements PipelineMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return ENABLED;
+        }
+
+        @Override
+        public Distribution getValidationLatency() {
+            return STAGES[Stage.VALIDATION.ordinal()].latency.snapshot();
+        }
+
+        @Override
+        public Distribution getConversionLatency() {
+            return STAGES[Stage.CONVERSION.ordinal()].latency.snapshot();
+        }
+
+        @Override
+        public Distribution getEvaluationLatency() {
+            return STAGES[Stage.EVALUATION.ordinal()].latency.snapshot();
+        }
+
+        @Override
+        public Distribution getTokens() {
+            return STAGES[Stage.VALIDATION.ordinal()].tokens.snapshot();
+        }
+
+        @Override
+        public Distribution getOperatorDepth() {
+            return OPERATOR_DEPTH.snapshot();
+        }
+
+        @Override
+        public Distribution getEvaluationDepth() {
+            return EVALUATION_DEPTH.snapshot();
+        }
+
+        @Override
+        public Map<String, Long> getErrorCounts() {
+            final Map<String, Long> counts = new LinkedHashMap<>();
+            for (final ErrorCode code : ErrorCode.values()) {
+                counts.put(code.name(), ERRORS[code.ordinal()].sum());
+            }
+            return counts;
+        }
+
+        @Override
+        public String getReport() {
+            return snapshot().toString();
+        }
+
+        @Override
+        public void reset() {
+            PipelineMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+// antarmuka JMX untuk PipelineMetrics (ObjectName case_1_stack:type=PipelineMetrics).
+
+package case_1_stack;
+
+import java.util.Map;
+
+public interface PipelineMetricsMXBean {
+
+    boolean isEnabled();
+
+    // Latensi dalam nanodetik
+    PipelineMetrics.Distribution getValidationLatency();
+
+    PipelineMetrics.Distribution getConversionLatency();
+
+    PipelineMetrics.Distribution getEvaluationLatency();
+
+    // Jumlah token per ekspresi yang divalidasi
+    PipelineMetrics.Distribution getTokens();
+
+    PipelineMetrics.Distribution getOperatorDepth();
+
+    PipelineMetrics.Distribution getEvaluationDepth();
+
+    // Nama ErrorCode -> jumlah kejadian
+    Map<String, Long> getErrorCounts();
+
+    String getReport();
+
+    void reset();
+}
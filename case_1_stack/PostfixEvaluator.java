@@ -2,74 +2,260 @@
 
 package case_1_stack;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EmptyStackException;
 import java.util.List;
-import java.util.Stack;
-import java.util.ArrayList;
+import java.util.Map;
 
 
 public class PostfixEvaluator {
 
     // Evaluasi postfix (public static)
-    public static Double evaluate(final Stack<Token> postfixTokens) {
+    public static Double evaluate(final TokenStack postfixTokens) {
+        return evaluate(postfixTokens, Collections.emptyMap());
+    }
+
+    // Evaluasi postfix dengan nilai variabel (nama -> nilai)
+    public static Double evaluate(final TokenStack postfixTokens, final Map<String, Double> variables) {
+        final Result<Double> result = evaluateResult(postfixTokens, variables);
+        if (!result.isOk()) {
+            System.err.println("Error Evaluasi: " + result.getMessage());
+            return null;
+        }
+        return result.getValue();
+    }
+
+    // Evaluasi postfix tanpa I/O konsol; error dikembalikan sebagai Result
+    public static Result<Double> evaluateResult(final TokenStack postfixTokens, final Map<String, Double> variables) {
+        if (!PipelineMetrics.ENABLED) {
+            return evaluateResult(postfixTokens, variables, (PipelineMetrics.Probe) null);
+        }
+        final PipelineMetrics.Probe probe = PipelineMetrics.start();
+        final Result<Double> result = evaluateResult(postfixTokens, variables, probe);
+        probe.finish(PipelineMetrics.Stage.EVALUATION, result, postfixTokens == null ? 0 : postfixTokens.size());
+        return result;
+    }
+
+    // probe null jika metrik tidak aktif
+    private static Result<Double> evaluateResult(final TokenStack postfixTokens, final Map<String, Double> variables,
+                                                 final PipelineMetrics.Probe probe) {
         if (postfixTokens == null || postfixTokens.isEmpty()) {
-             System.err.println("Error Evaluasi: Ekspresi postfix kosong atau null.");
-             return null;
+             return Result.error(ErrorCode.EMPTY_POSTFIX, Result.NO_POSITION);
         }
 
-        Stack<Double> evaluationStack = new Stack<>();
-        // Clone postfixTokens agar tidak merusak stack aslinya
-        List<Token> tokenList = new ArrayList<>(postfixTokens); // Lebih mudah iterasi pakai List
+        // Stack double primitif: tanpa boxing per hasil antara
+        final DoubleStack evaluationStack = new DoubleStack(postfixTokens.size());
+        // Lompatan untuk "?:" (cabang yang tidak dipilih tidak dievaluasi); null jika tidak ada
+        final int[] jumps = Operator.conditionalJumps(postfixTokens);
 
-        for (Token token : tokenList) {
+        // postfixTokens hanya dibaca, jadi tidak perlu disalin
+        for (int i = 0; i < postfixTokens.size(); i++) {
+            final Token token = postfixTokens.get(i);
             try {
-                if (token.getType() == TokenType.OPERAND) {
-                    evaluationStack.push(Double.parseDouble(token.toString()));
-                } else if (token.getType() == TokenType.OPERATOR) {
-                    if (evaluationStack.size() < 2) {
-                         System.err.println("Error Evaluasi: Operand tidak cukup untuk operator '" + token + "'");
-                         return null;
+                final byte opcode = token.getOpcode();
+                if (opcode == Operator.OP_PUSH) {
+                    evaluationStack.push(token.getValue());
+                    if (probe != null) {
+                        probe.evaluationDepth(evaluationStack.size());
                     }
-                    double operand2 = evaluationStack.pop();
-                    double operand1 = evaluationStack.pop();
-                    double result;
-
-                    switch (token.toString()) {
-                        case "+": result = operand1 + operand2; break;
-                        case "-": result = operand1 - operand2; break;
-                        case "*": result = operand1 * operand2; break;
-                        case "/":
-                            if (operand2 == 0) {
-                                System.err.println("Error Evaluasi: Pembagian dengan nol.");
-                                return null;
+                } else if (opcode == Operator.OP_LOAD) {
+                    final Double value = variables.get(token.toString());
+                    if (value == null) {
+                        return Result.error(ErrorCode.MISSING_VARIABLE, Result.NO_POSITION, token);
+                    }
+                    evaluationStack.push(value);
+                    if (probe != null) {
+                        probe.evaluationDepth(evaluationStack.size());
+                    }
+                } else if (token.getType() == TokenType.OPERATOR || token.getType() == TokenType.FUNCTION) {
+                    // Dengan tabel lompatan, "?:" hanya menemukan nilai cabang terpilih di stack
+                    final int arity = opcode == Operator.OP_SELECT && jumps != null ? 1 : token.getArity();
+                    if (evaluationStack.size() < arity) {
+                         return Result.error(ErrorCode.INSUFFICIENT_OPERANDS, Result.NO_POSITION, token);
+                    }
+                    // Dispatch lewat opcode dari tabel operator, bukan perbandingan string
+                    switch (opcode) {
+                        case Operator.OP_NEG: case Operator.OP_SQRT: case Operator.OP_ABS: case Operator.OP_LOG:
+                            evaluationStack.push(Operator.apply(opcode, evaluationStack.pop()));
+                            break;
+                        case Operator.OP_ADD: case Operator.OP_SUB: case Operator.OP_MUL: case Operator.OP_DIV:
+                        case Operator.OP_POW: case Operator.OP_LT: case Operator.OP_LE: case Operator.OP_GT:
+                        case Operator.OP_GE: case Operator.OP_EQ: case Operator.OP_NE: case Operator.OP_MIN:
+                        case Operator.OP_MAX: {
+                            final double operand2 = evaluationStack.pop();
+                            final double operand1 = evaluationStack.pop();
+                            if (opcode == Operator.OP_DIV && operand2 == 0) {
+                                return Result.error(ErrorCode.DIVISION_BY_ZERO, Result.NO_POSITION);
+                            }
+                            evaluationStack.push(Operator.apply(opcode, operand1, operand2));
+                            break;
+                        }
+                        case Operator.OP_SELECT:
+                            // Dengan tabel lompatan, nilai cabang terpilih sudah di puncak stack
+                            if (jumps == null) {
+                                final double otherwise = evaluationStack.pop();
+                                final double then = evaluationStack.pop();
+                                evaluationStack.push(evaluationStack.pop() != 0 ? then : otherwise);
                             }
-                            result = operand1 / operand2; break;
-                        case "^": result = Math.pow(operand1, operand2); break;
+                            break;
+                        case Operator.OP_CALL: {
+                            final double[] arguments = new double[token.getArity()];
+                            for (int a = arguments.length - 1; a >= 0; a--) {
+                                arguments[a] = evaluationStack.pop();
+                            }
+                            evaluationStack.push(token.getOperator().function.apply(arguments));
+                            break;
+                        }
                         default:
-                             System.err.println("Error Evaluasi: Operator tidak dikenal '" + token + "'");
-                            return null;
+                             return Result.error(ErrorCode.UNKNOWN_OPERATOR, Result.NO_POSITION, token);
                     }
-                    evaluationStack.push(result);
                 }
                 // Kurung seharusnya tidak ada di postfix
                 else {
-                    System.err.println("Error Evaluasi: Token tidak valid dalam postfix '" + token + "'");
-                    return null;
+                    return Result.error(ErrorCode.INVALID_TOKEN, Result.NO_POSITION, token);
                 }
             } catch (NumberFormatException e) {
-                System.err.println("Error Evaluasi: Gagal parsing operand '" + token + "'");
-                return null;
+                return Result.error(ErrorCode.INVALID_OPERAND, Result.NO_POSITION, token);
             } catch (EmptyStackException e) {
-                System.err.println("Error Evaluasi: Stack kosong saat pop operand untuk '" + token + "'");
-                return null;
+                return Result.error(ErrorCode.EMPTY_STACK, Result.NO_POSITION, token);
+            } catch (ArithmeticException e) {
+                // Dari fungsi pengguna
+                return Result.error(ErrorCode.ARITHMETIC, Result.NO_POSITION, e.getMessage());
+            }
+            if (jumps != null && jumps[i] != 0) {
+                if (jumps[i] < 0) {
+                    i = -jumps[i] - 2;                  // Lewati cabang else, lanjut di "?:"
+                } else if (evaluationStack.pop() == 0) {
+                    i = jumps[i] - 2;                   // Kondisi salah: lewati cabang then
+                }
+            }
+        }
+
+        if (evaluationStack.size() == 1) {
+            return Result.ok(evaluationStack.pop());
+        } else {
+             return Result.error(ErrorCode.INVALID_FINAL_STACK, Result.NO_POSITION, evaluationStack.size());
+        }
+    }
+
+    /**
+     * Evaluasi postfix dengan backend numerik tertentu, misalnya {@link NumericBackend#LONG} untuk
+     * bilangan bulat dengan cek overflow atau {@link NumericBackend#DECIMAL} untuk desimal eksak.
+     * Literal di-parse oleh backend, jadi "0,1" menjadi 0.1 yang eksak pada backend desimal.
+     */
+    public static <T> Result<T> evaluateResult(final TokenStack postfixTokens, final Map<String, T> variables,
+                                               final NumericBackend<T> backend) {
+        if (!PipelineMetrics.ENABLED) {
+            return evaluateResult(postfixTokens, variables, backend, null);
+        }
+        final PipelineMetrics.Probe probe = PipelineMetrics.start();
+        final Result<T> result = evaluateResult(postfixTokens, variables, backend, probe);
+        probe.finish(PipelineMetrics.Stage.EVALUATION, result, postfixTokens == null ? 0 : postfixTokens.size());
+        return result;
+    }
+
+    private static <T> Result<T> evaluateResult(final TokenStack postfixTokens, final Map<String, T> variables,
+                                                final NumericBackend<T> backend, final PipelineMetrics.Probe probe) {
+        if (postfixTokens == null || postfixTokens.isEmpty()) {
+             return Result.error(ErrorCode.EMPTY_POSTFIX, Result.NO_POSITION);
+        }
+
+        final List<T> evaluationStack = new ArrayList<>(postfixTokens.size());
+        final int[] jumps = Operator.conditionalJumps(postfixTokens);
+        // Literal di cabang yang dilewati tetap harus valid untuk backend, sama seperti CompiledExpression
+        for (int i = 0; jumps != null && i < postfixTokens.size(); i++) {
+            if (postfixTokens.get(i).getOpcode() == Operator.OP_PUSH) {
+                try {
+                    backend.parse(postfixTokens.get(i).toString());
+                } catch (NumberFormatException | ArithmeticException e) {
+                    return Result.error(ErrorCode.INVALID_OPERAND, Result.NO_POSITION, postfixTokens.get(i));
+                }
+            }
+        }
+        for (int i = 0; i < postfixTokens.size(); i++) {
+            final Token token = postfixTokens.get(i);
+            try {
+                final byte opcode = token.getOpcode();
+                if (opcode == Operator.OP_PUSH) {
+                    try {
+                        evaluationStack.add(backend.parse(token.toString()));
+                        if (probe != null) {
+                            probe.evaluationDepth(evaluationStack.size());
+                        }
+                    } catch (NumberFormatException | ArithmeticException e) {
+                        return Result.error(ErrorCode.INVALID_OPERAND, Result.NO_POSITION, token);
+                    }
+                } else if (opcode == Operator.OP_LOAD) {
+                    final T value = variables.get(token.toString());
+                    if (value == null) {
+                        return Result.error(ErrorCode.MISSING_VARIABLE, Result.NO_POSITION, token);
+                    }
+                    evaluationStack.add(value);
+                    if (probe != null) {
+                        probe.evaluationDepth(evaluationStack.size());
+                    }
+                } else if (token.getType() == TokenType.OPERATOR || token.getType() == TokenType.FUNCTION) {
+                    // Dengan tabel lompatan, "?:" hanya menemukan nilai cabang terpilih di stack
+                    final int arity = opcode == Operator.OP_SELECT && jumps != null ? 1 : token.getArity();
+                    if (evaluationStack.size() < arity) {
+                         return Result.error(ErrorCode.INSUFFICIENT_OPERANDS, Result.NO_POSITION, token);
+                    }
+                    final int top = evaluationStack.size() - 1;
+                    switch (opcode) {
+                        case Operator.OP_NEG: case Operator.OP_SQRT: case Operator.OP_ABS: case Operator.OP_LOG:
+                            evaluationStack.set(top, backend.apply(opcode, evaluationStack.get(top)));
+                            break;
+                        case Operator.OP_ADD: case Operator.OP_SUB: case Operator.OP_MUL: case Operator.OP_DIV:
+                        case Operator.OP_POW: case Operator.OP_LT: case Operator.OP_LE: case Operator.OP_GT:
+                        case Operator.OP_GE: case Operator.OP_EQ: case Operator.OP_NE: case Operator.OP_MIN:
+                        case Operator.OP_MAX: {
+                            final T operand2 = evaluationStack.remove(top);
+                            final T operand1 = evaluationStack.get(top - 1);
+                            if (opcode == Operator.OP_DIV && backend.isZero(operand2)) {
+                                return Result.error(ErrorCode.DIVISION_BY_ZERO, Result.NO_POSITION);
+                            }
+                            evaluationStack.set(top - 1, backend.apply(opcode, operand1, operand2));
+                            break;
+                        }
+                        case Operator.OP_SELECT:
+                            if (jumps == null) {
+                                final T otherwise = evaluationStack.remove(top);
+                                final T then = evaluationStack.remove(top - 1);
+                                evaluationStack.set(top - 2, backend.isZero(evaluationStack.get(top - 2))
+                                        ? otherwise : then);
+                            }
+                            break;
+                        case Operator.OP_CALL: {
+                            final List<T> arguments = evaluationStack.subList(top + 1 - token.getArity(), top + 1);
+                            final T result = backend.call(token.getOperator(), arguments);
+                            arguments.clear();
+                            evaluationStack.add(result);
+                            break;
+                        }
+                        default:
+                             return Result.error(ErrorCode.UNKNOWN_OPERATOR, Result.NO_POSITION, token);
+                    }
+                } else {
+                    return Result.error(ErrorCode.INVALID_TOKEN, Result.NO_POSITION, token);
+                }
+            } catch (ArithmeticException e) {
+                // Overflow long, pembagian tidak bulat, pangkat pecahan pada desimal, dll.
+                return Result.error(ErrorCode.ARITHMETIC, Result.NO_POSITION, e.getMessage());
+            }
+            if (jumps != null && jumps[i] != 0) {
+                if (jumps[i] < 0) {
+                    i = -jumps[i] - 2;
+                } else if (backend.isZero(evaluationStack.remove(evaluationStack.size() - 1))) {
+                    i = jumps[i] - 2;
+                }
             }
         }
 
         if (evaluationStack.size() == 1) {
-            return evaluationStack.pop();
+            return Result.ok(evaluationStack.get(0));
         } else {
-             System.err.println("Error Evaluasi: Stack akhir tidak valid (size: " + evaluationStack.size() + ").");
-             return null;
+             return Result.error(ErrorCode.INVALID_FINAL_STACK, Result.NO_POSITION, evaluationStack.size());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+// optimasi postfix: melipat konstanta dan menyederhanakan identitas aljabar sebelum evaluasi.
+
+package case_1_stack;
+
+import java.util.Arrays;
+
+public final class PostfixOptimizer {
+
+    // Token negasi dipakai bersama, tidak perlu dibuat ulang
+    private static final Token NEGATE = Token.operator(Token.NEGATE);
+
+    private PostfixOptimizer() {
+    }
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    // Simpul pohon ekspresi sementara selama optimasi
+    private static final class Node {
+        private final Token token;
+        private final Node[] children; // operand/argumen berurutan; kosong untuk daun
+        private final boolean constant;
+        private final double value;
+        // subtree mengandung pembagian, fungsi pengguna, atau variabel (bisa tidak diberi nilai) yang bisa gagal
+        private final boolean mayFail;
+
+        Node(final Token token, final Node... children) {
+            this.token = token;
+            this.children = children;
+            this.constant = false;
+            this.value = 0;
+            boolean mayFail = token.getOpcode() == Operator.OP_DIV || token.getOpcode() == Operator.OP_CALL
+                    || token.getType() == TokenType.VARIABLE;
+            for (final Node child : children) {
+                mayFail |= child.mayFail;
+            }
+            this.mayFail = mayFail;
+        }
+
+        Node(final Token token, final double value) {
+            this.token = token;
+            this.children = NO_CHILDREN;
+            this.constant = true;
+            this.value = value;
+            this.mayFail = false;
+        }
+
+        boolean isConstant(final double expected) {
+            // Dibandingkan per bit agar 0.0 dan -0.0 dibedakan
+            return this.constant && Double.doubleToRawLongBits(this.value) == Double.doubleToRawLongBits(expected);
+        }
+    }
+
+    /**
+     * Mengoptimasi token postfix hasil {@link InfixConverter#toPostfix(TokenStack)}.
+     * <ul>
+     *   <li>Subtree yang seluruhnya konstanta dihitung sekali (kecuali pembagian dengan nol,
+     *       yang dibiarkan agar tetap gagal saat evaluasi).</li>
+     *   <li>Identitas: x*1, 1*x, x/1, x^1, x-0, x+(-0), (-0)+x menjadi x; c^0 menjadi 1 jika c tidak
+     *       bisa gagal dan tidak mengandung variabel (variabel tanpa nilai tetap MISSING_VARIABLE).</li>
+     *   <li>-1*x, x*-1 dan x/-1 menjadi operator negasi '~' (yang juga dibuat validator untuk
+     *       "-x" dan "-("); negasi ganda saling meniadakan.</li>
+     * </ul>
+     * <ul>
+     *   <li>Perbandingan dan fungsi bawaan dengan argumen konstanta juga dihitung; fungsi pengguna
+     *       tidak pernah dilipat.</li>
+     *   <li>c ? a : b dengan kondisi konstanta menjadi cabang yang dipilih saja.</li>
+     * </ul>
+     * Semua aturan menghasilkan nilai yang identik bit-per-bit dengan postfix asli.
+     * x+0 sengaja tidak disederhanakan karena -0.0 + 0 menghasilkan 0.0, bukan -0.0.
+     *
+     * @param postfixTokens Token postfix.
+     * @return Token postfix yang sudah dioptimasi, atau input apa adanya jika tidak valid.
+     */
+    public static TokenStack optimize(final TokenStack postfixTokens) {
+        if (postfixTokens == null || postfixTokens.isEmpty()) {
+            return postfixTokens;
+        }
+
+        final Node[] stack = new Node[postfixTokens.size()];
+        int top = -1;
+        for (int i = 0; i < postfixTokens.size(); i++) {
+            final Token token = postfixTokens.get(i);
+            switch (token.getType()) {
+                case OPERAND:
+                    try {
+                        stack[++top] = new Node(token, token.getValue());
+                    } catch (NumberFormatException e) {
+                        return postfixTokens; // Biarkan evaluator yang melaporkan error
+                    }
+                    break;
+                case VARIABLE:
+                    stack[++top] = new Node(token);
+                    break;
+                case OPERATOR:
+                case FUNCTION: {
+                    final int arity = token.getArity();
+                    if (token.getOperator() == null || top + 1 < arity) {
+                        return postfixTokens; // Biarkan evaluator yang melaporkan error
+                    }
+                    final Node[] children = arity == 0 ? NO_CHILDREN : new Node[arity];
+                    top -= arity;
+                    System.arraycopy(stack, top + 1, children, 0, arity);
+                    final Node combined = combine(token, children);
+                    if (combined == null) {
+                        return postfixTokens;
+                    }
+                    stack[++top] = combined;
+                    break;
+                }
+                default:
+                    return postfixTokens;
+            }
+        }
+        if (top != 0) {
+            return postfixTokens;
+        }
+
+        final TokenStack optimized = new TokenStack(postfixTokens.size());
+        emit(stack[0], optimized);
+        return optimized;
+    }
+
+    // Menggabungkan operand dengan operator atau fungsi, sambil melipat/menyederhanakan
+    private static Node combine(final Token operator, final Node[] children) {
+        final byte opcode = operator.getOpcode();
+        switch (opcode) {
+            case Operator.OP_NEG:
+                return negate(children[0]);
+            case Operator.OP_SELECT:
+                // Hanya cabang yang dipilih yang dievaluasi, jadi cabang lain boleh dibuang walau bisa gagal;
+                // NaN dianggap benar seperti di evaluator
+                if (children[0].constant) {
+                    return children[0].value != 0 ? children[1] : children[2];
+                }
+                return new Node(operator, children);
+            case Operator.OP_CALL:
+                return new Node(operator, children);
+            case Operator.OP_SQRT:
+            case Operator.OP_ABS:
+            case Operator.OP_LOG:
+                return children[0].constant ? constant(Operator.apply(opcode, children[0].value))
+                        : new Node(operator, children);
+            case Operator.OP_NONE:
+            case Operator.OP_CONDITION:
+            case Operator.OP_ELSE:
+            case Operator.OP_SEPARATOR:
+                return null;
+            default:
+                return combine(operator, children[0], children[1]);
+        }
+    }
+
+    // Menggabungkan dua operand dengan operator biner atau fungsi dua argumen
+    private static Node combine(final Token operator, final Node left, final Node right) {
+        final byte opcode = operator.getOpcode();
+        if (left.constant && right.constant && !(opcode == Operator.OP_DIV && right.value == 0)) {
+            return constant(Operator.apply(opcode, left.value, right.value));
+        }
+
+        switch (opcode) {
+            case Operator.OP_ADD:
+                if (right.isConstant(-0.0)) {
+                    return left;
+                }
+                if (left.isConstant(-0.0)) {
+                    return right;
+                }
+                break;
+            case Operator.OP_SUB:
+                if (right.isConstant(0.0)) {
+                    return left;
+                }
+                break;
+            case Operator.OP_MUL:
+                if (right.isConstant(1.0)) {
+                    return left;
+                }
+                if (left.isConstant(1.0)) {
+                    return right;
+                }
+                if (left.isConstant(-1.0)) {
+                    return negate(right);
+                }
+                if (right.isConstant(-1.0)) {
+                    return negate(left);
+                }
+                break;
+            case Operator.OP_DIV:
+                if (right.isConstant(1.0)) {
+                    return left;
+                }
+                if (right.isConstant(-1.0)) {
+                    return negate(left);
+                }
+                break;
+            case Operator.OP_POW:
+                if (right.isConstant(1.0)) {
+                    return left;
+                }
+                // x^0 = 1 untuk semua x (termasuk NaN), asalkan x sendiri tidak bisa gagal; variabel tidak
+                // dihapus agar program tetap membutuhkan nilainya
+                if ((right.isConstant(0.0) || right.isConstant(-0.0)) && !left.mayFail) {
+                    return constant(1.0);
+                }
+                break;
+            default:
+                break;
+        }
+        return new Node(operator, left, right);
+    }
+
+    private static Node negate(final Node operand) {
+        if (operand.constant) {
+            return constant(-operand.value);
+        }
+        // Negasi ganda saling meniadakan
+        if (operand.token == NEGATE) {
+            return operand.children[0];
+        }
+        return new Node(NEGATE, operand);
+    }
+
+    private static Node constant(final double value) {
+        // Double.toString bisa di-parse kembali ke nilai yang persis sama
+        return new Node(Token.operand(value), value);
+    }
+
+    // Menulis pohon kembali ke postfix (post-order) tanpa rekursi agar aman untuk nesting dalam
+    private static void emit(final Node root, final TokenStack output) {
+        Node[] nodes = new Node[16];
+        boolean[] flags = new boolean[16]; // true jika operand simpul sudah ditulis
+        int top = 0;
+        nodes[0] = root;
+        flags[0] = false;
+
+        while (top >= 0) {
+            final Node node = nodes[top];
+            if (flags[top] || node.children.length == 0) {
+                output.push(node.token);
+                top--;
+                continue;
+            }
+            flags[top] = true;
+            if (top + node.children.length >= nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, top + node.children.length + 1));
+                flags = Arrays.copyOf(flags, nodes.length);
+            }
+            // Operand terakhir di-push lebih dulu agar operand pertama ditulis lebih dulu
+            for (int c = node.children.length - 1; c >= 0; c--) {
+                nodes[++top] = node.children[c];
+                flags[top] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+// hasil sebuah tahap: nilai jika berhasil, atau kode error + posisi karakter + pesan jika gagal.
+
+package case_1_stack;
+
+public final class Result<T> {
+
+    // Posisi untuk error yang tidak terkait karakter tertentu di input (misalnya saat evaluasi)
+    public static final int NO_POSITION = -1;
+
+    private final T value;
+    private final ErrorCode code;
+    private final int position;
+    private final Object detail;
+
+    private Result(final T value, final ErrorCode code, final int position, final Object detail) {
+        this.value = value;
+        this.code = code;
+        this.position = position;
+        this.detail = detail;
+    }
+
+    public static <T> Result<T> ok(final T value) {
+        return new Result<>(value, null, NO_POSITION, null);
+    }
+
+    public static <T> Result<T> error(final ErrorCode code, final int position) {
+        return new Result<>(null, code, position, null);
+    }
+
+    /**
+     * @param detail Karakter/token yang disisipkan ke pesan. Pesan baru dibentuk saat
+     *               {@link #getMessage()} dipanggil, sehingga menolak input tidak memakan biaya format string.
+     */
+    public static <T> Result<T> error(final ErrorCode code, final int position, final Object detail) {
+        return new Result<>(null, code, position, detail);
+    }
+
+    public boolean isOk() {
+        return this.code == null;
+    }
+
+    // Nilai hasil, atau null jika gagal
+    public T getValue() {
+        return this.value;
+    }
+
+    // Kode error, atau null jika berhasil
+    public ErrorCode getCode() {
+        return this.code;
+    }
+
+    // Posisi karakter (0-based) di input tempat error ditemukan, atau NO_POSITION
+    public int getPosition() {
+        return this.position;
+    }
+
+    // Pesan error, atau null jika berhasil
+    public String getMessage() {
+        return this.code == null ? null : this.code.format(this.detail);
+    }
+
+    // Meneruskan error ke tahap berikutnya dengan tipe nilai yang berbeda
+    @SuppressWarnings("unchecked")
+    public <U> Result<U> propagate() {
+        if (this.code == null) {
+            throw new IllegalStateException("Hasil berhasil tidak bisa diteruskan sebagai error.");
+        }
+        return (Result<U>) this;
+    }
+
+    @Override
+    public String toString() {
+        if (isOk()) {
+            return "OK(" + this.value + ")";
+        }
+        return this.code + (this.position >= 0 ? " @" + this.position : "") + ": " + getMessage();
+    }
+}
@@ -0,0 +1,543 @@
+// evaluasi file ekspresi berukuran besar (satu ekspresi per baris) lewat buffer NIO.
+// Jalankan: java case_1_stack.StreamingEvaluator <input> <output>
+
+package case_1_stack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+public final class StreamingEvaluator {
+
+    // Ukuran buffer baca; baris yang lebih panjang membuat buffer diperbesar (sampai batas panjang)
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+    private static final byte[] ERROR_LINE = "ERROR\n".getBytes(StandardCharsets.US_ASCII);
+
+    // Tipe token sebelumnya, sama dengan yang diperiksa InfixValidator
+    private static final int PREVIOUS_NONE = 0;
+    private static final int PREVIOUS_OPERAND = 1;
+    private static final int PREVIOUS_OPERATOR = 2;
+    private static final int PREVIOUS_OPENING = 3;
+    private static final int PREVIOUS_CLOSING = 4;
+
+    // Penanda '(' di stack operator (selain itu berisi opcode Operator)
+    private static final byte BRACKET = Operator.OP_NONE;
+
+    private final Limits limits = Limits.DEFAULT;
+
+    // Stack kerja dipakai ulang untuk semua baris; ukurannya mengikuti baris terpanjang yang lolos batas
+    private double[] values = new double[64];
+    private byte[] operators = new byte[64];
+    private int valueTop;
+    private int operatorTop;
+    private double result;
+    private char[] numberChars = new char[32];
+
+    /**
+     * Ringkasan hasil pemrosesan satu file.
+     */
+    public static final class Summary {
+        private final long lines;
+        private final long errors;
+        private final long bytes;
+        private final long nanos;
+
+        Summary(final long lines, final long errors, final long bytes, final long nanos) {
+            this.lines = lines;
+            this.errors = errors;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public long getLines() {
+            return this.lines;
+        }
+
+        public long getErrors() {
+            return this.errors;
+        }
+
+        public long getBytes() {
+            return this.bytes;
+        }
+
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        @Override
+        public String toString() {
+            final double seconds = Math.max(this.nanos, 1) / 1e9;
+            return String.format(Locale.ROOT,
+                    "%d baris (%d error) dalam %.3f s: %.0f baris/s, %.1f MB/s",
+                    this.lines, this.errors, seconds, this.lines / seconds,
+                    this.bytes / seconds / (1024 * 1024));
+        }
+    }
+
+    /**
+     * Mengevaluasi setiap baris file input dan menulis hasilnya, satu baris per ekspresi,
+     * ke file output ("ERROR" untuk ekspresi yang tidak valid atau gagal dievaluasi).
+     * Input dibaca lewat FileChannel ke buffer berukuran tetap dan dilex langsung dari byte
+     * (tanpa String per baris), sehingga memori yang dipakai tidak bergantung pada ukuran file.
+     * Baris yang melebihi {@link Limits#DEFAULT} menjadi "ERROR"; baris yang pasti terlalu panjang
+     * dilewati tanpa disimpan, jadi satu baris raksasa pun tidak memperbesar buffer.
+     *
+     * @return Ringkasan jumlah baris, error, dan throughput.
+     */
+    public static Summary evaluateFile(final Path input, final Path output) throws IOException {
+        return new StreamingEvaluator().run(input, output);
+    }
+
+    private Summary run(final Path input, final Path output) throws IOException {
+        final long start = System.nanoTime();
+        long lines = 0;
+        long errors = 0;
+        long bytesRead = 0;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            final ByteBuffer results = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+            int scanned = 0; // byte sebelum posisi ini sudah diperiksa dan bukan '\n'
+            boolean skipping = false; // sedang membuang sisa baris yang terlalu panjang
+
+            while (true) {
+                final int read = in.read(buffer);
+                final boolean endOfFile = read == -1;
+                if (!endOfFile) {
+                    bytesRead += read;
+                }
+                final byte[] bytes = buffer.array();
+                final int limit = buffer.position();
+
+                // Proses semua baris lengkap di buffer
+                int lineStart = 0;
+                for (int i = scanned; i < limit; i++) {
+                    if (bytes[i] != '\n') {
+                        continue;
+                    }
+                    if (results.remaining() < 64) {
+                        flush(results, out);
+                    }
+                    lines++;
+                    if (!writeLine(results, !skipping && evaluateLine(bytes, lineStart, i))) {
+                        errors++;
+                    }
+                    skipping = false;
+                    lineStart = i + 1;
+                }
+
+                if (endOfFile) {
+                    // Baris terakhir tanpa '\n'
+                    if (lineStart < limit || skipping) {
+                        if (results.remaining() < 64) {
+                            flush(results, out);
+                        }
+                        lines++;
+                        if (!writeLine(results, !skipping && evaluateLine(bytes, lineStart, limit))) {
+                            errors++;
+                        }
+                    }
+                    break;
+                }
+
+                // Sisa baris yang belum lengkap dipindah ke awal buffer
+                final int remaining = limit - lineStart;
+                if (skipping || (remaining == buffer.capacity() && remaining > 3L * this.limits.getMaxLength())) {
+                    // Satu karakter paling banyak 3 byte UTF-8, jadi baris ini pasti lebih panjang dari
+                    // batas: isinya dibuang, hanya '\n' berikutnya yang dicari
+                    skipping = true;
+                    buffer.position(0);
+                    scanned = 0;
+                    continue;
+                }
+                if (remaining == buffer.capacity()) {
+                    // Satu baris lebih panjang dari buffer: perbesar buffer
+                    final ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    larger.put(bytes, 0, remaining);
+                    buffer = larger;
+                } else {
+                    System.arraycopy(bytes, lineStart, bytes, 0, remaining);
+                    buffer.position(remaining);
+                }
+                scanned = remaining;
+            }
+            flush(results, out);
+        }
+        return new Summary(lines, errors, bytesRead, System.nanoTime() - start);
+    }
+
+    // Menulis hasil baris terakhir yang dievaluasi; mengembalikan ok apa adanya
+    private boolean writeLine(final ByteBuffer results, final boolean ok) {
+        if (ok) {
+            writeResult(results, this.result);
+        } else {
+            results.put(ERROR_LINE);
+        }
+        return ok;
+    }
+
+    private static void flush(final ByteBuffer buffer, final FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void writeResult(final ByteBuffer buffer, final double value) {
+        // Bilangan bulat |v| < 10^7 ditulis langsung sebagai "N.0", persis seperti Double.toString
+        if (value > -1e7 && value < 1e7 && value == (long) value
+                && !(value == 0 && Double.doubleToRawLongBits(value) != 0)) {
+            long integer = (long) value;
+            if (integer < 0) {
+                buffer.put((byte) '-');
+                integer = -integer;
+            }
+            long divisor = 1;
+            while (divisor * 10 <= integer) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                buffer.put((byte) ('0' + integer / divisor % 10));
+            }
+            buffer.put((byte) '.').put((byte) '0').put((byte) '\n');
+            return;
+        }
+        // Selain itu format sama dengan CalculatorApp (Double.toString)
+        final String text = Double.toString(value);
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Validasi + shunting-yard + evaluasi dalam satu lintasan atas byte [start, end).
+     * Aturan validasi sama dengan {@link InfixValidator#tokenizeAndValidate(String)}, dan operator
+     * diterapkan dalam urutan yang sama dengan evaluasi postfix, sehingga hasilnya identik.
+     * Baris dengan karakter non-ASCII, fungsi, atau c ? a : b diproses lewat jalur String biasa.
+     *
+     * @return true jika baris valid dan berhasil dievaluasi (hasil di field result).
+     */
+    boolean evaluateLine(final byte[] line, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (line[i] < 0) {
+                return evaluateSlowPath(line, start, end);
+            }
+        }
+
+        // Baris ASCII: jumlah byte sama dengan jumlah karakter
+        if (end - start > this.limits.getMaxLength()) {
+            return false;
+        }
+
+        this.valueTop = -1;
+        this.operatorTop = -1;
+        long brackets = 0;
+        int tokens = 0; // dihitung seperti InfixValidator ("-(" dan "-x" dua token)
+        boolean expectOperand = true;
+        int previous = PREVIOUS_NONE;
+        int position = start;
+
+        while (true) {
+            while (position < end && Character.isWhitespace((char) line[position])) {
+                position++;
+            }
+            if (position >= end) {
+                break;
+            }
+
+            // Setiap putaran membaca satu token atau berhenti
+            if (++tokens > this.limits.getMaxTokens()) {
+                return false;
+            }
+            final byte character = line[position];
+            final boolean isUnaryMinus = character == '-' && expectOperand;
+
+            if (!isUnaryMinus && expectOperand) {
+                final int numberEnd = scanNumber(line, position, end);
+                if (numberEnd != -1) {
+                    pushValue(parseNumber(line, position, numberEnd));
+                    position = numberEnd;
+                    previous = PREVIOUS_OPERAND;
+                    expectOperand = false;
+                    continue;
+                }
+                if (isIdentifierStart(character)) {
+                    // Nama fungsi diikuti langsung '('; selain itu variabel, yang tidak punya nilai dalam mode file
+                    int nameEnd = position + 1;
+                    while (nameEnd < end && (isIdentifierStart(line[nameEnd]) || isDigit(line[nameEnd]))) {
+                        nameEnd++;
+                    }
+                    return nameEnd < end && line[nameEnd] == '(' && evaluateSlowPath(line, start, end);
+                }
+            }
+            if (isUnaryMinus) {
+                final int numberEnd = scanNumber(line, position + 1, end);
+                if (numberEnd != -1) {
+                    pushValue(-parseNumber(line, position + 1, numberEnd));
+                    position = numberEnd;
+                    previous = PREVIOUS_OPERAND;
+                    expectOperand = false;
+                    continue;
+                } else if (position + 1 < end
+                        && (line[position + 1] == '(' || isIdentifierStart(line[position + 1]))) {
+                    // Negasi prefix seperti '~' di InfixValidator: tidak mengeluarkan operator lain
+                    pushOperatorRaw(Operator.OP_NEG);
+                    previous = PREVIOUS_OPERATOR;
+                    position++;
+                    continue;
+                } else {
+                    return false;
+                }
+            }
+
+            switch (character) {
+                case '+': case '-': case '*': case '/': case '^': case '<': case '>': case '=': case '!': {
+                    final byte opcode = operatorAt(line, position, end);
+                    if (expectOperand || opcode == BRACKET || !pushOperator(opcode)) {
+                        return false;
+                    }
+                    if (opcode == Operator.OP_LE || opcode == Operator.OP_GE
+                            || opcode == Operator.OP_EQ || opcode == Operator.OP_NE) {
+                        position++; // Operator dua karakter
+                    }
+                    previous = PREVIOUS_OPERATOR;
+                    expectOperand = true;
+                    break;
+                }
+                case '?': case ':': case ';':
+                    return evaluateSlowPath(line, start, end);
+                case '(':
+                    if (!expectOperand) {
+                        return false;
+                    }
+                    if (++brackets > this.limits.getMaxDepth()) {
+                        return false;
+                    }
+                    pushOperatorRaw(BRACKET);
+                    previous = PREVIOUS_OPENING;
+                    expectOperand = true;
+                    break;
+                case ')':
+                    if (expectOperand && previous != PREVIOUS_OPENING) {
+                        return false;
+                    }
+                    if (previous == PREVIOUS_NONE || previous == PREVIOUS_OPERATOR || brackets <= 0) {
+                        return false;
+                    }
+                    brackets--;
+                    while (this.operators[this.operatorTop] != BRACKET) {
+                        if (!apply(this.operators[this.operatorTop--])) {
+                            return false;
+                        }
+                    }
+                    this.operatorTop--;
+                    previous = PREVIOUS_CLOSING;
+                    expectOperand = false;
+                    break;
+                default:
+                    return false;
+            }
+            position++;
+        }
+
+        if (brackets != 0 || previous == PREVIOUS_NONE || expectOperand) {
+            return false;
+        }
+        while (this.operatorTop >= 0) {
+            if (!apply(this.operators[this.operatorTop--])) {
+                return false;
+            }
+        }
+        if (this.valueTop != 0) {
+            return false;
+        }
+        this.result = this.values[0];
+        return true;
+    }
+
+    // Hasil evaluateLine terakhir yang mengembalikan true (dipakai DifferentialFuzzer)
+    double lastResult() {
+        return this.result;
+    }
+
+    // Jalur lambat untuk baris non-ASCII: decode ke String lalu pakai pipeline biasa
+    private boolean evaluateSlowPath(final byte[] line, final int start, final int end) {
+        final String expression = new String(line, start, end - start, StandardCharsets.UTF_8);
+        final CompiledExpression compiled = CompiledExpression.compile(expression);
+        if (compiled == null || !compiled.getVariables().isEmpty()) {
+            return false;
+        }
+        try {
+            this.result = compiled.evaluate();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    // Opcode operator yang dimulai di position, atau BRACKET jika '=' / '!' tidak diikuti '='
+    private static byte operatorAt(final byte[] line, final int position, final int end) {
+        final boolean equalsNext = position + 1 < end && line[position + 1] == '=';
+        switch (line[position]) {
+            case '+': return Operator.OP_ADD;
+            case '-': return Operator.OP_SUB;
+            case '*': return Operator.OP_MUL;
+            case '/': return Operator.OP_DIV;
+            case '^': return Operator.OP_POW;
+            case '<': return equalsNext ? Operator.OP_LE : Operator.OP_LT;
+            case '>': return equalsNext ? Operator.OP_GE : Operator.OP_GT;
+            case '=': return equalsNext ? Operator.OP_EQ : BRACKET;
+            case '!': return equalsNext ? Operator.OP_NE : BRACKET;
+            default: return BRACKET;
+        }
+    }
+
+    private static int precedence(final byte operator) {
+        switch (operator) {
+            case Operator.OP_ADD: case Operator.OP_SUB: return Operator.ADDITIVE;
+            case Operator.OP_MUL: case Operator.OP_DIV: return Operator.MULTIPLICATIVE;
+            case Operator.OP_NEG: return Operator.NEGATION;
+            case Operator.OP_POW: return Operator.POWER;
+            case Operator.OP_LT: case Operator.OP_LE: case Operator.OP_GT:
+            case Operator.OP_GE: case Operator.OP_EQ: case Operator.OP_NE: return Operator.COMPARISON;
+            default: return -1;
+        }
+    }
+
+    // Operator baru: terapkan dulu operator di stack yang mengikat lebih kuat, atau sama kuat jika
+    // operator baru asosiatif kiri (semua selain '^'), sama dengan InfixConverter.pops
+    private boolean pushOperator(final byte operator) {
+        while (this.operatorTop >= 0 && this.operators[this.operatorTop] != BRACKET
+                && (precedence(operator) < precedence(this.operators[this.operatorTop])
+                    || (precedence(operator) == precedence(this.operators[this.operatorTop])
+                        && operator != Operator.OP_POW))) {
+            if (!apply(this.operators[this.operatorTop--])) {
+                return false;
+            }
+        }
+        pushOperatorRaw(operator);
+        return true;
+    }
+
+    private void pushOperatorRaw(final byte operator) {
+        if (++this.operatorTop == this.operators.length) {
+            this.operators = Arrays.copyOf(this.operators, this.operators.length * 2);
+        }
+        this.operators[this.operatorTop] = operator;
+    }
+
+    private void pushValue(final double value) {
+        if (++this.valueTop == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.values.length * 2);
+        }
+        this.values[this.valueTop] = value;
+    }
+
+    // Menerapkan operator ke nilai teratas (negasi) atau dua nilai teratas; false jika operand
+    // kurang atau bagi nol
+    private boolean apply(final byte operator) {
+        if (operator == Operator.OP_NEG) {
+            if (this.valueTop < 0) {
+                return false;
+            }
+            this.values[this.valueTop] = -this.values[this.valueTop];
+            return true;
+        }
+        if (this.valueTop < 1) {
+            return false;
+        }
+        final double operand2 = this.values[this.valueTop--];
+        final double operand1 = this.values[this.valueTop];
+        if (operator == Operator.OP_DIV && operand2 == 0) {
+            return false;
+        }
+        final double value = Operator.apply(operator, operand1, operand2);
+        this.values[this.valueTop] = value;
+        return true;
+    }
+
+    private static boolean isDigit(final byte character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isIdentifierStart(final byte character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || character == '_';
+    }
+
+    // Sama dengan InfixValidator.scanNumber: \d+(?:[.,]\d*)?
+    private static int scanNumber(final byte[] line, final int start, final int end) {
+        int position = start;
+        while (position < end && isDigit(line[position])) {
+            position++;
+        }
+        if (position == start) {
+            return -1;
+        }
+        if (position < end && (line[position] == '.' || line[position] == ',')) {
+            position++;
+            while (position < end && isDigit(line[position])) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    // Parsing angka tanpa String; hasilnya identik dengan Double.parseDouble
+    private double parseNumber(final byte[] line, final int start, final int end) {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (int i = start; i < end; i++) {
+            final byte character = line[i];
+            if (character == '.' || character == ',') {
+                fraction = true;
+                continue;
+            }
+            if (++digits > 18) {
+                return parseNumberSlow(line, start, end);
+            }
+            mantissa = mantissa * 10 + (character - '0');
+            if (fraction) {
+                fractionDigits++;
+            }
+        }
+        // Kedua operand eksak, sehingga pembagian IEEE memberi pembulatan yang benar
+        if (mantissa < Token.MAX_EXACT_MANTISSA && fractionDigits < Token.POWERS_OF_TEN.length) {
+            return mantissa / Token.POWERS_OF_TEN[fractionDigits];
+        }
+        return parseNumberSlow(line, start, end);
+    }
+
+    private double parseNumberSlow(final byte[] line, final int start, final int end) {
+        if (this.numberChars.length < end - start) {
+            this.numberChars = new char[end - start];
+        }
+        for (int i = start; i < end; i++) {
+            final byte character = line[i];
+            this.numberChars[i - start] = character == ',' ? '.' : (char) character;
+        }
+        return Double.parseDouble(new String(this.numberChars, 0, end - start));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Penggunaan: java case_1_stack.StreamingEvaluator <input> <output>");
+            return;
+        }
+        final Summary summary = evaluateFile(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println(summary);
+    }
+}
@@ -2,25 +2,172 @@
 
 package case_1_stack;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class Token {
+    // Simbol operator negasi unary: "-(" dan "-x" di infix, juga hasil PostfixOptimizer
+    public static final String NEGATE = "~";
+    // Simbol operator kondisional c ? a : b di postfix/prefix ("c a b ?:")
+    public static final String CONDITIONAL = "?:";
+
+    // Batas fast path parsing angka: mantissa < 2^53 dan pangkat 10 <= 22 dibagi secara eksak
+    static final long MAX_EXACT_MANTISSA = 1L << 53;
+    static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    // Token operator bersama, satu per simbol di tabel opcode (token tidak punya state per kemunculan)
+    private static final Map<String, Token> OPERATORS = new HashMap<>();
+
+    static {
+        for (final String symbol : Operator.symbols()) {
+            OPERATORS.put(symbol, new Token(symbol, TokenType.OPERATOR));
+        }
+    }
+
+    // Token bersama untuk kurung dan pemisah argumen
+    static final Token OPENING_BRACKET = new Token("(", TokenType.OPENING_BRACKET);
+    static final Token CLOSING_BRACKET = new Token(")", TokenType.CLOSING_BRACKET);
+    static final Token SEPARATOR = new Token(";", TokenType.SEPARATOR);
+
     private final String token;
     private final TokenType type;
+    private final Operator operator; // entri tabel opcode; null untuk operand, variabel, kurung
+    // Salinan data tabel opcode, dibaca di loop converter/evaluator tanpa cek null
+    private final byte opcode;
+    private final int precedence;
+    private final boolean rightAssociative;
+    private final int arity;
+
+    // Nilai operand, di-parse sekali saat token dibuat; NaN dan numeric false jika bukan angka valid
+    private final double value;
+    private final boolean numeric;
 
     public Token(final String token, final TokenType type) {
         // Mengganti koma dengan titik untuk konsistensi parsing double
-        this.token = token.replace(',', '.');
+        this(token.replace(',', '.'), type, Double.NaN, false);
+    }
+
+    // known true: value sudah diketahui (operand hasil pelipatan konstanta), tidak perlu di-parse
+    private Token(final String token, final TokenType type, final double knownValue, final boolean known) {
+        this.token = token;
         this.type = type;
+        switch (type) {
+            case OPERATOR: this.operator = Operator.forSymbol(this.token); break;
+            case FUNCTION: this.operator = Operator.forFunction(this.token); break; // null jika tidak dikenal
+            case SEPARATOR: this.operator = Operator.SEPARATOR; break;
+            default: this.operator = null;
+        }
+        switch (type) {
+            case OPERAND: this.opcode = Operator.OP_PUSH; break;
+            case VARIABLE: this.opcode = Operator.OP_LOAD; break;
+            default: this.opcode = this.operator == null ? Operator.OP_NONE : this.operator.opcode;
+        }
+        this.precedence = this.operator == null ? -1 : this.operator.precedence;
+        this.rightAssociative = this.operator != null && this.operator.rightAssociative;
+        this.arity = this.operator == null ? 0 : this.operator.arity;
+        double parsedValue = knownValue;
+        boolean parsedNumeric = known;
+        if (type == TokenType.OPERAND && !known) {
+            try {
+                parsedValue = parseOperand(token);
+                parsedNumeric = true;
+            } catch (NumberFormatException e) {
+                // Dilaporkan sebagai INVALID_OPERAND saat evaluasi
+            }
+        }
+        this.value = parsedValue;
+        this.numeric = parsedNumeric;
+    }
+
+    /**
+     * Token operator bersama untuk simbol di tabel opcode; simbol lain mendapat token baru
+     * (operator tidak dikenal, dilaporkan evaluator).
+     */
+    static Token operator(final String symbol) {
+        final Token shared = OPERATORS.get(symbol);
+        return shared != null ? shared : new Token(symbol, TokenType.OPERATOR);
     }
 
+    // Literal dari lexer (-?digit*.digit*) tanpa alokasi, hasilnya identik dengan Double.parseDouble;
+    // teks lain (atau lebih dari 18 digit) lewat Double.parseDouble
+    private static double parseOperand(final String text) {
+        final boolean negative = text.startsWith("-");
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (int i = negative ? 1 : 0; i < text.length(); i++) {
+            final char character = text.charAt(i);
+            if (character == '.' && !fraction) {
+                fraction = true;
+                continue;
+            }
+            if (character < '0' || character > '9' || ++digits > 18) {
+                return Double.parseDouble(text);
+            }
+            mantissa = mantissa * 10 + (character - '0');
+            if (fraction) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0 || mantissa >= MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text);
+        }
+        final double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    // Operand dengan nilai yang sudah dihitung; teksnya Double.toString(value)
+    static Token operand(final double value) {
+        return new Token(Double.toString(value), TokenType.OPERAND, value, true);
+    }
+
+    // Precedence dari tabel opcode; -1 jika bukan operator (atau fungsi) atau tidak dikenal
     public int getPrecedence() {
-        switch (this.token) {
-            case "+":
-            case "-": return 1;
-            case "*":
-            case "/": return 2;
-            case "^": return 3; // Eksponensial
-            default: return -1; // Bukan operator atau tidak dikenal
+        return this.precedence;
+    }
+
+    // '^' dan '?:' asosiatif kanan: 2 ^ 3 ^ 2 = 2 ^ (3 ^ 2)
+    public boolean isRightAssociative() {
+        return this.rightAssociative;
+    }
+
+    // Jumlah operand/argumen yang diambil dari stack evaluasi (0 untuk operand dan variabel)
+    public int getArity() {
+        return this.arity;
+    }
+
+    // Operator unary (negasi, prefix) mengambil satu operand dari stack evaluasi, selainnya dua
+    public boolean isUnaryOperator() {
+        return this.opcode == Operator.OP_NEG;
+    }
+
+    // Opcode untuk dispatch evaluator; OP_NONE untuk kurung dan simbol yang tidak dikenal
+    byte getOpcode() {
+        return this.opcode;
+    }
+
+    Operator getOperator() {
+        return this.operator;
+    }
+
+    /**
+     * Nilai operand sebagai double tanpa parsing ulang.
+     *
+     * @throws NumberFormatException jika token bukan angka yang valid.
+     */
+    double getValue() {
+        if (!this.numeric) {
+            throw new NumberFormatException("Bukan angka: '" + this.token + "'");
         }
+        return this.value;
     }
 
     public TokenType getType() {
@@ -31,4 +178,4 @@ public class Token {
     public String toString() {
         return this.token;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+// stack token berbasis array, tanpa sinkronisasi (pengganti java.util.Stack<Token>).
+
+package case_1_stack;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.RandomAccess;
+
+public final class TokenStack extends AbstractList<Token> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Token[] elements;
+    private int size;
+
+    public TokenStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TokenStack(final int initialCapacity) {
+        this.elements = new Token[Math.max(1, initialCapacity)];
+    }
+
+    public void push(final Token token) {
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.elements.length * 2);
+        }
+        this.elements[this.size++] = token;
+    }
+
+    public Token pop() {
+        if (this.size == 0) {
+            throw new EmptyStackException();
+        }
+        final Token token = this.elements[--this.size];
+        this.elements[this.size] = null;
+        return token;
+    }
+
+    public Token peek() {
+        if (this.size == 0) {
+            throw new EmptyStackException();
+        }
+        return this.elements[this.size - 1];
+    }
+
+    // Tipe token di puncak stack, atau null jika kosong (tanpa exception)
+    public TokenType peekType() {
+        return this.size == 0 ? null : this.elements[this.size - 1].getType();
+    }
+
+    @Override
+    public boolean add(final Token token) {
+        push(token);
+        return true;
+    }
+
+    @Override
+    public Token get(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        return this.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    // Mengosongkan stack agar bisa dipakai ulang tanpa alokasi baru
+    @Override
+    public void clear() {
+        Arrays.fill(this.elements, 0, this.size, null);
+        this.size = 0;
+    }
+}
@@ -4,7 +4,10 @@ package case_1_stack;
 
 public enum TokenType {
     OPERAND,
+    VARIABLE, // operand bernama, nilainya diberikan saat evaluasi
     OPERATOR,
+    FUNCTION, // nama fungsi, selalu diikuti kurung buka
+    SEPARATOR, // ';' pemisah argumen fungsi
     OPENING_BRACKET,
     CLOSING_BRACKET,
 }
\ No newline at end of file
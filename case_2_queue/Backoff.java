@@ -0,0 +1,38 @@
+// strategi menunggu untuk queue lock-free: spin, lalu yield, lalu park dengan jeda yang makin panjang.
+
+package case_2_queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+final class Backoff {
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 200;
+    private static final int PARK_STEPS = 10;
+    private static final long MAX_PARK_NANOS = 1_000_000; // 1 ms
+
+    private int attempts;
+
+    /**
+     * Satu kali menunggu. Penyerahan yang cepat tertangkap saat spin tanpa melepas CPU; antrean
+     * yang lama penuh/kosong berakhir di park sehingga tidak membakar CPU.
+     *
+     * @throws InterruptedException jika thread diinterupsi.
+     */
+    void idle() throws InterruptedException {
+        if (this.attempts < SPINS) {
+            Thread.onSpinWait();
+        } else if (this.attempts < YIELDS) {
+            Thread.yield();
+        } else {
+            // 1 us, 2 us, 4 us, ... sampai 1 ms
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << (this.attempts - YIELDS)));
+        }
+        if (this.attempts < YIELDS + PARK_STEPS) {
+            this.attempts++;
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
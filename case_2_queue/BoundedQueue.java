@@ -0,0 +1,80 @@
+// queue antar-thread dengan kapasitas tetap dan back-pressure.
+
+package case_2_queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue berkapasitas tetap untuk menyerahkan pekerjaan antar-thread. Jika queue penuh, produsen
+ * tidak bisa terus menambah (back-pressure): {@link #offer(Object)} langsung mengembalikan false,
+ * {@link #put(Object)} menunggu sampai konsumen mengambil elemen. Elemen null tidak diizinkan.
+ */
+public interface BoundedQueue<E> {
+
+    // Menambahkan elemen jika masih ada tempat; false jika penuh
+    boolean offer(E element);
+
+    // Mengambil elemen pertama, atau null jika kosong
+    E poll();
+
+    /**
+     * Menambahkan elemen, menunggu selama queue penuh.
+     *
+     * @throws InterruptedException jika thread diinterupsi selama menunggu (elemen tidak ditambahkan).
+     */
+    default void put(final E element) throws InterruptedException {
+        if (offer(element)) {
+            return;
+        }
+        final Backoff backoff = new Backoff();
+        while (!offer(element)) {
+            backoff.idle();
+        }
+    }
+
+    /**
+     * Seperti {@link #put(Object)}, tetapi menyerah setelah timeout.
+     *
+     * @return false jika queue masih penuh saat timeout habis.
+     */
+    default boolean offer(final E element, final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (offer(element)) {
+            return true;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final Backoff backoff = new Backoff();
+        while (!offer(element)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            backoff.idle();
+        }
+        return true;
+    }
+
+    /**
+     * Mengambil elemen pertama, menunggu selama queue kosong.
+     *
+     * @throws InterruptedException jika thread diinterupsi selama menunggu.
+     */
+    default E take() throws InterruptedException {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+        final Backoff backoff = new Backoff();
+        while ((element = poll()) == null) {
+            backoff.idle();
+        }
+        return element;
+    }
+
+    // Jumlah elemen saat ini; hanya perkiraan jika ada thread lain yang sedang menambah/mengambil
+    int size();
+
+    int capacity();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,103 @@
+// queue lock-free berkapasitas tetap untuk banyak produsen dan banyak konsumen.
+
+package case_2_queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer berkapasitas tetap (pangkat dua) yang aman untuk banyak produsen dan konsumen.
+ * Setiap slot punya nomor urut: slot untuk posisi p siap diisi jika nomornya p, dan siap diambil
+ * jika nomornya p + 1. Produsen/konsumen merebut posisi dengan satu CAS pada tail/head, lalu
+ * mengisi/mengosongkan slotnya tanpa lock; thread lain tidak pernah menunggu lock yang dipegang
+ * thread yang sedang tidur.
+ */
+public final class MpmcQueue<E> implements BoundedQueue<E> {
+
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong(); // posisi berikutnya untuk produsen
+    private final AtomicLong head = new AtomicLong(); // posisi berikutnya untuk konsumen
+
+    /**
+     * @param capacity Kapasitas minimum; dibulatkan ke atas ke pangkat dua, paling kecil 2 (dengan
+     *                 satu slot, nomor urut "terisi" sama dengan "kosong" untuk posisi berikutnya).
+     */
+    public MpmcQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Kapasitas harus positif: " + capacity);
+        }
+        this.buffer = new Object[RingBuffer.powerOfTwo(Math.max(2, capacity))];
+        this.mask = this.buffer.length - 1;
+        this.sequences = new AtomicLongArray(this.buffer.length);
+        for (int i = 0; i < this.buffer.length; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public boolean offer(final E element) {
+        if (element == null) {
+            throw new NullPointerException("Elemen null tidak diizinkan.");
+        }
+        long tail = this.tail.get();
+        while (true) {
+            final int index = (int) tail & this.mask;
+            final long difference = this.sequences.get(index) - tail;
+            if (difference == 0) {
+                // Slot kosong untuk posisi ini; rebut posisinya
+                if (this.tail.compareAndSet(tail, tail + 1)) {
+                    this.buffer[index] = element;
+                    this.sequences.setRelease(index, tail + 1);
+                    return true;
+                }
+                tail = this.tail.get();
+            } else if (difference < 0) {
+                // Slot masih berisi elemen dari putaran sebelumnya: queue penuh
+                return false;
+            } else {
+                // Produsen lain sudah mengambil posisi ini
+                tail = this.tail.get();
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        long head = this.head.get();
+        while (true) {
+            final int index = (int) head & this.mask;
+            final long difference = this.sequences.get(index) - (head + 1);
+            if (difference == 0) {
+                if (this.head.compareAndSet(head, head + 1)) {
+                    @SuppressWarnings("unchecked")
+                    final E element = (E) this.buffer[index];
+                    this.buffer[index] = null;
+                    // Slot siap untuk posisi yang sama di putaran berikutnya
+                    this.sequences.setRelease(index, head + this.buffer.length);
+                    return element;
+                }
+                head = this.head.get();
+            } else if (difference < 0) {
+                // Slot belum diisi: queue kosong (atau produsennya belum selesai menulis)
+                return null;
+            } else {
+                head = this.head.get();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        final long head = this.head.get();
+        final long size = this.tail.get() - head;
+        return (int) Math.max(0, Math.min(size, this.buffer.length));
+    }
+
+    @Override
+    public int capacity() {
+        return this.buffer.length;
+    }
+}
@@ -0,0 +1,199 @@
+// queue berbasis array melingkar (ring buffer): offer, poll, peek, dan peekLast O(1).
+
+package case_2_queue;
+
+import java.util.AbstractQueue;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pengganti LinkedList sebagai Queue untuk satu thread: elemen disimpan di satu array (tanpa
+ * objek node per elemen), dan elemen terakhir diambil langsung dengan {@link #peekLast()},
+ * bukan dengan menyalin seluruh isi queue lewat toArray(). Kapasitas bertambah dua kali lipat
+ * saat penuh. Tidak thread-safe; untuk antar-thread gunakan {@link SpscQueue} atau {@link MpmcQueue}.
+ */
+public final class RingBuffer<E> extends AbstractQueue<E> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] elements; // panjang selalu pangkat dua, jadi indeks cukup di-mask
+    private int head;          // indeks elemen pertama
+    private int size;
+    private int modifications; // untuk mendeteksi perubahan saat iterasi
+
+    public RingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RingBuffer(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Kapasitas negatif: " + initialCapacity);
+        }
+        this.elements = new Object[powerOfTwo(Math.max(1, initialCapacity))];
+    }
+
+    // Pangkat dua terkecil yang >= n
+    static int powerOfTwo(final int n) {
+        if (n > 1 << 30) {
+            throw new IllegalArgumentException("Kapasitas terlalu besar: " + n);
+        }
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * Menambahkan elemen di akhir queue. Selalu berhasil (kapasitas bertambah jika penuh).
+     *
+     * @throws NullPointerException jika element null (null dipakai poll/peek untuk "kosong").
+     */
+    @Override
+    public boolean offer(final E element) {
+        if (element == null) {
+            throw new NullPointerException("Elemen null tidak diizinkan.");
+        }
+        if (this.size == this.elements.length) {
+            grow();
+        }
+        this.elements[(this.head + this.size) & (this.elements.length - 1)] = element;
+        this.size++;
+        this.modifications++;
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        final E element = elementAt(this.head);
+        this.elements[this.head] = null; // lepaskan referensi untuk GC
+        this.head = (this.head + 1) & (this.elements.length - 1);
+        this.size--;
+        this.modifications++;
+        return element;
+    }
+
+    @Override
+    public E peek() {
+        return this.size == 0 ? null : elementAt(this.head);
+    }
+
+    // Elemen terakhir (yang paling baru ditambahkan), atau null jika kosong
+    public E peekLast() {
+        return this.size == 0 ? null : elementAt((this.head + this.size - 1) & (this.elements.length - 1));
+    }
+
+    /**
+     * Elemen ke-index dari depan (0 = elemen pertama), tanpa menghapusnya.
+     *
+     * @throws IndexOutOfBoundsException jika index di luar [0, size).
+     */
+    public E get(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Indeks " + index + ", ukuran " + this.size);
+        }
+        return elementAt((this.head + index) & (this.elements.length - 1));
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        // Hanya slot yang terisi yang dikosongkan; bisa terbagi dua karena melingkar
+        final int mask = this.elements.length - 1;
+        for (int i = 0; i < this.size; i++) {
+            this.elements[(this.head + i) & mask] = null;
+        }
+        this.head = 0;
+        this.size = 0;
+        this.modifications++;
+    }
+
+    /**
+     * Iterator dari depan ke belakang. {@link Iterator#remove()} didukung, sehingga
+     * remove(Object), removeAll, dan retainAll dari AbstractCollection juga bekerja.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int expected = RingBuffer.this.modifications;
+            private int index;
+            private int last = -1; // indeks elemen dari next() terakhir; -1 jika belum ada atau sudah dihapus
+
+            @Override
+            public boolean hasNext() {
+                return this.index < RingBuffer.this.size;
+            }
+
+            @Override
+            public E next() {
+                if (RingBuffer.this.modifications != this.expected) {
+                    throw new ConcurrentModificationException();
+                }
+                if (this.index >= RingBuffer.this.size) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.index;
+                return get(this.index++);
+            }
+
+            @Override
+            public void remove() {
+                if (this.last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (RingBuffer.this.modifications != this.expected) {
+                    throw new ConcurrentModificationException();
+                }
+                removeAt(this.last);
+                // Elemen berikutnya sekarang berada di indeks elemen yang dihapus
+                this.index = this.last;
+                this.last = -1;
+                this.expected = RingBuffer.this.modifications;
+            }
+        };
+    }
+
+    // Menghapus elemen ke-index dari depan; sisi yang lebih pendek digeser satu langkah
+    private void removeAt(final int index) {
+        final int mask = this.elements.length - 1;
+        if (index < this.size / 2) {
+            // Elemen sebelum index bergeser ke belakang, head maju
+            for (int i = index; i > 0; i--) {
+                this.elements[(this.head + i) & mask] = this.elements[(this.head + i - 1) & mask];
+            }
+            this.elements[this.head] = null;
+            this.head = (this.head + 1) & mask;
+        } else {
+            // Elemen setelah index bergeser ke depan
+            for (int i = index; i < this.size - 1; i++) {
+                this.elements[(this.head + i) & mask] = this.elements[(this.head + i + 1) & mask];
+            }
+            this.elements[(this.head + this.size - 1) & mask] = null;
+        }
+        this.size--;
+        this.modifications++;
+    }
+
+    // Kapasitas dua kali lipat; isi disalin berurutan mulai indeks 0 (lingkaran "dibuka")
+    private void grow() {
+        final int capacity = this.elements.length;
+        if (capacity == 1 << 30) {
+            throw new IllegalStateException("Queue penuh (kapasitas maksimum " + capacity + ").");
+        }
+        final Object[] grown = new Object[capacity * 2];
+        final int front = capacity - this.head; // elemen dari head sampai akhir array lama
+        System.arraycopy(this.elements, this.head, grown, 0, front);
+        System.arraycopy(this.elements, 0, grown, front, this.head);
+        this.elements = grown;
+        this.head = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(final int index) {
+        return (E) this.elements[index];
+    }
+}
@@ -0,0 +1,88 @@
+// queue lock-free berkapasitas tetap untuk tepat satu produsen dan satu konsumen.
+
+package case_2_queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring buffer berkapasitas tetap (pangkat dua) untuk satu thread produsen dan satu thread
+ * konsumen. Tanpa lock dan tanpa CAS: produsen hanya menulis tail, konsumen hanya menulis head,
+ * dan masing-masing menyimpan salinan posisi pihak lain sehingga variabel volatile pihak lain
+ * hanya dibaca ulang saat queue tampak penuh/kosong.
+ * <p>
+ * Dipakai lebih dari satu produsen atau lebih dari satu konsumen, isi queue bisa rusak;
+ * gunakan {@link MpmcQueue} untuk kasus itu.
+ */
+public final class SpscQueue<E> implements BoundedQueue<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+
+    // Posisi (terus bertambah, tidak di-mask); setRelease setelah slot ditulis/dikosongkan
+    private final AtomicLong tail = new AtomicLong(); // ditulis produsen
+    private final AtomicLong head = new AtomicLong(); // ditulis konsumen
+
+    private long headCache; // milik produsen: head terakhir yang dibaca
+    private long tailCache; // milik konsumen: tail terakhir yang dibaca
+
+    /**
+     * @param capacity Kapasitas minimum; dibulatkan ke atas ke pangkat dua.
+     */
+    public SpscQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Kapasitas harus positif: " + capacity);
+        }
+        this.buffer = new Object[RingBuffer.powerOfTwo(capacity)];
+        this.mask = this.buffer.length - 1;
+    }
+
+    // Hanya dipanggil dari thread produsen
+    @Override
+    public boolean offer(final E element) {
+        if (element == null) {
+            throw new NullPointerException("Elemen null tidak diizinkan.");
+        }
+        final long tail = this.tail.getPlain();
+        if (tail - this.headCache >= this.buffer.length) {
+            this.headCache = this.head.get();
+            if (tail - this.headCache >= this.buffer.length) {
+                return false;
+            }
+        }
+        this.buffer[(int) tail & this.mask] = element;
+        // Release: konsumen yang melihat tail baru pasti melihat isi slot
+        this.tail.setRelease(tail + 1);
+        return true;
+    }
+
+    // Hanya dipanggil dari thread konsumen
+    @Override
+    public E poll() {
+        final long head = this.head.getPlain();
+        if (head >= this.tailCache) {
+            this.tailCache = this.tail.get();
+            if (head >= this.tailCache) {
+                return null;
+            }
+        }
+        final int index = (int) head & this.mask;
+        @SuppressWarnings("unchecked")
+        final E element = (E) this.buffer[index];
+        this.buffer[index] = null;
+        this.head.setRelease(head + 1);
+        return element;
+    }
+
+    @Override
+    public int size() {
+        // head dibaca lebih dulu: tail yang dibaca sesudahnya tidak pernah lebih kecil
+        final long head = this.head.get();
+        final long size = this.tail.get() - head;
+        return (int) Math.max(0, Math.min(size, this.buffer.length));
+    }
+
+    @Override
+    public int capacity() {
+        return this.buffer.length;
+    }
+}
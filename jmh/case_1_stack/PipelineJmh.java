@@ -0,0 +1,161 @@
+// benchmark JMH untuk setiap tahap pipeline: tokenisasi, konversi, evaluasi.
+// Throughput (ops/s) dan waktu per operasi; alokasi diukur dengan -prof gc.
+// Jalankan: mvn -B -Pjmh package && java -jar target/benchmarks.jar PipelineJmh -prof gc
+
+package case_1_stack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineJmh {
+
+    private static final int COLUMN_ROWS = 65_536;
+
+    // Satu ekspresi dengan hasil tiap tahap yang sudah disiapkan
+    @State(Scope.Thread)
+    public static class Input {
+        @Param({"pendek", "panjang", "bersarang"})
+        public String input;
+
+        String expression;
+        TokenStack infix;
+        TokenStack postfix;
+        CompiledExpression compiled;
+        // Buffer workspace dipakai ulang: hanya objek Result yang dialokasikan
+        InfixConverter.Workspace workspace;
+
+        @Setup
+        public void setup() {
+            switch (this.input) {
+                case "pendek": this.expression = shortExpression(); break;
+                case "panjang": this.expression = longExpression(2000); break;
+                case "bersarang": this.expression = nestedExpression(500); break;
+                default: throw new IllegalArgumentException("Input tidak dikenal: " + this.input);
+            }
+            this.infix = InfixValidator.tokenize(this.expression).getValue();
+            this.postfix = this.infix == null ? null : InfixConverter.convertToPostfix(this.infix).getValue();
+            this.compiled = CompiledExpression.tryCompile(this.expression).getValue();
+            if (this.infix == null || this.postfix == null || this.compiled == null) {
+                throw new IllegalStateException("Input benchmark tidak valid: " + this.input);
+            }
+            this.workspace = new InfixConverter.Workspace();
+        }
+    }
+
+    // Satu ekspresi untuk banyak baris (kolom); bandingkan dengan -jvmArgs -Dcase_1_stack.columnBlock=0
+    @State(Scope.Thread)
+    public static class Columns {
+        CompiledExpression scoring;
+        double[][] columns;
+        double[] results;
+
+        @Setup
+        public void setup() {
+            this.scoring = CompiledExpression.tryCompile(columnExpression()).getValue();
+            this.columns = new double[this.scoring.getVariables().size()][COLUMN_ROWS];
+            for (int v = 0; v < this.columns.length; v++) {
+                for (int r = 0; r < COLUMN_ROWS; r++) {
+                    this.columns[v][r] = (r * 7 + v * 13) % 101 - 50;
+                }
+            }
+            this.results = new double[COLUMN_ROWS];
+        }
+    }
+
+    // Ekspresi pendek, khas input pengguna
+    static String shortExpression() {
+        return "3 + 4 * 2 / (1 - 5) ^ 2 - -7,5";
+    }
+
+    // Rantai operator yang panjang tanpa nesting
+    static String longExpression(final int terms) {
+        final StringBuilder builder = new StringBuilder();
+        final char[] operators = {'+', '*', '-', '/', '+', '^'};
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                builder.append(' ').append(operators[i % operators.length]).append(' ');
+            }
+            builder.append(i % 9 + 1);
+            if (i % 4 == 0) {
+                builder.append(".5");
+            }
+        }
+        return builder.toString();
+    }
+
+    // Kurung bersarang sedalam depth
+    static String nestedExpression(final int depth) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            builder.append('(');
+        }
+        builder.append('1');
+        for (int i = 0; i < depth; i++) {
+            builder.append(i % 2 == 0 ? " + 1)" : " * 1)");
+        }
+        return builder.toString();
+    }
+
+    // Ekspresi skor per baris untuk benchmark kolom
+    static String columnExpression() {
+        return "(a * 2,5 + b) / (c - 1) - sqrt(abs(a)) * b ^ 2 + max(a; c)";
+    }
+
+    @Benchmark
+    public Result<TokenStack> tokenisasi(final Input state) {
+        return InfixValidator.tokenize(state.expression);
+    }
+
+    @Benchmark
+    public Result<TokenStack> postfix(final Input state) {
+        return InfixConverter.convertToPostfix(state.infix);
+    }
+
+    @Benchmark
+    public Result<TokenStack> postfixWorkspace(final Input state) {
+        return InfixConverter.convertToPostfix(state.infix, state.workspace);
+    }
+
+    @Benchmark
+    public Result<ArrayList<Token>> prefix(final Input state) {
+        return InfixConverter.convertToPrefix(state.infix);
+    }
+
+    @Benchmark
+    public int postfixDanPrefix(final Input state) {
+        final ExpressionTree tree = ExpressionTree.parse(state.infix).getValue();
+        return tree.toPostfix().size() + tree.toPrefix().size();
+    }
+
+    @Benchmark
+    public Result<Double> evaluasi(final Input state) {
+        return PostfixEvaluator.evaluateResult(state.postfix, Collections.emptyMap());
+    }
+
+    @Benchmark
+    public double evaluasiKompilasi(final Input state) {
+        return state.compiled.evaluate();
+    }
+
+    @Benchmark
+    public double evaluasiKolom(final Columns state) {
+        return state.scoring.evaluateColumns(state.columns, state.results) + state.results[0];
+    }
+}
@@ -0,0 +1,278 @@
+// benchmark JMH queue: RingBuffer, SpscQueue, MpmcQueue dibandingkan dengan LinkedList dan ArrayDeque.
+// Jalankan: mvn -B -Pjmh package && java -jar target/benchmarks.jar QueueBenchmark -prof gc
+
+package case_2_queue;
+
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+
+    private static final int QUEUE_LENGTH = 1_000;    // isi queue untuk benchmark satu thread
+    private static final int CAPACITY = 1_024;        // kapasitas queue antar-thread
+    private static final int MESSAGES = 1 << 21;      // jumlah elemen per pemanggilan antar-thread
+
+    // Elemen yang dikirim; dibuat sekali agar boxing tidak ikut terukur
+    private static final Integer[] VALUES = new Integer[CAPACITY];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = i;
+        }
+    }
+
+    // Tiga queue berisi QUEUE_LENGTH elemen untuk peekLast
+    @State(Scope.Thread)
+    public static class Filled {
+        LinkedList<Integer> linked;
+        ArrayDeque<Integer> deque;
+        RingBuffer<Integer> ring;
+
+        @Setup
+        public void setup() {
+            this.linked = fill(new LinkedList<>());
+            this.deque = fill(new ArrayDeque<>());
+            this.ring = fill(new RingBuffer<>());
+        }
+    }
+
+    // Satu queue berisi QUEUE_LENGTH elemen untuk offer+poll, dipilih dari nama kelasnya
+    @State(Scope.Thread)
+    public static class Steady {
+        @Param({"LinkedList", "ArrayDeque", "RingBuffer"})
+        public String queue;
+
+        Queue<Integer> target;
+
+        @Setup
+        public void setup() {
+            final List<Queue<Integer>> candidates = List.of(new LinkedList<>(), new ArrayDeque<>(), new RingBuffer<>());
+            for (final Queue<Integer> candidate : candidates) {
+                if (candidate.getClass().getSimpleName().equals(this.queue)) {
+                    this.target = fill(candidate);
+                }
+            }
+            if (this.target == null) {
+                throw new IllegalArgumentException("Queue tidak dikenal: " + this.queue);
+            }
+        }
+    }
+
+    // Queue antar-thread dengan satu atau banyak produsen (SpscQueue punya benchmark sendiri)
+    @State(Scope.Benchmark)
+    public static class Handoff {
+        @Param({"1", "4"})
+        public int producers;
+
+        @Param({"LinkedList+lock", "ArrayDeque+lock", "ArrayBlockingQueue", "MpmcQueue"})
+        public String sharedQueue;
+
+        BoundedQueue<Integer> create() {
+            switch (this.sharedQueue) {
+                case "LinkedList+lock": return new LockedQueue<>(new LinkedList<>(), CAPACITY);
+                case "ArrayDeque+lock": return new LockedQueue<>(new ArrayDeque<>(), CAPACITY);
+                case "ArrayBlockingQueue": return new BlockingQueueAdapter<>(new ArrayBlockingQueue<>(CAPACITY));
+                case "MpmcQueue": return new MpmcQueue<>(CAPACITY);
+                default: throw new IllegalArgumentException("Queue tidak dikenal: " + this.sharedQueue);
+            }
+        }
+    }
+
+    private static <Q extends Queue<Integer>> Q fill(final Q queue) {
+        for (int i = 0; i < QUEUE_LENGTH; i++) {
+            queue.offer(VALUES[i % VALUES.length]);
+        }
+        return queue;
+    }
+
+    // Cara di queue.java: salin seluruh queue hanya untuk elemen terakhir
+    @Benchmark
+    public Object peekLastToArray(final Filled state) {
+        final Object[] copy = state.linked.toArray();
+        return copy[copy.length - 1];
+    }
+
+    @Benchmark
+    public Integer peekLastLinkedList(final Filled state) {
+        return state.linked.peekLast();
+    }
+
+    @Benchmark
+    public Integer peekLastArrayDeque(final Filled state) {
+        return state.deque.peekLast();
+    }
+
+    @Benchmark
+    public Integer peekLastRingBuffer(final Filled state) {
+        return state.ring.peekLast();
+    }
+
+    // Keadaan tunak: satu offer dan satu poll, isi queue tetap QUEUE_LENGTH
+    @Benchmark
+    public Integer offerPoll(final Steady state) {
+        state.target.offer(VALUES[7]);
+        return state.target.poll();
+    }
+
+    // Skor per elemen: MESSAGES elemen dari semua produsen ke satu konsumen
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long handoff(final Handoff state) throws InterruptedException {
+        return handoff(state.create(), state.producers);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long handoffSpsc() throws InterruptedException {
+        return handoff(new SpscQueue<>(CAPACITY), 1);
+    }
+
+    // Produsen dijalankan di thread baru, konsumen di thread benchmark; mengembalikan jumlah elemen
+    private static long handoff(final BoundedQueue<Integer> queue, final int producerCount)
+            throws InterruptedException {
+        final int perProducer = MESSAGES / producerCount;
+        final Thread[] producers = new Thread[producerCount];
+        for (int p = 0; p < producers.length; p++) {
+            producers[p] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.put(VALUES[i & (VALUES.length - 1)]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "produsen-" + p);
+        }
+
+        for (final Thread producer : producers) {
+            producer.start();
+        }
+        long sum = 0;
+        for (int i = 0; i < perProducer * producers.length; i++) {
+            sum += queue.take();
+        }
+        for (final Thread producer : producers) {
+            producer.join();
+        }
+        return sum;
+    }
+
+    // Queue biasa dengan synchronized dan wait/notify: cara paling sederhana memakai
+    // LinkedList/ArrayDeque antar-thread, dengan batas kapasitas yang sama
+    private static final class LockedQueue<E> implements BoundedQueue<E> {
+        private final Queue<E> queue;
+        private final int capacity;
+
+        LockedQueue(final Queue<E> queue, final int capacity) {
+            this.queue = queue;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized boolean offer(final E element) {
+            if (this.queue.size() >= this.capacity) {
+                return false;
+            }
+            this.queue.offer(element);
+            notifyAll();
+            return true;
+        }
+
+        @Override
+        public synchronized E poll() {
+            final E element = this.queue.poll();
+            if (element != null) {
+                notifyAll();
+            }
+            return element;
+        }
+
+        @Override
+        public synchronized void put(final E element) throws InterruptedException {
+            while (this.queue.size() >= this.capacity) {
+                wait();
+            }
+            this.queue.offer(element);
+            notifyAll();
+        }
+
+        @Override
+        public synchronized E take() throws InterruptedException {
+            while (this.queue.isEmpty()) {
+                wait();
+            }
+            notifyAll();
+            return this.queue.poll();
+        }
+
+        @Override
+        public synchronized int size() {
+            return this.queue.size();
+        }
+
+        @Override
+        public int capacity() {
+            return this.capacity;
+        }
+    }
+
+    private static final class BlockingQueueAdapter<E> implements BoundedQueue<E> {
+        private final BlockingQueue<E> queue;
+
+        BlockingQueueAdapter(final BlockingQueue<E> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean offer(final E element) {
+            return this.queue.offer(element);
+        }
+
+        @Override
+        public E poll() {
+            return this.queue.poll();
+        }
+
+        @Override
+        public void put(final E element) throws InterruptedException {
+            this.queue.put(element);
+        }
+
+        @Override
+        public E take() throws InterruptedException {
+            return this.queue.take();
+        }
+
+        @Override
+        public int size() {
+            return this.queue.size();
+        }
+
+        @Override
+        public int capacity() {
+            return this.queue.size() + this.queue.remainingCapacity();
+        }
+    }
+}
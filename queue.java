@@ -1,9 +1,10 @@
-import java.util.LinkedList;
-import java.util.Queue;
+// contoh queue; jalankan dari folder proyek: mvn -B compile, lalu java -cp target/classes queue.java
+
+import case_2_queue.RingBuffer;
 
 public class Main {
     public static void main(String[] args) {
-        Queue<String> queue = new LinkedList<>();
+        RingBuffer<String> queue = new RingBuffer<>();
 
         // Adding elements to the queue
         queue.add("Pensil");
@@ -14,7 +15,7 @@ public class Main {
 
         System.out.println("Queue: " + queue);
         System.out.println("Item pertama: " + queue.peek());
-        System.out.println("Item terakhir: " + queue.toArray()[size - 1]);
+        System.out.println("Item terakhir: " + queue.peekLast());
         System.out.println("Jumlah item pada queue: " + size);
 }
 }
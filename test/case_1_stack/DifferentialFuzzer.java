@@ -0,0 +1,832 @@
+// fuzzing diferensial: ekspresi acak (valid dan tidak valid) lewat pipeline referensi dan semua jalur cepat.
+// Dijalankan oleh mvn -B test (fase test, lihat pom.xml; -Dfuzz.count, -Dfuzz.seed), atau langsung:
+// java -cp target/classes:target/test-classes case_1_stack.DifferentialFuzzer [jumlah-ekspresi] [seed] [filter-jalur]
+// Exit code 1 jika ada jalur yang hasilnya berbeda dari referensi.
+
+package case_1_stack;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Referensi adalah rantai {@link InfixValidator#tokenize(String)} ->
+ * {@link InfixConverter#convertToPostfix(TokenStack)} ->
+ * {@link PostfixEvaluator#evaluateResult(TokenStack, Map)}.
+ * Setiap ekspresi dijalankan lewat referensi dan lewat setiap jalur lain, untuk beberapa baris nilai
+ * variabel, lalu hasilnya dibandingkan:
+ * <ul>
+ *   <li>error validasi: kode dan posisi harus sama persis;</li>
+ *   <li>error konversi/evaluasi: jalur juga harus gagal (tahapnya boleh berbeda, misalnya operand
+ *       kurang ditolak CompiledExpression saat kompilasi tetapi oleh referensi saat evaluasi), dan
+ *       error runtime (pembagian dengan nol, fungsi pengguna) harus berkode sama;</li>
+ *   <li>hasil: harus sama bit per bit (Double.equals: NaN sama dengan NaN, -0.0 beda dengan 0.0).</li>
+ * </ul>
+ * Backend long dan desimal dibandingkan dengan {@link PostfixEvaluator} pada backend yang sama.
+ * StreamingEvaluator (mode file) hanya menerima teks tanpa variabel, jadi hanya diuji dengan
+ * ekspresi seperti itu.
+ * <p>
+ * Unary minus dan desimal koma diperlakukan khusus: generator sengaja sering membuatnya (termasuk
+ * bentuk yang tidak valid seperti "- 2", "--2", ",5"), hasilnya dilaporkan per kategori, dan
+ * aturan yang disepakati (misalnya -2 ^ 2 = 4 karena -2 adalah satu literal) dipatok di
+ * {@link #PINNED} dan diperiksa sebelum fuzzing.
+ * <p>
+ * Waktu setiap jalur (dari teks sampai hasil, termasuk kompilasi) dijumlahkan dan dilaporkan relatif
+ * terhadap referensi. Angka ini menunjukkan arah; untuk pengukuran yang teliti gunakan
+ * benchmark JMH PipelineJmh (jmh/, profil jmh).
+ */
+public class DifferentialFuzzer {
+
+    // Nilai variabel x, y, z per baris; nol sengaja ada agar pembagian dengan nol ikut teruji.
+    // Nama lain (hasil mutasi, misalnya "x5") mendapat nilai bulat dari hash namanya.
+    private static final String[] VARIABLES = {"x", "y", "z"};
+    private static final double[][] ROWS = {{3, 0, -2.5}, {0, 1, 0.5}, {-1, 2, 0}};
+    private static final long[][] LONG_ROWS = {{3, 0, -2}, {0, 1, 5}, {-1, 2, 0}};
+    // Salinan ROWS untuk jalur kolom: 3 * 23 = 69 baris, lebih dari beberapa vektor ditambah sisa
+    private static final int COLUMN_COPIES = 23;
+
+    // Fungsi pengguna yang bisa gagal: jalur OP_CALL dan error ARITHMETIC
+    private static final String USER_FUNCTION = "inv";
+
+    private static final int MAX_EXAMPLES = 5; // contoh perbedaan yang dicetak per jalur
+
+    // Aturan unary minus dan desimal koma: ekspresi -> hasil (Double) atau kode error, sama untuk
+    // setiap baris, atau Object[] berisi hasil per baris ROWS (x = 3, 0, -1; y = 0, 1, 2). Hasil
+    // dihitung dengan tangan, bukan dari jalur mana pun: semua jalur memakai lexer yang sama, jadi
+    // aturan yang salah di lexer tidak akan terlihat sebagai perbedaan antarjalur
+    private static final Object[][] PINNED = {
+        {"-2 ^ 2", 4.0},              // literal negatif adalah satu operand
+        {"-(2) ^ 2", -4.0},           // negasi "-(" lebih lemah dari pangkat
+        {"-(3) ^ 2 + 1", -8.0},
+        {"6/-(2)", -3.0},             // ... tetapi lebih kuat dari '*' dan '/'
+        {"6/-2", -3.0},
+        {"6 / -(1 + 2) * 2", -4.0},
+        {"2 ^ -(1)", 0.5},
+        {"-(2) ^ -(1)", -0.5},
+        {"6/-x", new Object[] {-2.0, ErrorCode.DIVISION_BY_ZERO, 6.0}},
+        {"2^-x", new Object[] {0.125, 1.0, 2.0}},
+        {"-x ^ 2", new Object[] {-9.0, -0.0, -1.0}},
+        {"1 - -x * 2", new Object[] {7.0, 1.0, -1.0}},
+        {"2^-y", new Object[] {1.0, 0.5, 0.25}},  // y = 0, 1, 2
+        {"12 / -(y + 1) / 2", new Object[] {-6.0, -3.0, -2.0}},
+        {"-(y) ^ 2 * 3", new Object[] {-0.0, -3.0, -12.0}},
+        {"-y * -y", new Object[] {0.0, 1.0, 4.0}},
+        {"6/-(2) == 6/-2", 1.0},
+        {"2 ^ -2", 0.25},
+        {"2 - -3", 5.0},
+        {"2--3", 5.0},                // minus biner lalu literal negatif
+        {"-2 - -2", 0.0},
+        {"2 * -(1 + 1)", -4.0},
+        {"min(-1; -(2))", -2.0},
+        {"- 2", ErrorCode.INVALID_UNARY_MINUS},
+        {"--2", ErrorCode.INVALID_UNARY_MINUS},
+        {"2 * - 3", ErrorCode.INVALID_UNARY_MINUS},
+        {"1,5 + 0.5", 2.0},           // koma dan titik sama-sama pemisah desimal
+        {"1, + 1.", 2.0},             // digit setelah pemisah boleh kosong
+        {"-0,5 * 4", -2.0},
+        {"0,1 + 0,2", 0.1 + 0.2},
+        {",5", ErrorCode.UNKNOWN_CHARACTER},
+        {"1,5,5", ErrorCode.UNKNOWN_CHARACTER},
+        {"max(1,5; 2,5)", 2.5},       // ';' memisahkan argumen, ',' tetap desimal
+        {"max(1,5)", ErrorCode.ARGUMENT_COUNT},
+    };
+
+    // Program dengan lompatan ?: dan stack dalam yang harus mendapat kernel bytecode, bukan diam-diam
+    // kembali ke interpreter karena class-nya ditolak verifier
+    private static final String[] KERNEL_PROGRAMS = {
+        "x ? 2 : 3",
+        "x < y ? -z : (y ? 1 : x / y)",
+        "1 + (2 + (3 + (4 + (x ? y : z))))",
+    };
+
+    // Fuzzer selalu memberi nilai ke setiap variabel, jadi di sini diperiksa langsung bahwa optimasi tidak
+    // menghapus variabel: tanpa nilai x, jalur kompilasi harus gagal (MISSING_VARIABLE) seperti referensi
+    private static final String[] VARIABLE_PROGRAMS = {
+        "x ^ 0",
+        "x ^ -0",
+        "(x / 2) ^ 0 + 1",
+    };
+
+    private static final int REFERENCE = 0;
+    private static final int REFERENCE_LONG = 1;
+    private static final int REFERENCE_DECIMAL = 2;
+
+    /**
+     * Hasil satu jalur untuk satu ekspresi: ditolak sebelum evaluasi (validasi, konversi, atau
+     * kompilasi), atau satu hasil per baris nilai variabel (nilai, atau ErrorCode jika baris gagal).
+     * Jalur yang tidak menjalankan bagian yang seharusnya diuji (misalnya kernel tidak dibuat)
+     * melaporkan broken dan selalu dihitung beda.
+     */
+    private static final class Outcome {
+        private final boolean rejected;
+        private final ErrorCode code;   // null jika jalur tidak melaporkan kode (StreamingEvaluator)
+        private final int position;
+        private final Object[] rows;
+        private final String broken;
+
+        private Outcome(final boolean rejected, final ErrorCode code, final int position, final Object[] rows,
+                        final String broken) {
+            this.rejected = rejected;
+            this.code = code;
+            this.position = position;
+            this.rows = rows;
+            this.broken = broken;
+        }
+
+        private Outcome(final boolean rejected, final ErrorCode code, final int position, final Object[] rows) {
+            this(rejected, code, position, rows, null);
+        }
+
+        static Outcome broken(final String reason) {
+            return new Outcome(true, null, Result.NO_POSITION, null, reason);
+        }
+
+        static Outcome rejected(final Result<?> result) {
+            return new Outcome(true, result.getCode(), result.getPosition(), null);
+        }
+
+        static Outcome rows(final Object[] rows) {
+            return new Outcome(false, null, Result.NO_POSITION, rows);
+        }
+
+        // Hasil baris r; ditolak dihitung sebagai error di setiap baris
+        Object row(final int r) {
+            return this.rejected ? this.code : this.rows[r];
+        }
+
+        boolean isError(final int r) {
+            return this.rejected || this.rows[r] instanceof ErrorCode || this.rows[r] == null;
+        }
+
+        @Override
+        public String toString() {
+            if (this.broken != null) {
+                return this.broken;
+            }
+            if (this.rejected) {
+                return "ditolak " + this.code + (this.position >= 0 ? " @" + this.position : "");
+            }
+            return Arrays.toString(this.rows);
+        }
+    }
+
+    // Satu jalur evaluasi beserta statistiknya
+    private static final class Path {
+        private final String name;
+        private final int reference;   // indeks referensi pembanding, -1 untuk referensi sendiri
+        private final boolean runtimeCodes; // kode error runtime harus sama dengan referensi
+        private final boolean constantOnly; // hanya untuk ekspresi tanpa variabel
+        private final Function<String, Outcome> body;
+
+        private long nanos;
+        private long compared;
+        private long mismatches;
+        private final List<String> examples = new ArrayList<>();
+
+        Path(final String name, final int reference, final boolean runtimeCodes, final boolean constantOnly,
+                final Function<String, Outcome> body) {
+            this.name = name;
+            this.reference = reference;
+            this.runtimeCodes = runtimeCodes;
+            this.constantOnly = constantOnly;
+            this.body = body;
+        }
+    }
+
+    // Jumlah ekspresi dan perbedaan per kategori: semua, unary minus, desimal koma
+    private static final String[] CATEGORIES = {"semua", "unary minus", "desimal koma"};
+
+    private final Random random;
+    private final Generator generator;
+    private final StreamingEvaluator streaming = new StreamingEvaluator();
+    private final List<Path> references = new ArrayList<>();
+    private final List<Path> paths = new ArrayList<>();
+    private final long[] categoryCount = new long[CATEGORIES.length];
+    private final long[] categoryValid = new long[CATEGORIES.length];
+    private final long[] categoryMismatches = new long[CATEGORIES.length];
+    private long pinnedFailures;
+
+    DifferentialFuzzer(final long seed, final String filter) {
+        this.random = new Random(seed);
+        this.generator = new Generator(new Random(seed + 1));
+
+        this.references.add(new Path("referensi", -1, true, false, DifferentialFuzzer::reference));
+        this.references.add(new Path("referensi-long", -1, false, false,
+                e -> backendReference(e, NumericBackend.LONG)));
+        this.references.add(new Path("referensi-desimal", -1, false, false,
+                e -> backendReference(e, NumericBackend.DECIMAL)));
+
+        final List<Path> all = new ArrayList<>();
+        all.add(new Path("kompilasi", REFERENCE, true, false, this::compiled));
+        all.add(new Path("tanpa-pelipatan", REFERENCE, true, false, this::unfolded));
+        all.add(new Path("kernel", REFERENCE, true, false, this::kernel));
+        all.add(new Path("kolom", REFERENCE, true, false, this::columns));
+        all.add(new Path("pohon", REFERENCE, true, false, this::tree));
+        all.add(new Path("edit-sesi", REFERENCE, true, false, this::edited));
+        // Mode file tidak punya nilai variabel: StreamingEvaluator menolak setiap teks yang menyebut
+        // variabel, sedangkan referensi (malas, misalnya cabang ?: yang tidak dipilih) bisa tidak membutuhkan nilainya
+        all.add(new Path("streaming", REFERENCE, false, true, this::streamed));
+        all.add(new Path("backend-long", REFERENCE_LONG, false, false, e -> backend(e, NumericBackend.LONG)));
+        all.add(new Path("backend-desimal", REFERENCE_DECIMAL, false, false,
+                e -> backend(e, NumericBackend.DECIMAL)));
+        for (final Path path : all) {
+            if (path.name.contains(filter)) {
+                this.paths.add(path);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        final String filter = args.length > 2 ? args[2] : "";
+
+        Functions.register(USER_FUNCTION, 1, values -> {
+            if (values[0] == 0) {
+                throw new ArithmeticException("inv(0) tidak terdefinisi.");
+            }
+            return 1 / values[0];
+        });
+
+        final DifferentialFuzzer fuzzer = new DifferentialFuzzer(seed, filter);
+        fuzzer.checkPinned();
+        for (int i = 0; i < count; i++) {
+            // Sepertiga ekspresi dirusak agar jalur error ikut teruji
+            final String expression = i % 3 == 2 ? fuzzer.generator.invalid() : fuzzer.generator.valid();
+            fuzzer.check(expression, null);
+        }
+        System.exit(fuzzer.report(count, seed) ? 0 : 1);
+    }
+
+    // Kasus tetap: referensi harus sesuai harapan, dan setiap jalur sama dengan referensi
+    private void checkPinned() {
+        for (final Object[] pinned : PINNED) {
+            check((String) pinned[0], pinned[1]);
+        }
+        for (final String expression : KERNEL_PROGRAMS) {
+            if (!CompiledExpression.compile(expression).compileKernel()) {
+                this.pinnedFailures++;
+                System.out.println("KERNEL GAGAL DIBUAT [" + expression + "]");
+            }
+            check(expression, null);
+        }
+        for (final String expression : VARIABLE_PROGRAMS) {
+            if (!CompiledExpression.compile(expression).getVariables().contains("x")) {
+                this.pinnedFailures++;
+                System.out.println("VARIABEL HILANG SETELAH OPTIMASI [" + expression + "]");
+            }
+        }
+    }
+
+    /**
+     * Menjalankan satu ekspresi lewat semua referensi dan jalur, lalu membandingkan hasilnya.
+     *
+     * @param expected Hasil yang dipatok (Double, ErrorCode, atau Object[] per baris), atau null jika tidak ada.
+     */
+    private void check(final String expression, final Object expected) {
+        final Outcome[] referenceOutcomes = new Outcome[this.references.size()];
+        for (int i = 0; i < referenceOutcomes.length; i++) {
+            referenceOutcomes[i] = run(this.references.get(i), expression);
+        }
+        final Outcome reference = referenceOutcomes[REFERENCE];
+
+        if (expected != null && !matchesExpected(reference, expected)) {
+            this.pinnedFailures++;
+            System.out.println("KASUS TETAP GAGAL [" + expression + "] harapan "
+                    + (expected instanceof Object[] ? Arrays.toString((Object[]) expected) : expected)
+                    + ", referensi " + reference);
+        }
+
+        final boolean valid = !isValidationError(reference);
+        final boolean[] inCategory = {true, hasUnaryMinus(expression), expression.indexOf(',') >= 0};
+        final boolean constant = !hasVariables(expression);
+        boolean mismatch = false;
+        for (final Path path : this.paths) {
+            if (path.constantOnly && !constant) {
+                continue;
+            }
+            final Outcome outcome = run(path, expression);
+            path.compared++;
+            final String difference = compare(referenceOutcomes[path.reference], outcome, path.runtimeCodes);
+            if (difference != null) {
+                mismatch = true;
+                path.mismatches++;
+                if (path.examples.size() < MAX_EXAMPLES) {
+                    path.examples.add("[" + expression + "] " + difference + "; referensi "
+                            + referenceOutcomes[path.reference] + ", jalur " + outcome);
+                }
+            }
+        }
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if (inCategory[c]) {
+                this.categoryCount[c]++;
+                if (valid) {
+                    this.categoryValid[c]++;
+                }
+                if (mismatch) {
+                    this.categoryMismatches[c]++;
+                }
+            }
+        }
+    }
+
+    private static Outcome run(final Path path, final String expression) {
+        final long start = System.nanoTime();
+        final Outcome outcome = path.body.apply(expression);
+        path.nanos += System.nanoTime() - start;
+        return outcome;
+    }
+
+    // null jika sama; selain itu penjelasan singkat perbedaannya
+    private static String compare(final Outcome reference, final Outcome actual, final boolean runtimeCodes) {
+        if (actual.broken != null) {
+            return actual.broken;
+        }
+        if (isValidationError(reference)) {
+            if (!actual.rejected) {
+                return "error validasi tidak terdeteksi";
+            }
+            if (actual.code != null && (actual.code != reference.code || actual.position != reference.position)) {
+                return "kode/posisi error validasi berbeda";
+            }
+            return null;
+        }
+        if (actual.rejected && actual.code != null && isValidationCode(actual.code)) {
+            return "error validasi yang tidak ada di referensi";
+        }
+        for (int r = 0; r < ROWS.length; r++) {
+            if (reference.isError(r)) {
+                if (!actual.isError(r)) {
+                    return "baris " + r + " seharusnya gagal";
+                }
+                final Object code = reference.row(r);
+                if (runtimeCodes && !actual.rejected && actual.rows[r] != null
+                        && (code == ErrorCode.DIVISION_BY_ZERO || code == ErrorCode.ARITHMETIC)
+                        && actual.rows[r] != code) {
+                    return "kode error baris " + r + " berbeda";
+                }
+            } else if (actual.isError(r)) {
+                return "baris " + r + " seharusnya berhasil";
+            } else if (!Objects.equals(reference.rows[r], actual.rows[r])) {
+                return "hasil baris " + r + " berbeda";
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesExpected(final Outcome reference, final Object expected) {
+        for (int r = 0; r < ROWS.length; r++) {
+            final Object row = expected instanceof Object[] ? ((Object[]) expected)[r] : expected;
+            if (!row.equals(reference.row(r))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Error tokenisasi: satu-satunya tahap yang melaporkan posisi karakter
+    private static boolean isValidationError(final Outcome outcome) {
+        return outcome.rejected && outcome.code != null && isValidationCode(outcome.code);
+    }
+
+    private static boolean isValidationCode(final ErrorCode code) {
+        return code.ordinal() <= ErrorCode.TOO_MANY_TOKENS.ordinal();
+    }
+
+    private static boolean hasVariables(final String expression) {
+        final Result<TokenStack> infix = InfixValidator.tokenize(expression);
+        return infix.isOk() && infix.getValue().stream().anyMatch(token -> token.getType() == TokenType.VARIABLE);
+    }
+
+    // '-' di posisi operand: di awal, atau setelah '(', operator, ';', '?', ':'
+    static boolean hasUnaryMinus(final String expression) {
+        char previous = '(';
+        for (int i = 0; i < expression.length(); i++) {
+            final char character = expression.charAt(i);
+            if (Character.isWhitespace(character)) {
+                continue;
+            }
+            if (character == '-' && "(+-*/^<>=!;?:".indexOf(previous) >= 0) {
+                return true;
+            }
+            previous = character;
+        }
+        return false;
+    }
+
+    // ---- Referensi ----
+
+    private static Outcome reference(final String expression) {
+        final Result<TokenStack> infix = InfixValidator.tokenize(expression);
+        if (!infix.isOk()) {
+            return Outcome.rejected(infix);
+        }
+        final Result<TokenStack> postfix = InfixConverter.convertToPostfix(infix.getValue());
+        if (!postfix.isOk()) {
+            return Outcome.rejected(postfix);
+        }
+        final Object[] rows = new Object[ROWS.length];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = value(PostfixEvaluator.evaluateResult(postfix.getValue(), variables(postfix.getValue(), r)));
+        }
+        return Outcome.rows(rows);
+    }
+
+    private static <T> Outcome backendReference(final String expression, final NumericBackend<T> backend) {
+        final Result<TokenStack> infix = InfixValidator.tokenize(expression);
+        if (!infix.isOk()) {
+            return Outcome.rejected(infix);
+        }
+        final Result<TokenStack> postfix = InfixConverter.convertToPostfix(infix.getValue());
+        if (!postfix.isOk()) {
+            return Outcome.rejected(postfix);
+        }
+        final Object[] rows = new Object[ROWS.length];
+        for (int r = 0; r < rows.length; r++) {
+            final Map<String, T> variables = new HashMap<>();
+            for (final Token token : postfix.getValue()) {
+                if (token.getType() == TokenType.VARIABLE) {
+                    variables.put(token.toString(), backendValue(backend, r, token.toString()));
+                }
+            }
+            rows[r] = value(PostfixEvaluator.evaluateResult(postfix.getValue(), variables, backend));
+        }
+        return Outcome.rows(rows);
+    }
+
+    // ---- Jalur yang diuji ----
+
+    private Outcome compiled(final String expression) {
+        final Result<CompiledExpression> compiled = CompiledExpression.tryCompile(expression);
+        return compiled.isOk() ? evaluateRows(compiled.getValue()) : Outcome.rejected(compiled);
+    }
+
+    // Program dari postfix apa adanya, tanpa PostfixOptimizer
+    private Outcome unfolded(final String expression) {
+        final Result<TokenStack> infix = InfixValidator.tokenize(expression);
+        if (!infix.isOk()) {
+            return Outcome.rejected(infix);
+        }
+        final Result<TokenStack> postfix = InfixConverter.convertToPostfix(infix.getValue());
+        if (!postfix.isOk()) {
+            return Outcome.rejected(postfix);
+        }
+        final Result<CompiledExpression> compiled = CompiledExpression.tryFromPostfix(expression, postfix.getValue());
+        return compiled.isOk() ? evaluateRows(compiled.getValue()) : Outcome.rejected(compiled);
+    }
+
+    private Outcome kernel(final String expression) {
+        final Result<CompiledExpression> compiled = CompiledExpression.tryCompile(expression);
+        if (!compiled.isOk()) {
+            return Outcome.rejected(compiled);
+        }
+        // Tanpa kernel, jalur ini hanya membandingkan interpreter dengan dirinya sendiri; hanya program
+        // dengan fungsi pengguna (OP_CALL) yang memang tidak dikompilasi
+        if (!compiled.getValue().compileKernel() && !expression.contains(USER_FUNCTION + "(")) {
+            return Outcome.broken("kernel tidak dibuat");
+        }
+        return evaluateRows(compiled.getValue());
+    }
+
+    // Semua baris sekaligus lewat evaluateColumns (ColumnEvaluator jika program tanpa lompatan).
+    // ROWS diulang COLUMN_COPIES kali agar loop vektor (bukan hanya sisa skalar) ikut teruji;
+    // setiap salinan harus sama persis dengan baris aslinya.
+    private Outcome columns(final String expression) {
+        final Result<CompiledExpression> compiled = CompiledExpression.tryCompile(expression);
+        if (!compiled.isOk()) {
+            return Outcome.rejected(compiled);
+        }
+        final CompiledExpression program = compiled.getValue();
+        final int count = ROWS.length * COLUMN_COPIES;
+        final double[][] columns = new double[program.getVariables().size()][count];
+        for (int v = 0; v < columns.length; v++) {
+            for (int r = 0; r < count; r++) {
+                columns[v][r] = variable(r % ROWS.length, program.getVariables().get(v));
+            }
+        }
+        final double[] results = new double[count];
+        final ErrorCode[] errors = new ErrorCode[count];
+        program.evaluateColumns(columns, results, 0, count, errors);
+        for (int r = ROWS.length; r < count; r++) {
+            final int base = r % ROWS.length;
+            if (errors[r] != errors[base] || Double.compare(results[r], results[base]) != 0) {
+                return Outcome.broken("baris " + r + " berbeda dari baris " + base + ": "
+                        + (errors[r] != null ? errors[r] : results[r]));
+            }
+        }
+        final Object[] rows = new Object[ROWS.length];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = errors[r] != null ? errors[r] : (Object) results[r];
+        }
+        return Outcome.rows(rows);
+    }
+
+    private Outcome tree(final String expression) {
+        final Result<TokenStack> infix = InfixValidator.tokenize(expression);
+        if (!infix.isOk()) {
+            return Outcome.rejected(infix);
+        }
+        final Result<ExpressionTree> tree = ExpressionTree.parse(infix.getValue());
+        if (!tree.isOk()) {
+            return Outcome.rejected(tree);
+        }
+        final Object[] rows = new Object[ROWS.length];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = value(tree.getValue().evaluate(variables(infix.getValue(), r)));
+        }
+        return Outcome.rows(rows);
+    }
+
+    // Teks diketik dalam beberapa potongan dengan urutan acak (keadaan antara biasanya tidak
+    // valid), lalu satu rentang dihapus dan diketik ulang; postfix akhirnya dievaluasi referensi
+    private Outcome edited(final String expression) {
+        final int pieces = 1 + this.random.nextInt(Math.min(4, expression.length() + 1));
+        final int[] cuts = new int[pieces + 1];
+        for (int p = 1; p < pieces; p++) {
+            cuts[p] = this.random.nextInt(expression.length() + 1);
+        }
+        cuts[pieces] = expression.length();
+        Arrays.sort(cuts);
+
+        final EditSession session = new EditSession();
+        final boolean[] typed = new boolean[pieces];
+        for (int k = 0; k < pieces; k++) {
+            int piece = this.random.nextInt(pieces);
+            while (typed[piece]) {
+                piece = (piece + 1) % pieces;
+            }
+            int position = 0;
+            for (int p = 0; p < piece; p++) {
+                if (typed[p]) {
+                    position += cuts[p + 1] - cuts[p];
+                }
+            }
+            session.insert(position, expression.substring(cuts[piece], cuts[piece + 1]));
+            typed[piece] = true;
+        }
+        if (!expression.isEmpty()) {
+            final int from = this.random.nextInt(expression.length());
+            final int to = from + 1 + this.random.nextInt(Math.min(3, expression.length() - from));
+            session.delete(from, to - from);
+            session.insert(from, expression.substring(from, to));
+        }
+
+        final Result<TokenStack> postfix = session.getPostfix();
+        if (!postfix.isOk()) {
+            return Outcome.rejected(postfix);
+        }
+        final Object[] rows = new Object[ROWS.length];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = value(PostfixEvaluator.evaluateResult(postfix.getValue(), variables(postfix.getValue(), r)));
+        }
+        return Outcome.rows(rows);
+    }
+
+    // Mode file: tanpa variabel; StreamingEvaluator hanya melaporkan berhasil/gagal
+    private Outcome streamed(final String expression) {
+        final byte[] line = expression.getBytes(StandardCharsets.UTF_8);
+        if (!this.streaming.evaluateLine(line, 0, line.length)) {
+            return new Outcome(true, null, Result.NO_POSITION, null);
+        }
+        final Object[] rows = new Object[ROWS.length];
+        Arrays.fill(rows, this.streaming.lastResult());
+        return Outcome.rows(rows);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Outcome backend(final String expression, final NumericBackend<T> backend) {
+        final Result<CompiledExpression> compiled = CompiledExpression.tryCompile(expression, backend);
+        if (!compiled.isOk()) {
+            return Outcome.rejected(compiled);
+        }
+        final CompiledExpression program = compiled.getValue();
+        final Object[] rows = new Object[ROWS.length];
+        for (int r = 0; r < rows.length; r++) {
+            final T[] values = (T[]) new Object[program.getVariables().size()];
+            for (int v = 0; v < values.length; v++) {
+                values[v] = backendValue(backend, r, program.getVariables().get(v));
+            }
+            try {
+                rows[r] = program.evaluate(backend, values);
+            } catch (ArithmeticException e) {
+                rows[r] = ErrorCode.ARITHMETIC;
+            }
+        }
+        return Outcome.rows(rows);
+    }
+
+    private static Outcome evaluateRows(final CompiledExpression program) {
+        final Object[] rows = new Object[ROWS.length];
+        for (int r = 0; r < rows.length; r++) {
+            final double[] values = new double[program.getVariables().size()];
+            for (int v = 0; v < values.length; v++) {
+                values[v] = variable(r, program.getVariables().get(v));
+            }
+            try {
+                rows[r] = program.evaluate(values);
+            } catch (ArithmeticException e) {
+                rows[r] = CompiledExpression.errorCode(e);
+            }
+        }
+        return Outcome.rows(rows);
+    }
+
+    private static Object value(final Result<?> result) {
+        return result.isOk() ? result.getValue() : result.getCode();
+    }
+
+    // Nilai variabel pada baris row: x, y, z dari ROWS, nama lain bulat -1..3 dari hash namanya
+    private static double variable(final int row, final String name) {
+        final int index = Arrays.asList(VARIABLES).indexOf(name);
+        return index >= 0 ? ROWS[row][index] : Math.floorMod(name.hashCode() + row, 5) - 1;
+    }
+
+    private static Map<String, Double> variables(final TokenStack tokens, final int row) {
+        final Map<String, Double> variables = new HashMap<>();
+        for (final Token token : tokens) {
+            if (token.getType() == TokenType.VARIABLE) {
+                variables.put(token.toString(), variable(row, token.toString()));
+            }
+        }
+        return variables;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T backendValue(final NumericBackend<T> backend, final int row, final String name) {
+        final int index = Arrays.asList(VARIABLES).indexOf(name);
+        if (backend == NumericBackend.LONG) {
+            return (T) Long.valueOf(index >= 0 ? LONG_ROWS[row][index] : (long) variable(row, name));
+        }
+        return (T) BigDecimal.valueOf(variable(row, name));
+    }
+
+    // ---- Laporan ----
+
+    // Mencetak ringkasan; true jika tidak ada perbedaan
+    private boolean report(final int count, final long seed) {
+        System.out.printf(Locale.ROOT, "%d ekspresi acak (seed %d) + %d kasus tetap%n%n", count, seed, PINNED.length);
+        System.out.printf(Locale.ROOT, "%-16s %10s %10s%n", "Kategori", "ekspresi", "valid");
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            System.out.printf(Locale.ROOT, "%-16s %10d %10d%n", CATEGORIES[c], this.categoryCount[c],
+                    this.categoryValid[c]);
+        }
+
+        final double referenceNanos = (double) this.references.get(REFERENCE).nanos
+                / Math.max(1, this.categoryCount[0]);
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-20s %10s %8s %12s %12s %10s%n",
+                "Jalur", "dicek", "beda", "ekspresi/s", "ns/ekspresi", "relatif");
+        final List<Path> all = new ArrayList<>(this.references);
+        all.addAll(this.paths);
+        for (final Path path : all) {
+            final long checked = path.reference < 0 ? this.categoryCount[0] : path.compared;
+            final double nanosPer = (double) path.nanos / Math.max(1, checked);
+            System.out.printf(Locale.ROOT, "%-20s %10d %8s %12.0f %12.1f %9.2fx%n", path.name, checked,
+                    path.reference < 0 ? "-" : Long.toString(path.mismatches), 1e9 / Math.max(nanosPer, 1e-9),
+                    nanosPer, referenceNanos / Math.max(nanosPer, 1e-9));
+        }
+
+        boolean ok = this.pinnedFailures == 0;
+        for (final Path path : this.paths) {
+            if (path.mismatches > 0) {
+                ok = false;
+                System.out.println();
+                System.out.println("Perbedaan pada jalur " + path.name + ":");
+                for (final String example : path.examples) {
+                    System.out.println("  " + example);
+                }
+            }
+        }
+        if (!ok) {
+            System.out.println();
+            for (int c = 1; c < CATEGORIES.length; c++) {
+                System.out.printf(Locale.ROOT, "Ekspresi berbeda dengan %s: %d%n", CATEGORIES[c],
+                        this.categoryMismatches[c]);
+            }
+        }
+        System.out.println();
+        System.out.println(ok ? "OK: semua jalur sama dengan referensi."
+                : "GAGAL: ada jalur yang berbeda dari referensi.");
+        return ok;
+    }
+
+    /**
+     * Generator ekspresi acak: operand (bilangan bulat, desimal titik/koma, literal negatif,
+     * variabel), operator biner dan perbandingan, kurung, unary minus sebelum kurung/variabel,
+     * fungsi, dan c ? a : b. Ekspresi tidak valid dibuat dengan merusak ekspresi valid.
+     */
+    static final class Generator {
+        private static final String[] OPERATORS = {"+", "-", "*", "/", "^", "+", "-", "*", "/",
+                "<", "<=", ">", ">=", "==", "!="};
+        private static final String[] UNARY_FUNCTIONS = {"sqrt", "abs", "log", USER_FUNCTION};
+        private static final String[] BINARY_FUNCTIONS = {"min", "max"};
+        // Kerusakan yang sering muncul di sekitar unary minus dan desimal koma
+        private static final String[] SPECIAL = {"- ", "--", "-", ",", ",,", ".", ";", "(", ")", "?", ":"};
+        private static final String CHARACTERS = "0123456789+-*/^(),.;?:<>=! xyz_#";
+
+        private final Random random;
+
+        Generator(final Random random) {
+            this.random = random;
+        }
+
+        String valid() {
+            return expression(1 + this.random.nextInt(5));
+        }
+
+        String invalid() {
+            final StringBuilder text = new StringBuilder(valid());
+            final int edits = 1 + this.random.nextInt(3);
+            for (int k = 0; k < edits; k++) {
+                final int position = this.random.nextInt(text.length() + 1);
+                switch (this.random.nextInt(4)) {
+                    case 0:
+                        if (position < text.length()) {
+                            text.deleteCharAt(position);
+                        }
+                        break;
+                    case 1:
+                        text.insert(position, CHARACTERS.charAt(this.random.nextInt(CHARACTERS.length())));
+                        break;
+                    case 2:
+                        if (position < text.length()) {
+                            text.setCharAt(position, CHARACTERS.charAt(this.random.nextInt(CHARACTERS.length())));
+                        }
+                        break;
+                    default:
+                        text.insert(position, SPECIAL[this.random.nextInt(SPECIAL.length)]);
+                }
+            }
+            return text.toString();
+        }
+
+        private String expression(final int depth) {
+            if (depth == 0 || this.random.nextInt(5) == 0) {
+                return operand();
+            }
+            switch (this.random.nextInt(10)) {
+                case 0:
+                    return "(" + expression(depth - 1) + ")";
+                case 1:
+                    return "-(" + expression(depth - 1) + ")";
+                case 2:
+                    return function(depth);
+                case 3: {
+                    final String conditional = expression(depth - 1) + space() + "?" + space() + expression(depth - 1)
+                            + space() + ":" + space() + expression(depth - 1);
+                    return this.random.nextBoolean() ? "(" + conditional + ")" : conditional;
+                }
+                default:
+                    return expression(depth - 1) + space() + OPERATORS[this.random.nextInt(OPERATORS.length)] + space()
+                            + expression(depth - 1);
+            }
+        }
+
+        private String function(final int depth) {
+            if (this.random.nextBoolean()) {
+                return UNARY_FUNCTIONS[this.random.nextInt(UNARY_FUNCTIONS.length)] + "(" + expression(depth - 1) + ")";
+            }
+            return BINARY_FUNCTIONS[this.random.nextInt(BINARY_FUNCTIONS.length)] + "(" + expression(depth - 1)
+                    + ";" + space() + expression(depth - 1) + ")";
+        }
+
+        private String operand() {
+            switch (this.random.nextInt(10)) {
+                case 0:
+                    return "-" + number();
+                case 1:
+                case 2:
+                    return VARIABLES[this.random.nextInt(VARIABLES.length)];
+                case 3:
+                    return "-" + VARIABLES[this.random.nextInt(VARIABLES.length)];
+                default:
+                    return number();
+            }
+        }
+
+        // Bilangan bulat, atau desimal dengan '.' / ',' dan nol sampai dua digit setelahnya
+        private String number() {
+            final String whole = Integer.toString(this.random.nextInt(this.random.nextInt(4) == 0 ? 1000 : 10));
+            if (this.random.nextInt(3) != 0) {
+                return whole;
+            }
+            final StringBuilder fraction = new StringBuilder();
+            for (int digits = this.random.nextInt(3); digits > 0; digits--) {
+                fraction.append(this.random.nextInt(10));
+            }
+            return whole + (this.random.nextBoolean() ? "," : ".") + fraction;
+        }
+
+        private String space() {
+            return this.random.nextInt(3) == 0 ? "" : " ";
+        }
+    }
+}
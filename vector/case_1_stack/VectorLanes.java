@@ -0,0 +1,149 @@
+// loop operator ColumnEvaluator dengan Vector API (jdk.incubator.vector).
+// Dibangun dengan: mvn -B -Pvector compile; dijalankan dengan: java --add-modules jdk.incubator.vector ...
+// JMH: mvn -B -Pjmh,vector package, lalu benchmarks.jar dengan -jvmArgsAppend --add-modules=jdk.incubator.vector
+
+package case_1_stack;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ColumnEvaluator.Lanes} dengan vektor selebar register terbesar CPU. Setiap operator punya
+ * loop sendiri dengan operasi vektor yang konstan, supaya C2 bisa menggantinya dengan instruksi
+ * SIMD; sisa baris di luar kelipatan lebar vektor dihitung loop skalar ColumnEvaluator.
+ * <p>
+ * pow dan log tetap skalar: versi Vector API boleh berbeda 1 ulp dari Math.pow/Math.log, sedangkan
+ * evaluasi kolom harus sama persis dengan evaluasi per baris. Operasi lain (termasuk sqrt, min, max)
+ * didefinisikan sama dengan operasi skalar Java.
+ */
+final class VectorLanes implements ColumnEvaluator.Lanes {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void binary(final byte opcode, final double[] a, final double[] b, final int n) {
+        final int bound = SPECIES.loopBound(n);
+        final int step = SPECIES.length();
+        int r = 0;
+        switch (opcode) {
+            case Operator.OP_ADD:
+                for (; r < bound; r += step) {
+                    load(a, r).add(load(b, r)).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_SUB:
+                for (; r < bound; r += step) {
+                    load(a, r).sub(load(b, r)).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_MUL:
+                for (; r < bound; r += step) {
+                    load(a, r).mul(load(b, r)).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_DIV:
+                for (; r < bound; r += step) {
+                    load(a, r).div(load(b, r)).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_MIN:
+                for (; r < bound; r += step) {
+                    load(a, r).min(load(b, r)).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_MAX:
+                for (; r < bound; r += step) {
+                    load(a, r).max(load(b, r)).intoArray(a, r);
+                }
+                break;
+            // Perbandingan: 1 pada lane yang benar, 0 pada lainnya (NaN mengikuti operator Java)
+            case Operator.OP_LT:
+                for (; r < bound; r += step) {
+                    zero().blend(1, load(a, r).compare(VectorOperators.LT, load(b, r))).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_LE:
+                for (; r < bound; r += step) {
+                    zero().blend(1, load(a, r).compare(VectorOperators.LE, load(b, r))).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_GT:
+                for (; r < bound; r += step) {
+                    zero().blend(1, load(a, r).compare(VectorOperators.GT, load(b, r))).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_GE:
+                for (; r < bound; r += step) {
+                    zero().blend(1, load(a, r).compare(VectorOperators.GE, load(b, r))).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_EQ:
+                for (; r < bound; r += step) {
+                    zero().blend(1, load(a, r).compare(VectorOperators.EQ, load(b, r))).intoArray(a, r);
+                }
+                break;
+            case Operator.OP_NE:
+                for (; r < bound; r += step) {
+                    zero().blend(1, load(a, r).compare(VectorOperators.NE, load(b, r))).intoArray(a, r);
+                }
+                break;
+            default:
+                // OP_POW: seluruh blok lewat loop skalar
+                break;
+        }
+        ColumnEvaluator.binary(opcode, a, b, r, n);
+    }
+
+    @Override
+    public void unary(final byte opcode, final double[] a, final int n) {
+        final int bound = SPECIES.loopBound(n);
+        final int step = SPECIES.length();
+        int r = 0;
+        switch (opcode) {
+            case Operator.OP_NEG:
+                for (; r < bound; r += step) {
+                    load(a, r).neg().intoArray(a, r);
+                }
+                break;
+            case Operator.OP_ABS:
+                for (; r < bound; r += step) {
+                    load(a, r).abs().intoArray(a, r);
+                }
+                break;
+            case Operator.OP_SQRT:
+                for (; r < bound; r += step) {
+                    load(a, r).lanewise(VectorOperators.SQRT).intoArray(a, r);
+                }
+                break;
+            default:
+                // OP_LOG: seluruh blok lewat loop skalar
+                break;
+        }
+        ColumnEvaluator.unary(opcode, a, r, n);
+    }
+
+    @Override
+    public int countZeros(final double[] b, final int n) {
+        final int bound = SPECIES.loopBound(n);
+        int zeros = 0;
+        int r = 0;
+        for (; r < bound; r += SPECIES.length()) {
+            zeros += load(b, r).compare(VectorOperators.EQ, 0).trueCount();
+        }
+        return zeros + ColumnEvaluator.countZeros(b, r, n);
+    }
+
+    private static DoubleVector load(final double[] array, final int offset) {
+        return DoubleVector.fromArray(SPECIES, array, offset);
+    }
+
+    private static DoubleVector zero() {
+        return DoubleVector.zero(SPECIES);
+    }
+
+    @Override
+    public String toString() {
+        return "vector(" + SPECIES + ")";
+    }
+}